@@ -0,0 +1,117 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.items.Item;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic synthetic catalogs, requests and preferences for the decide benchmarks.
+ */
+final class DecideBenchmarkFixtures {
+
+  private static final String[] WORDS = {
+      "chicken", "paneer", "biryani", "masala", "tikka", "dosa", "idli", "thali", "burger", "pizza",
+      "noodles", "momos", "kebab", "curry", "salad", "wrap", "rice", "dal", "roll", "soup"
+  };
+
+  private static final String[] PLATFORMS = {"swiggy", "zomato", "eatsure"};
+
+  private DecideBenchmarkFixtures() {}
+
+  static String tag(int i) {
+    return "tag" + i;
+  }
+
+  static String restaurant(int i) {
+    return "Restaurant " + i;
+  }
+
+  static List<Item> catalog(int size, int tagCardinality, long seed) {
+    Random random = new Random(seed);
+    Instant base = Instant.parse("2026-01-01T00:00:00Z");
+    int restaurants = Math.max(1, size / 10);
+
+    List<Item> items = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      int tagCount = 1 + random.nextInt(5);
+      List<String> tags = new ArrayList<>(tagCount);
+      for (int t = 0; t < tagCount; t++) {
+        tags.add(random.nextBoolean() ? tag(random.nextInt(tagCardinality)) : tag(random.nextInt(tagCardinality)).toUpperCase());
+      }
+
+      Instant createdAt = base.plusSeconds(random.nextInt(1_000_000));
+      items.add(new Item(
+          Integer.toHexString(0x100000 + i),
+          "bench-user",
+          WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)],
+          restaurant(random.nextInt(restaurants)),
+          tags,
+          random.nextInt(4) == 0 ? List.of() : List.of(PLATFORMS[random.nextInt(PLATFORMS.length)]),
+          50 + random.nextInt(600),
+          true,
+          createdAt,
+          createdAt.plusSeconds(random.nextInt(100_000))
+      ));
+    }
+    return items;
+  }
+
+  static DecideController.DecideRequest request(int queryTerms, int tagCardinality, long seed) {
+    Random random = new Random(seed);
+    StringBuilder query = new StringBuilder();
+    for (int i = 0; i < queryTerms; i++) {
+      if (i > 0) {
+        query.append(' ');
+      }
+      query.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    return new DecideController.DecideRequest(
+        250,
+        List.of(tag(random.nextInt(tagCardinality)), tag(random.nextInt(tagCardinality))),
+        List.of(tag(random.nextInt(tagCardinality))),
+        query.toString(),
+        3
+    );
+  }
+
+  static UserPreference preference(int size, int tagCardinality, int restaurants, long seed) {
+    Random random = new Random(seed);
+    Map<String, Integer> tagWeights = new HashMap<>();
+    Map<String, Integer> restaurantWeights = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      tagWeights.put(tag(random.nextInt(tagCardinality)), random.nextInt(11) - 5);
+      restaurantWeights.put(restaurant(random.nextInt(Math.max(1, restaurants))).toLowerCase(), random.nextInt(11) - 5);
+    }
+
+    Set<String> allergens = new HashSet<>();
+    allergens.add(tag(random.nextInt(tagCardinality)));
+
+    UserPreference.PreferenceProfile profile = new UserPreference.PreferenceProfile(
+        null,
+        400,
+        Set.of(tag(random.nextInt(tagCardinality))),
+        Set.of(tag(random.nextInt(tagCardinality))),
+        Set.of(restaurant(0).toLowerCase()),
+        Set.of(),
+        Set.of(),
+        Set.copyOf(allergens),
+        null
+    );
+
+    return new UserPreference(
+        "bench-user",
+        Map.copyOf(tagWeights),
+        Map.copyOf(restaurantWeights),
+        2,
+        Instant.parse("2026-01-01T00:00:00Z"),
+        2,
+        profile
+    );
+  }
+}
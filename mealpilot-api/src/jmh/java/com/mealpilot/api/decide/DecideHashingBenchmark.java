@@ -0,0 +1,67 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.items.Item;
+import com.mealpilot.api.items.ItemCatalog;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reproducibility fingerprints recorded in DecisionMeta (input, catalog and preference hashes).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecideHashingBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  public int catalogSize;
+
+  @Param({"0", "3", "12"})
+  public int queryTerms;
+
+  @Param({"0", "64", "1024"})
+  public int preferenceSize;
+
+  private List<Item> catalog;
+  private DecideController.DecideRequest request;
+  private UserPreference preference;
+
+  @Setup
+  public void setUp() {
+    catalog = DecideBenchmarkFixtures.catalog(catalogSize, 64, 42L);
+    request = DecideBenchmarkFixtures.request(queryTerms, 64, 7L);
+    preference = preferenceSize == 0
+        ? UserPreference.empty("bench-user")
+        : DecideBenchmarkFixtures.preference(preferenceSize, Math.max(64, preferenceSize), preferenceSize, 11L);
+  }
+
+  @Benchmark
+  public String hashInput() {
+    return DecideController.hashInput(request, 3);
+  }
+
+  @Benchmark
+  public String hashItems() {
+    // Paid once per catalog load; decide reads the maintained value.
+    return ItemCatalog.of(catalog).itemsHash();
+  }
+
+  @Benchmark
+  public String hashPreference() {
+    return UserPreferenceCache.hashPreference(preference);
+  }
+}
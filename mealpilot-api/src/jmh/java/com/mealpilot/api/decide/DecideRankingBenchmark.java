@@ -0,0 +1,102 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.items.Item;
+import com.mealpilot.api.items.ItemCatalog;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Scoring and candidate selection over a synthetic catalog.
+ *
+ * <p>{@code sortAll} is the pre-streaming pipeline (score everything, full sort, limit) and is kept
+ * as the baseline for {@code rankTopK}. {@code rankIndexed} goes through the catalog's inverted index
+ * in strict mode (must-have tags required, hard avoids dropped); the index is built in setup, as it is
+ * once per cached catalog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecideRankingBenchmark {
+
+  @Param({"10", "1000", "10000", "100000"})
+  public int catalogSize;
+
+  @Param({"16", "256"})
+  public int tagCardinality;
+
+  @Param({"0", "3"})
+  public int queryTerms;
+
+  @Param({"0", "64"})
+  public int preferenceSize;
+
+  @Param({"3"})
+  public int limit;
+
+  private List<Item> catalog;
+  private ItemCatalog indexedCatalog;
+  private DecideController.DecideRequest request;
+  private UserPreference preference;
+
+  @Setup
+  public void setUp() {
+    catalog = DecideBenchmarkFixtures.catalog(catalogSize, tagCardinality, 42L);
+    indexedCatalog = ItemCatalog.of(catalog);
+    indexedCatalog.index();
+    request = DecideBenchmarkFixtures.request(queryTerms, tagCardinality, 7L);
+    preference = preferenceSize == 0
+        ? UserPreference.empty("bench-user")
+        : DecideBenchmarkFixtures.preference(preferenceSize, tagCardinality, catalogSize / 10, 11L);
+  }
+
+  @Benchmark
+  public void scoreAll(Blackhole bh) {
+    ScoringPlan plan = ScoringPlan.compile(request, preference);
+    for (Item item : catalog) {
+      bh.consume(plan.score(item));
+    }
+  }
+
+  @Benchmark
+  public List<ScoringPlan.Scored> rankTopK() {
+    CandidateRanking ranking = new CandidateRanking(ScoringPlan.compile(request, preference), limit);
+    for (Item item : catalog) {
+      ranking.accept(item);
+    }
+    return ranking.top();
+  }
+
+  @Benchmark
+  public List<ScoringPlan.Scored> rankIndexed() {
+    CandidateRanking ranking = new CandidateRanking(ScoringPlan.compile(request, preference), limit, true, true);
+    ranking.acceptAll(indexedCatalog, true);
+    return ranking.top();
+  }
+
+  @Benchmark
+  public List<ScoringPlan.Scored> sortAll() {
+    ScoringPlan plan = ScoringPlan.compile(request, preference);
+    List<ScoringPlan.Scored> scored = new ArrayList<>(catalog.size());
+    for (Item item : catalog) {
+      scored.add(plan.score(item));
+    }
+    scored.sort(CandidateRanking.ORDER);
+    return scored.stream().limit(limit).toList();
+  }
+}
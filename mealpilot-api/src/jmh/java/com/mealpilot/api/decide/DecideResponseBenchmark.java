@@ -0,0 +1,55 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.items.Item;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-candidate response work: confidence softmax and deep-link generation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecideResponseBenchmark {
+
+  @Param({"3", "50"})
+  public int candidates;
+
+  private List<Double> scores;
+  private List<Item> items;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(3L);
+    scores = random.doubles(candidates, -5.0, 8.0).boxed().toList();
+    items = DecideBenchmarkFixtures.catalog(candidates, 16, 5L);
+  }
+
+  @Benchmark
+  public List<Double> softmax() {
+    return DecideController.softmax(scores);
+  }
+
+  @Benchmark
+  public void deepLinks(Blackhole bh) {
+    for (Item item : items) {
+      bh.consume(DecideController.deepLinksFor(item));
+    }
+  }
+}
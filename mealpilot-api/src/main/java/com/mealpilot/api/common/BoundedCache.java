@@ -0,0 +1,178 @@
+package com.mealpilot.api.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Small in-process LRU cache bounded by a total weight (e.g. estimated bytes or entry count),
+ * with an optional time-to-live per entry.
+ *
+ * <p>Publishes {@code mealpilot.cache.gets} (tagged {@code result=hit|miss}),
+ * {@code mealpilot.cache.evictions}, {@code mealpilot.cache.size} and {@code mealpilot.cache.weight},
+ * all tagged with {@code cache=<name>}.
+ */
+public final class BoundedCache<K, V> {
+
+  private final long maxWeight;
+  private final Duration ttl;
+  private final ToLongFunction<V> weigher;
+  private final Clock clock;
+
+  private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long totalWeight;
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter evictions;
+
+  public BoundedCache(
+      String name,
+      long maxWeight,
+      Duration ttl,
+      ToLongFunction<V> weigher,
+      MeterRegistry meterRegistry
+  ) {
+    this(name, maxWeight, ttl, weigher, meterRegistry, Clock.systemUTC());
+  }
+
+  BoundedCache(
+      String name,
+      long maxWeight,
+      Duration ttl,
+      ToLongFunction<V> weigher,
+      MeterRegistry meterRegistry,
+      Clock clock
+  ) {
+    this.maxWeight = Math.max(1, maxWeight);
+    this.ttl = (ttl == null || ttl.isZero() || ttl.isNegative()) ? null : ttl;
+    this.weigher = weigher;
+    this.clock = clock;
+
+    this.hits = Counter.builder("mealpilot.cache.gets").tag("cache", name).tag("result", "hit").register(meterRegistry);
+    this.misses = Counter.builder("mealpilot.cache.gets").tag("cache", name).tag("result", "miss").register(meterRegistry);
+    this.evictions = Counter.builder("mealpilot.cache.evictions").tag("cache", name).register(meterRegistry);
+    Gauge.builder("mealpilot.cache.size", this, BoundedCache::size).tag("cache", name).register(meterRegistry);
+    Gauge.builder("mealpilot.cache.weight", this, BoundedCache::weight).tag("cache", name).register(meterRegistry);
+  }
+
+  public synchronized V get(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    if (isExpired(entry)) {
+      removeEntry(key, entry);
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return entry.value();
+  }
+
+  public synchronized void put(K key, V value) {
+    if (value == null) {
+      invalidate(key);
+      return;
+    }
+
+    long weight = Math.max(1, weigher.applyAsLong(value));
+    Entry<V> previous = entries.put(key, new Entry<>(value, weight, clock.millis()));
+    if (previous != null) {
+      totalWeight -= previous.weight();
+    }
+    totalWeight += weight;
+    evictToBudget();
+  }
+
+  /**
+   * Stores {@code value}, or {@code resolve(current, value)} when a live entry is already cached.
+   * Lets callers keep the newer of two versions when a load and a write race.
+   */
+  public synchronized void merge(K key, V value, BinaryOperator<V> resolve) {
+    Entry<V> entry = entries.get(key);
+    if (entry != null && !isExpired(entry)) {
+      put(key, resolve.apply(entry.value(), value));
+      return;
+    }
+    put(key, value);
+  }
+
+  /**
+   * Replaces the cached value for {@code key} with {@code update(current)} when an entry is present.
+   * A {@code null} result removes the entry. The entry keeps its original load time, so the TTL still
+   * bounds how long it can drift from the source of truth.
+   */
+  public synchronized void updateIfPresent(K key, UnaryOperator<V> update) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      return;
+    }
+    if (isExpired(entry)) {
+      removeEntry(key, entry);
+      return;
+    }
+
+    V next = update.apply(entry.value());
+    if (next == null) {
+      removeEntry(key, entry);
+      return;
+    }
+
+    long weight = Math.max(1, weigher.applyAsLong(next));
+    entries.put(key, new Entry<>(next, weight, entry.loadedAtMillis()));
+    totalWeight += weight - entry.weight();
+    evictToBudget();
+  }
+
+  public synchronized void invalidate(K key) {
+    Entry<V> entry = entries.remove(key);
+    if (entry != null) {
+      totalWeight -= entry.weight();
+    }
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    totalWeight = 0;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long weight() {
+    return totalWeight;
+  }
+
+  private boolean isExpired(Entry<V> entry) {
+    return ttl != null && clock.millis() - entry.loadedAtMillis() >= ttl.toMillis();
+  }
+
+  private void removeEntry(K key, Entry<V> entry) {
+    entries.remove(key);
+    totalWeight -= entry.weight();
+  }
+
+  private void evictToBudget() {
+    Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+    // Always keep the most recently used entry, even when it alone exceeds the budget.
+    while (totalWeight > maxWeight && entries.size() > 1 && it.hasNext()) {
+      Map.Entry<K, Entry<V>> eldest = it.next();
+      totalWeight -= eldest.getValue().weight();
+      it.remove();
+      evictions.increment();
+    }
+  }
+
+  private record Entry<V>(V value, long weight, long loadedAtMillis) {}
+}
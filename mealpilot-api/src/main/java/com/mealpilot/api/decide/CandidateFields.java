@@ -0,0 +1,74 @@
+package com.mealpilot.api.decide;
+
+import java.util.Locale;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Optional candidate parts a decide client asked for with {@code ?fields=}.
+ *
+ * <p>Absent means everything. {@code compact} keeps only the item, score and confidence; otherwise
+ * a comma-separated subset of {@code why}, {@code breakdown} and {@code deepLinks}. Only the response
+ * is projected: persisted decisions always keep every part.
+ */
+record CandidateFields(boolean why, boolean breakdown, boolean deepLinks) {
+
+  static final CandidateFields ALL = new CandidateFields(true, true, true);
+  static final CandidateFields COMPACT = new CandidateFields(false, false, false);
+
+  static CandidateFields parse(String fields) {
+    if (fields == null || fields.isBlank()) {
+      return ALL;
+    }
+
+    boolean why = false;
+    boolean breakdown = false;
+    boolean deepLinks = false;
+    for (String raw : fields.split(",")) {
+      String field = raw.trim().toLowerCase(Locale.ROOT);
+      switch (field) {
+        case "", "compact" -> {
+          // Nothing optional.
+        }
+        case "why" -> why = true;
+        case "breakdown" -> breakdown = true;
+        case "deeplinks" -> deepLinks = true;
+        default -> throw new ResponseStatusException(
+            HttpStatus.BAD_REQUEST,
+            "fields must be 'compact' or a comma-separated list of why, breakdown, deepLinks"
+        );
+      }
+    }
+    return new CandidateFields(why, breakdown, deepLinks);
+  }
+
+  DecideController.Candidate apply(DecideController.Candidate candidate) {
+    if (this.equals(ALL)) {
+      return candidate;
+    }
+    return new DecideController.Candidate(
+        candidate.item(),
+        candidate.score(),
+        candidate.confidence(),
+        why ? candidate.why() : null,
+        deepLinks ? candidate.deepLinks() : null,
+        breakdown ? candidate.breakdown() : null
+    );
+  }
+
+  DecideController.DecideResponse apply(DecideController.DecideResponse response) {
+    if (this.equals(ALL) || response.candidates() == null || response.candidates().isEmpty()) {
+      return response;
+    }
+    return new DecideController.DecideResponse(
+        response.decisionId(),
+        response.userId(),
+        response.time(),
+        response.limit(),
+        response.candidates().stream().map(this::apply).toList(),
+        response.message(),
+        response.degraded(),
+        response.previewFingerprint()
+    );
+  }
+}
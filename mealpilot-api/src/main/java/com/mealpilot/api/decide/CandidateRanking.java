@@ -0,0 +1,153 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.items.Item;
+import com.mealpilot.api.items.ItemCatalog;
+import com.mealpilot.api.items.ItemIndex;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Streaming top-K selection for decide.
+ *
+ * <p>Items are scored as they arrive and only the best {@code limit} are retained in a bounded heap,
+ * so memory is O(limit) and selection O(n log limit); explanations are only built for what
+ * {@link #top()} returns. With {@code excludeHardAvoid}, items carrying a diet/allergen tag are
+ * dropped instead of penalized; with {@code requireMustTag}, items matching none of the request's
+ * must-have tags are dropped.
+ *
+ * <p>{@link #acceptAll(ItemCatalog, boolean)} can resolve both filters and the query term matches
+ * from the catalog's {@link ItemIndex}, so only the surviving items are scored. Rankings of disjoint
+ * ranges can be {@link #merge merged}; {@link #ORDER} is total, so the result does not depend on how
+ * the catalog was split.
+ */
+final class CandidateRanking {
+
+  /** Best first: score, then most recently updated, then most recently created, then id. */
+  static final Comparator<ScoringPlan.Scored> ORDER = Comparator
+      .comparingDouble(ScoringPlan.Scored::score).reversed()
+      .thenComparing((ScoringPlan.Scored s) -> s.item().updatedAt(), Comparator.nullsLast(Comparator.reverseOrder()))
+      .thenComparing((ScoringPlan.Scored s) -> s.item().createdAt(), Comparator.nullsLast(Comparator.reverseOrder()))
+      .thenComparing(s -> s.item().id(), Comparator.nullsLast(Comparator.naturalOrder()));
+
+  private final ScoringPlan plan;
+  private final int limit;
+  private final boolean excludeHardAvoid;
+  private final boolean requireMustTag;
+  // Worst retained candidate at the head.
+  private final PriorityQueue<ScoringPlan.Scored> heap;
+
+  CandidateRanking(ScoringPlan plan, int limit) {
+    this(plan, limit, false, false);
+  }
+
+  CandidateRanking(ScoringPlan plan, int limit, boolean excludeHardAvoid, boolean requireMustTag) {
+    this.plan = plan;
+    this.limit = Math.max(1, limit);
+    this.excludeHardAvoid = excludeHardAvoid && !plan.hardAvoidTags().isEmpty();
+    this.requireMustTag = requireMustTag && !plan.mustTags().isEmpty();
+    this.heap = new PriorityQueue<>(this.limit + 1, ORDER.reversed());
+  }
+
+  void accept(Item item) {
+    if (excludeHardAvoid && plan.hasHardAvoidTag(item)) {
+      return;
+    }
+    if (requireMustTag && !plan.hasMustTag(item)) {
+      return;
+    }
+    offer(plan.score(item, -1));
+  }
+
+  /**
+   * Ranks every item of {@code catalog}, going through its inverted index when {@code useIndex} is set
+   * and the index has something to contribute.
+   */
+  void acceptAll(ItemCatalog catalog, boolean useIndex) {
+    acceptRange(catalog.items(), useIndex ? probe(catalog) : null, 0, catalog.size());
+  }
+
+  /**
+   * Index lookups for this ranking's filters and query terms, or {@code null} when the index would
+   * not narrow anything down. The result is read-only and can be shared by rankings of disjoint
+   * ranges of the same catalog.
+   */
+  Probe probe(ItemCatalog catalog) {
+    String[] terms = plan.queryTerms();
+    if (!excludeHardAvoid && !requireMustTag && terms.length == 0) {
+      return null;
+    }
+
+    ItemIndex index = catalog.index();
+    RoaringBitmap selected = requireMustTag
+        ? index.withAnyTag(plan.mustTags())
+        : RoaringBitmap.bitmapOfRange(0, catalog.size());
+    if (excludeHardAvoid) {
+      selected.andNot(index.withAnyTag(plan.hardAvoidTags()));
+    }
+
+    RoaringBitmap[] termHits = new RoaringBitmap[terms.length];
+    for (int t = 0; t < terms.length; t++) {
+      termHits[t] = index.containing(terms[t]);
+    }
+    return new Probe(selected, termHits);
+  }
+
+  /** Ranks the items at ordinals {@code [from, to)}, filtered through {@code probe} when present. */
+  void acceptRange(List<Item> items, Probe probe, int from, int to) {
+    if (probe == null) {
+      for (int i = from; i < to; i++) {
+        accept(items.get(i));
+      }
+      return;
+    }
+
+    PeekableIntIterator it = probe.selected().getIntIterator();
+    it.advanceIfNeeded(from);
+    while (it.hasNext() && it.peekNext() < to) {
+      int ordinal = it.next();
+      int hits = 0;
+      for (RoaringBitmap bitmap : probe.termHits()) {
+        if (bitmap.contains(ordinal)) {
+          hits++;
+        }
+      }
+      offer(plan.score(items.get(ordinal), hits));
+    }
+  }
+
+  record Probe(RoaringBitmap selected, RoaringBitmap[] termHits) {}
+
+  /** Folds another ranking of the same plan into this one. */
+  void merge(CandidateRanking other) {
+    for (ScoringPlan.Scored scored : other.heap) {
+      offer(scored);
+    }
+  }
+
+  void offer(ScoringPlan.Scored scored) {
+    if (heap.size() < limit) {
+      heap.add(scored);
+      return;
+    }
+    if (ORDER.compare(scored, heap.peek()) < 0) {
+      heap.poll();
+      heap.add(scored);
+    }
+  }
+
+  boolean isEmpty() {
+    return heap.isEmpty();
+  }
+
+  /** Retained candidates, best first, with their explanations built. */
+  List<ScoringPlan.Scored> top() {
+    List<ScoringPlan.Scored> out = new ArrayList<>(heap);
+    out.sort(ORDER);
+    out.replaceAll(plan::explain);
+    return out;
+  }
+}
@@ -0,0 +1,177 @@
+package com.mealpilot.api.decide;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Co-acceptance counts of one window of accepted decisions, merged into the stored counts afterwards.
+ *
+ * <p>Accepts are added one user at a time, in order, together with the user's accepts from before the
+ * window. An item a user accepts for the first time counts one more user for it and one more
+ * co-accepting user for every pair it forms with the user's earlier items, both ways, so counts are
+ * of distinct users. Only the latest {@code history} items of a user are remembered: an item accepted
+ * again after dropping out of them is counted again.
+ *
+ * <p>Similarity is the share of an item's users who also accepted the neighbour ("people who liked X
+ * also liked Y"), so an item's neighbours only depend on its own document and only items whose counts
+ * changed are rewritten.
+ */
+final class CoAcceptCounts {
+
+  private static final Comparator<ItemNeighbors.CoAccept> MOST_USERS = Comparator
+      .comparingInt(ItemNeighbors.CoAccept::users).reversed()
+      .thenComparing(ItemNeighbors.CoAccept::key);
+
+  private static final Comparator<ItemNeighbors.Neighbor> MOST_SIMILAR = Comparator
+      .comparingDouble(ItemNeighbors.Neighbor::similarity).reversed()
+      .thenComparing(ItemNeighbors.Neighbor::key);
+
+  private final int history;
+  private final Map<String, Delta> deltas = new HashMap<>();
+
+  private static final class Delta {
+    final String restaurantKey;
+    final String name;
+    int users;
+    final Map<String, Integer> coAccepts = new HashMap<>();
+
+    Delta(String restaurantKey, String name) {
+      this.restaurantKey = restaurantKey;
+      this.name = name;
+    }
+  }
+
+  CoAcceptCounts(int history) {
+    this.history = Math.max(1, history);
+  }
+
+  /**
+   * Counts one user's {@code accepts} (oldest first) against their {@code earlier} accepts (newest
+   * first).
+   */
+  void add(List<ItemSimilarityStore.Accept> earlier, List<ItemSimilarityStore.Accept> accepts) {
+    // Oldest first, so the eldest entry is the one to forget.
+    LinkedHashMap<String, ItemSimilarityStore.Accept> seen = new LinkedHashMap<>();
+    for (int i = earlier.size() - 1; i >= 0; i--) {
+      remember(seen, earlier.get(i));
+    }
+
+    for (ItemSimilarityStore.Accept accept : accepts) {
+      String key = ItemSimilarity.key(accept.restaurantName(), accept.name());
+      if (seen.containsKey(key)) {
+        continue;
+      }
+      Delta delta = delta(key, accept);
+      delta.users++;
+      for (Map.Entry<String, ItemSimilarityStore.Accept> other : seen.entrySet()) {
+        delta.coAccepts.merge(other.getKey(), 1, Integer::sum);
+        delta(other.getKey(), other.getValue()).coAccepts.merge(key, 1, Integer::sum);
+      }
+      remember(seen, accept);
+    }
+  }
+
+  /** Keys of the items whose counts changed. */
+  Set<String> keys() {
+    return deltas.keySet();
+  }
+
+  /**
+   * The changed items with {@code existing} counts added: at most {@code maxCoAccepts} co-accepts (the
+   * largest) and the {@code maxNeighbors} most similar neighbours with at least {@code minCoAccepts}
+   * co-accepting users. Items that already count the window ending at {@code until} are left out.
+   */
+  List<ItemNeighbors> merge(
+      Map<String, ItemNeighbors> existing,
+      Instant until,
+      Instant now,
+      int maxCoAccepts,
+      int minCoAccepts,
+      int maxNeighbors
+  ) {
+    List<ItemNeighbors> out = new ArrayList<>(deltas.size());
+    for (Map.Entry<String, Delta> entry : deltas.entrySet()) {
+      String key = entry.getKey();
+      Delta delta = entry.getValue();
+      ItemNeighbors stored = existing.get(key);
+      if (stored != null && stored.countedUntil() != null && !stored.countedUntil().isBefore(until)) {
+        continue;
+      }
+
+      Map<String, ItemNeighbors.CoAccept> coAccepts = new HashMap<>();
+      if (stored != null && stored.coAccepts() != null) {
+        for (ItemNeighbors.CoAccept co : stored.coAccepts()) {
+          coAccepts.put(co.key(), co);
+        }
+      }
+      for (Map.Entry<String, Integer> co : delta.coAccepts.entrySet()) {
+        ItemNeighbors.CoAccept previous = coAccepts.get(co.getKey());
+        Delta other = deltas.get(co.getKey());
+        coAccepts.put(co.getKey(), new ItemNeighbors.CoAccept(
+            co.getKey(),
+            other.restaurantKey,
+            other.name,
+            (previous == null ? 0 : previous.users()) + co.getValue()
+        ));
+      }
+      List<ItemNeighbors.CoAccept> kept = new ArrayList<>(coAccepts.values());
+      kept.sort(MOST_USERS);
+      if (kept.size() > maxCoAccepts) {
+        kept = kept.subList(0, maxCoAccepts);
+      }
+
+      int users = (stored == null ? 0 : stored.users()) + delta.users;
+      out.add(new ItemNeighbors(
+          key,
+          delta.restaurantKey,
+          delta.name,
+          users,
+          List.copyOf(kept),
+          neighbors(users, kept, minCoAccepts, maxNeighbors),
+          now,
+          until
+      ));
+    }
+    return out;
+  }
+
+  private static List<ItemNeighbors.Neighbor> neighbors(
+      int users,
+      List<ItemNeighbors.CoAccept> coAccepts,
+      int minCoAccepts,
+      int maxNeighbors
+  ) {
+    List<ItemNeighbors.Neighbor> neighbors = new ArrayList<>();
+    for (ItemNeighbors.CoAccept co : coAccepts) {
+      if (co.users() >= minCoAccepts && users > 0) {
+        double similarity = Math.min(1.0, (double) co.users() / users);
+        neighbors.add(new ItemNeighbors.Neighbor(co.key(), co.restaurantKey(), co.name(), similarity));
+      }
+    }
+    neighbors.sort(MOST_SIMILAR);
+    return List.copyOf(neighbors.size() > maxNeighbors ? neighbors.subList(0, maxNeighbors) : neighbors);
+  }
+
+  private Delta delta(String key, ItemSimilarityStore.Accept accept) {
+    return deltas.computeIfAbsent(key, k -> new Delta(
+        ScoringPlan.normalizeText(accept.restaurantName()),
+        ScoringPlan.normalizeText(accept.name())
+    ));
+  }
+
+  private void remember(LinkedHashMap<String, ItemSimilarityStore.Accept> seen, ItemSimilarityStore.Accept accept) {
+    seen.putIfAbsent(ItemSimilarity.key(accept.restaurantName(), accept.name()), accept);
+    if (seen.size() > history) {
+      Iterator<String> eldest = seen.keySet().iterator();
+      eldest.next();
+      eldest.remove();
+    }
+  }
+}
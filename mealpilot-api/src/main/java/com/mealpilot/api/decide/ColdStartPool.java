@@ -0,0 +1,169 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.common.Hashing;
+import com.mealpilot.api.items.Item;
+import com.mealpilot.api.items.ItemCatalog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Popular items across all users, so decide has something to rank before a user saved their own.
+ *
+ * <p>Every {@code refresh-interval}, the {@code size} item/restaurant pairs accepted by the most
+ * distinct users over {@code lookback} (at least {@code min-users} of them, so no single user's items
+ * leak) are turned into an immutable {@link ItemCatalog} and swapped in atomically. Decide ranks a
+ * user's own catalog topped up with this one while it holds fewer than {@code min-items} items; an
+ * empty catalog is replaced by it outright, without building anything per request. Pool items carry a
+ * {@code popular:} id and no owner.
+ *
+ * <p>Publishes {@code mealpilot.decide.coldstart}, tagged {@code result=served|refreshed}.
+ */
+@Component
+public class ColdStartPool implements DisposableBean {
+
+  private static final Logger log = LoggerFactory.getLogger(ColdStartPool.class);
+
+  static final String ID_PREFIX = "popular:";
+
+  private static final ItemCatalog EMPTY = ItemCatalog.of(List.of());
+
+  private final PopularItemStore store;
+  private final boolean enabled;
+  private final int minItems;
+  private final int size;
+  private final int minUsers;
+  private final Duration lookback;
+
+  private final AtomicReference<ItemCatalog> pool = new AtomicReference<>(EMPTY);
+  private final Disposable ticker;
+
+  private final Counter served;
+  private final Counter refreshed;
+
+  public ColdStartPool(
+      PopularItemStore store,
+      MeterRegistry meterRegistry,
+      @Value("${mealpilot.decide.cold-start.enabled:true}") boolean enabled,
+      @Value("${mealpilot.decide.cold-start.min-items:3}") int minItems,
+      @Value("${mealpilot.decide.cold-start.size:200}") int size,
+      @Value("${mealpilot.decide.cold-start.min-users:3}") int minUsers,
+      @Value("${mealpilot.decide.cold-start.lookback:P30D}") Duration lookback,
+      @Value("${mealpilot.decide.cold-start.refresh-interval:PT1H}") Duration refreshInterval
+  ) {
+    this.store = store;
+    this.enabled = enabled;
+    this.minItems = Math.max(0, minItems);
+    this.size = Math.max(0, size);
+    this.minUsers = Math.max(1, minUsers);
+    this.lookback = lookback;
+
+    this.served = counter(meterRegistry, "served");
+    this.refreshed = counter(meterRegistry, "refreshed");
+
+    this.ticker = enabled && this.size > 0 && !refreshInterval.isZero()
+        ? Flux.interval(Duration.ZERO, refreshInterval).concatMap(tick -> refresh()).subscribe()
+        : null;
+  }
+
+  /**
+   * {@code personal} topped up with the pool while it holds fewer than {@code min-items} items, skipping
+   * pool items the user already has; {@code personal} itself otherwise.
+   */
+  ItemCatalog blend(ItemCatalog personal) {
+    ItemCatalog current = pool.get();
+    if (!enabled || current.isEmpty() || personal.size() >= minItems) {
+      return personal;
+    }
+    served.increment();
+    if (personal.isEmpty()) {
+      return current;
+    }
+
+    Set<String> own = new HashSet<>();
+    for (Item item : personal.items()) {
+      own.add(key(item));
+    }
+    List<Item> items = new ArrayList<>(personal.size() + current.size());
+    items.addAll(personal.items());
+    for (Item item : current.items()) {
+      if (!own.contains(key(item))) {
+        items.add(item);
+      }
+    }
+    return ItemCatalog.of(items);
+  }
+
+  /** Rebuilds the pool from recent accepts; keeps the previous one when the store fails. */
+  Mono<Void> refresh() {
+    Instant now = Instant.now();
+    return Flux.defer(() -> store.mostAccepted(now.minus(lookback), minUsers, size))
+        .index()
+        .map(ranked -> toItem(ranked.getT2(), ranked.getT1().intValue(), now))
+        .collectList()
+        .doOnNext(items -> {
+          pool.set(ItemCatalog.of(items));
+          refreshed.increment();
+        })
+        .onErrorResume(e -> {
+          log.warn("Cold-start pool refresh failed", e);
+          return Mono.empty();
+        })
+        .then();
+  }
+
+  void clear() {
+    pool.set(EMPTY);
+  }
+
+  private static Item toItem(PopularItemStore.PopularItem popular, int rank, Instant refreshedAt) {
+    Decision.ItemSnapshot snapshot = popular.item();
+    // Ranking breaks score ties by recency: the more popular item looks newer.
+    Instant at = refreshedAt.minusSeconds(rank);
+    return new Item(
+        ID_PREFIX + Hashing.sha256Hex(keyOf(snapshot.name(), snapshot.restaurantName())).substring(0, 16),
+        null,
+        snapshot.name(),
+        snapshot.restaurantName(),
+        snapshot.tags() == null ? List.of() : snapshot.tags(),
+        List.of(),
+        snapshot.priceEstimate(),
+        true,
+        at,
+        at
+    );
+  }
+
+  private static String key(Item item) {
+    return keyOf(item.name(), item.restaurantName());
+  }
+
+  private static String keyOf(String name, String restaurantName) {
+    return ScoringPlan.normalizeText(name) + "|" + ScoringPlan.normalizeText(restaurantName);
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("mealpilot.decide.coldstart").tag("result", result).register(meterRegistry);
+  }
+
+  @Override
+  public void destroy() {
+    if (ticker != null) {
+      ticker.dispose();
+    }
+  }
+}
@@ -0,0 +1,228 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.items.Item;
+import com.mealpilot.api.items.ItemCatalog;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/decide/combos")
+@Tag(name = "Decide", description = "Rank candidate items and persist a decision record")
+public class ComboController {
+
+  private static final int DEFAULT_PEOPLE = 2;
+  private static final int DEFAULT_LIMIT = 3;
+  private static final int MAX_COVER_TAGS = 6;
+
+  private final DecideLoader loader;
+  private final RankingExecutor rankingExecutor;
+  private final boolean strictMustTags;
+  private final double coverageBonus;
+  private final int unitsPerRestaurant;
+  private final int maxStates;
+
+  public ComboController(
+      DecideLoader loader,
+      RankingExecutor rankingExecutor,
+      @Value("${mealpilot.decide.strict-must-tags:false}") boolean strictMustTags,
+      @Value("${mealpilot.decide.combo.coverage-bonus:1.5}") double coverageBonus,
+      @Value("${mealpilot.decide.combo.units-per-restaurant:24}") int unitsPerRestaurant,
+      @Value("${mealpilot.decide.combo.max-states:200000}") int maxStates
+  ) {
+    this.loader = loader;
+    this.rankingExecutor = rankingExecutor;
+    this.strictMustTags = strictMustTags;
+    this.coverageBonus = Math.max(0.0, coverageBonus);
+    this.unitsPerRestaurant = Math.max(1, unitsPerRestaurant);
+    this.maxStates = Math.max(1, maxStates);
+  }
+
+  public record ComboRequest(
+      @NotNull(message = "budget is required")
+      @Min(value = 0, message = "budget must be >= 0")
+      @Max(value = 100000, message = "budget must be <= 100000")
+      @Schema(description = "Total budget for the order", example = "1200")
+      Integer budget,
+
+      @Min(value = 1, message = "people must be >= 1")
+      @Max(value = 10, message = "people must be <= 10")
+      @Schema(description = "Most items in a combo (default 2)", example = "4")
+      Integer people,
+
+      @Min(value = 1, message = "maxPerItem must be >= 1")
+      @Max(value = 10, message = "maxPerItem must be <= 10")
+      @Schema(description = "How often one item may appear in a combo (default 1)", example = "2")
+      Integer maxPerItem,
+
+      @Size(max = MAX_COVER_TAGS, message = "coverTags must have <= " + MAX_COVER_TAGS + " entries")
+      @Schema(description = "Tags the combo should cover, e.g. one per person; each covered tag earns a bonus", example = "[\"veg\",\"spicy\"]")
+      List<@Size(max = 32, message = "tag must be <= 32 characters") String> coverTags,
+
+      @Size(max = 20, message = "mustHaveTags must have <= 20 entries")
+      @Schema(description = "Tags that must be present on candidate items", example = "[\"comfort\"]")
+      List<@Size(max = 32, message = "tag must be <= 32 characters") String> mustHaveTags,
+
+      @Size(max = 20, message = "avoidTags must have <= 20 entries")
+      @Schema(description = "Tags to avoid (soft penalty)", example = "[\"peanut\"]")
+      List<@Size(max = 32, message = "tag must be <= 32 characters") String> avoidTags,
+
+      @Size(max = 200, message = "query must be <= 200 characters")
+      @Schema(description = "Optional free-text query to bias ranking", example = "biryani")
+      String query,
+
+      @Min(value = 1, message = "limit must be >= 1")
+      @Max(value = 10, message = "limit must be <= 10")
+      @Schema(description = "Number of combos to return, at most one per restaurant (default 3)", example = "3")
+      Integer limit
+  ) {}
+
+  public record ComboItem(
+      DecideController.ItemSummary item,
+      @Schema(description = "Copies of the item in the combo", example = "2")
+      int quantity,
+      @Schema(description = "Item score (per copy)", example = "2.2")
+      double score
+  ) {}
+
+  public record ComboBreakdown(
+      @Schema(description = "Sum of the item scores", example = "6.4")
+      double itemScore,
+      @Schema(description = "Bonus for the cover tags the combo covers", example = "3.0")
+      double coverageBonus,
+      @Schema(description = "itemScore + coverageBonus", example = "9.4")
+      double total
+  ) {}
+
+  public record Combo(
+      String restaurantName,
+      List<ComboItem> items,
+      @Schema(description = "Sum of the item prices", example = "1150")
+      int totalPrice,
+      double score,
+      ComboBreakdown breakdown,
+      List<String> coveredTags,
+      List<String> missingTags
+  ) {}
+
+  public record ComboResponse(
+      @Schema(description = "Authenticated user id", example = "user_123")
+      String userId,
+      @Schema(description = "ISO-8601 timestamp", example = "2026-01-17T12:00:00Z")
+      String time,
+      int budget,
+      List<Combo> combos,
+      String message
+  ) {}
+
+  @PostMapping
+  @Operation(
+      summary = "Pick order combos",
+      description = "Scores items with the decide heuristics, then per restaurant picks up to `people` items (each at most "
+          + "`maxPerItem` times) within `budget` maximizing the summed scores plus a bonus per covered `coverTags` entry. "
+          + "Returns the best combo of the best `limit` restaurants. Items carrying a dietary restriction or allergen "
+          + "are never picked. Not persisted."
+  )
+  public Mono<ComboResponse> combos(
+      @AuthenticationPrincipal Jwt jwt,
+      @Valid @RequestBody ComboRequest body
+  ) {
+    String userId = jwt.getSubject();
+    List<String> coverTags = normalizeTags(body.coverTags());
+    int people = body.people() == null ? DEFAULT_PEOPLE : body.people();
+    ComboSolver.Constraints constraints = new ComboSolver.Constraints(
+        body.budget(),
+        people,
+        body.maxPerItem() == null ? 1 : Math.min(body.maxPerItem(), people),
+        coverTags,
+        coverageBonus,
+        unitsPerRestaurant,
+        maxStates
+    );
+    int limit = body.limit() == null ? DEFAULT_LIMIT : body.limit();
+    DecideController.DecideRequest request = new DecideController.DecideRequest(
+        null, body.mustHaveTags(), body.avoidTags(), body.query(), null);
+
+    return loader.load(userId, request)
+        .flatMap(inputs -> {
+          ItemCatalog catalog = inputs.catalog();
+          if (catalog.isEmpty()) {
+            return Mono.just(response(userId, body.budget(), List.of(),
+                "No saved items yet. Create a few via POST /api/items to get combos."));
+          }
+          ScoringPlan plan = inputs.plan();
+          return rankingExecutor.offload(() -> ComboSolver.solve(score(plan, catalog), constraints, limit))
+              .map(solved -> response(userId, body.budget(), solved.stream().map(c -> toCombo(c, coverTags)).toList(),
+                  solved.isEmpty() ? "No restaurant has items that fit the budget." : null));
+        });
+  }
+
+  private List<ScoringPlan.Scored> score(ScoringPlan plan, ItemCatalog catalog) {
+    boolean requireMustTag = strictMustTags && !plan.mustTags().isEmpty();
+    List<ScoringPlan.Scored> scored = new ArrayList<>(catalog.size());
+    for (Item item : catalog.items()) {
+      if (plan.hasHardAvoidTag(item) || (requireMustTag && !plan.hasMustTag(item))) {
+        continue;
+      }
+      scored.add(plan.score(item, -1));
+    }
+    return scored;
+  }
+
+  private Combo toCombo(ComboSolver.Combo combo, List<String> coverTags) {
+    List<ComboItem> items = combo.picks().stream()
+        .map(p -> new ComboItem(DecideController.toSummary(p.scored().item()), p.quantity(), p.scored().score()))
+        .toList();
+    List<String> covered = new ArrayList<>();
+    List<String> missing = new ArrayList<>();
+    for (int t = 0; t < coverTags.size(); t++) {
+      ((combo.coveredMask() & (1 << t)) != 0 ? covered : missing).add(coverTags.get(t));
+    }
+    double bonus = coverageBonus * Integer.bitCount(combo.coveredMask());
+    return new Combo(
+        combo.restaurantName(),
+        items,
+        combo.totalPrice(),
+        combo.value(),
+        new ComboBreakdown(combo.itemScore(), bonus, combo.value()),
+        covered,
+        missing
+    );
+  }
+
+  private static List<String> normalizeTags(List<String> tags) {
+    if (tags == null || tags.isEmpty()) {
+      return List.of();
+    }
+    Set<String> out = new LinkedHashSet<>();
+    for (String tag : tags) {
+      String normalized = ScoringPlan.normalizeText(tag);
+      if (!normalized.isBlank()) {
+        out.add(normalized);
+      }
+    }
+    return List.copyOf(out);
+  }
+
+  private static ComboResponse response(String userId, int budget, List<Combo> combos, String message) {
+    return new ComboResponse(userId, Instant.now().toString(), budget, combos, message);
+  }
+}
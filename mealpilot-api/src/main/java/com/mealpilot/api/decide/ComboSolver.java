@@ -0,0 +1,386 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.items.Item;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Picks the best order combo per restaurant with a bounded knapsack on price.
+ *
+ * <p>A combo is up to {@code maxItems} items from one restaurant, each at most {@code maxPerItem}
+ * times, costing at most {@code budget}. Its value is the sum of the item scores plus
+ * {@code coverageBonus} per cover tag carried by at least one of its items. Each restaurant is solved
+ * by a dynamic program over (items taken, cover tags covered, spend), so the work is pseudo-polynomial
+ * in the spend, and the spend axis is kept small three ways:
+ * <ul>
+ *   <li>it is dropped when the {@code maxItems} most expensive items fit the budget together;</li>
+ *   <li>prices are counted in units of their greatest common divisor;</li>
+ *   <li>past {@code maxStates} states the unit grows and prices are rounded up to it, which never
+ *   admits a combo over budget but may miss one right at the limit.</li>
+ * </ul>
+ * Only the {@code unitsPerRestaurant} most valuable item copies of a restaurant enter its program, and
+ * restaurants are solved in order of an upper bound on their value, stopping once no remaining one can
+ * beat the {@code limit}-th best combo found.
+ */
+final class ComboSolver {
+
+  record Constraints(
+      int budget,
+      int maxItems,
+      int maxPerItem,
+      List<String> coverTags,
+      double coverageBonus,
+      int unitsPerRestaurant,
+      int maxStates
+  ) {}
+
+  record Pick(ScoringPlan.Scored scored, int quantity) {}
+
+  /** {@code coveredMask} has bit {@code i} set when {@code coverTags[i]} is covered. */
+  record Combo(String restaurantName, List<Pick> picks, int totalPrice, double itemScore, int coveredMask, double value) {}
+
+  private record Unit(ScoringPlan.Scored scored, int price, double score, int mask) {}
+
+  private static final Comparator<Combo> BEST_FIRST = Comparator
+      .comparingDouble(Combo::value).reversed()
+      .thenComparingInt(Combo::totalPrice)
+      .thenComparing(Combo::restaurantName);
+
+  private final Constraints constraints;
+  private final int tags;
+
+  // Scratch reused across restaurants: values, and per unit the predecessor mask + 1 of each state it improved.
+  private double[] value = new double[0];
+  private byte[][] took = new byte[0][];
+
+  private ComboSolver(Constraints constraints) {
+    this.constraints = constraints;
+    this.tags = constraints.coverTags().size();
+  }
+
+  /**
+   * The best combo of each restaurant, best {@code limit} first. Items without a price or restaurant
+   * are skipped, as are items that neither score above zero nor cover a tag.
+   */
+  static List<Combo> solve(List<ScoringPlan.Scored> scored, Constraints constraints, int limit) {
+    return new ComboSolver(constraints).solve(scored, Math.max(1, limit));
+  }
+
+  private List<Combo> solve(List<ScoringPlan.Scored> scored, int limit) {
+    List<Restaurant> restaurants = restaurants(scored);
+    restaurants.sort(Comparator.comparingDouble(Restaurant::upperBound).reversed());
+
+    PriorityQueue<Combo> best = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+    for (Restaurant restaurant : restaurants) {
+      if (best.size() == limit && restaurant.upperBound() <= best.peek().value()) {
+        break;
+      }
+      List<Unit> units = units(restaurant);
+      if (best.size() == limit && budgetBound(units) <= best.peek().value()) {
+        continue;
+      }
+      Combo combo = solve(restaurant.name, units);
+      if (combo != null) {
+        best.add(combo);
+        if (best.size() > limit) {
+          best.poll();
+        }
+      }
+    }
+
+    List<Combo> out = new ArrayList<>(best);
+    out.sort(BEST_FIRST);
+    return out;
+  }
+
+  /** A restaurant's eligible items, with the best {@code maxItems} unit scores seen among them. */
+  private final class Restaurant {
+    final String name;
+    final List<Unit> items = new ArrayList<>();
+    final double[] topScores = new double[constraints.maxItems()];
+    int topCount;
+    int mask;
+
+    Restaurant(String name) {
+      this.name = name;
+    }
+
+    void add(Unit unit) {
+      items.add(unit);
+      mask |= unit.mask();
+      if (unit.score() <= 0) {
+        return;
+      }
+      for (int copy = 0; copy < constraints.maxPerItem(); copy++) {
+        if (topCount == topScores.length) {
+          if (topScores[topCount - 1] >= unit.score()) {
+            return;
+          }
+          topCount--;
+        }
+        int at = topCount++;
+        while (at > 0 && topScores[at - 1] < unit.score()) {
+          topScores[at] = topScores[at - 1];
+          at--;
+        }
+        topScores[at] = unit.score();
+      }
+    }
+
+    /** The best {@code maxItems} positive scores plus every cover tag the restaurant can cover. */
+    double upperBound() {
+      double sum = 0.0;
+      for (int i = 0; i < topCount; i++) {
+        sum += topScores[i];
+      }
+      return sum + constraints.coverageBonus() * Integer.bitCount(mask);
+    }
+  }
+
+  /** Groups eligible items by restaurant in one pass; units are only built for restaurants that get solved. */
+  private List<Restaurant> restaurants(List<ScoringPlan.Scored> scored) {
+    Map<String, Restaurant> byKey = new LinkedHashMap<>();
+    for (ScoringPlan.Scored s : scored) {
+      Item item = s.item();
+      String key = item.restaurantKey();
+      if (key == null || key.isEmpty() || item.priceEstimate() == null || item.priceEstimate() < 0) {
+        continue;
+      }
+      int mask = coverMask(item);
+      if (s.score() <= 0 && mask == 0) {
+        continue;
+      }
+      byKey.computeIfAbsent(key, k -> new Restaurant(item.restaurantName()))
+          .add(new Unit(s, item.priceEstimate(), s.score(), mask));
+    }
+    return new ArrayList<>(byKey.values());
+  }
+
+  /** The {@code unitsPerRestaurant} most valuable item copies, copies of an item next to each other. */
+  private List<Unit> units(Restaurant restaurant) {
+    List<Unit> items = new ArrayList<>(restaurant.items);
+    items.sort(Comparator.comparingDouble((Unit u) -> standalone(u)).reversed()
+        .thenComparingInt(Unit::price)
+        .thenComparing(u -> u.scored().item().id(), Comparator.nullsLast(Comparator.naturalOrder())));
+    List<Unit> units = new ArrayList<>(constraints.unitsPerRestaurant());
+    for (int i = 0; i < items.size() && units.size() < constraints.unitsPerRestaurant(); i++) {
+      for (int copy = 0; copy < constraints.maxPerItem() && units.size() < constraints.unitsPerRestaurant(); copy++) {
+        units.add(items.get(i));
+      }
+    }
+    return units;
+  }
+
+  private double standalone(Unit unit) {
+    return unit.score() + constraints.coverageBonus() * Integer.bitCount(unit.mask());
+  }
+
+  /**
+   * The best the budget allows if units could be bought fractionally, best score per price first, plus
+   * every cover tag the units can cover.
+   */
+  private double budgetBound(List<Unit> units) {
+    List<Unit> positive = new ArrayList<>(units.size());
+    int mask = 0;
+    for (Unit unit : units) {
+      mask |= unit.mask();
+      if (unit.score() > 0) {
+        positive.add(unit);
+      }
+    }
+    // Free units sort first (infinite ratio).
+    positive.sort(Comparator.comparingDouble((Unit u) -> u.score() / u.price()).reversed());
+
+    double sum = 0.0;
+    double left = constraints.budget();
+    for (Unit unit : positive) {
+      if (unit.price() <= left) {
+        sum += unit.score();
+        left -= unit.price();
+      } else {
+        sum += unit.score() * left / unit.price();
+        break;
+      }
+    }
+    return sum + constraints.coverageBonus() * Integer.bitCount(mask);
+  }
+
+  private int coverMask(Item item) {
+    if (tags == 0) {
+      return 0;
+    }
+    int mask = 0;
+    List<String> itemTags = item.searchTags();
+    for (int t = 0; t < tags; t++) {
+      if (itemTags.contains(constraints.coverTags().get(t))) {
+        mask |= 1 << t;
+      }
+    }
+    return mask;
+  }
+
+  private Combo solve(String restaurantName, List<Unit> units) {
+    int n = units.size();
+    int counts = Math.min(constraints.maxItems(), n) + 1;
+    int masks = 1 << tags;
+
+    // Nothing can cost more than the most expensive maxItems units together. When even that fits,
+    // the budget cannot bind and the spend axis collapses to a single column.
+    long ceiling = units.stream()
+        .mapToLong(Unit::price)
+        .boxed()
+        .sorted(Comparator.reverseOrder())
+        .limit(counts - 1)
+        .mapToLong(Long::longValue)
+        .sum();
+    long perSpend = (long) counts * masks;
+    long capacity = 0;
+    int[] price = new int[n];
+    if (ceiling > constraints.budget()) {
+      long spend = constraints.budget();
+      long unit = 0;
+      for (Unit u : units) {
+        unit = gcd(unit, u.price());
+      }
+      unit = Math.max(1, unit);
+      capacity = spend / unit;
+      if (perSpend * (capacity + 1) > constraints.maxStates()) {
+        long maxCapacity = Math.max(0, constraints.maxStates() / perSpend - 1);
+        unit = maxCapacity == 0 ? Math.max(unit, spend + 1) : Math.max(unit, (spend + maxCapacity - 1) / maxCapacity);
+        capacity = spend / unit;
+      }
+      for (int i = 0; i < n; i++) {
+        long scaled = (units.get(i).price() + unit - 1) / unit;
+        price[i] = (int) Math.min(Integer.MAX_VALUE, scaled);
+      }
+    }
+
+    int width = (int) capacity + 1;
+    int states = (int) (perSpend * width);
+
+    double[] dp = value(states);
+    Arrays.fill(dp, 0, states, Double.NEGATIVE_INFINITY);
+    dp[0] = 0.0;
+    byte[][] from = took(n, states);
+    // Highest reached spend per (count, mask) row, -1 while the row is unreached.
+    int[] reach = new int[counts * masks];
+    Arrays.fill(reach, -1);
+    reach[0] = 0;
+
+    for (int i = 0; i < n; i++) {
+      Unit u = units.get(i);
+      // After i units at most i are taken, so only rows up to count i + 1 can change or be walked back.
+      int top = Math.min(counts - 2, i);
+      byte[] tookHere = from[i];
+      Arrays.fill(tookHere, 0, (top + 2) * masks * width, (byte) 0);
+      int p = price[i];
+      if (p > capacity) {
+        continue;
+      }
+      // Fewest items last, so a state read below was not already extended by this unit.
+      for (int c = top; c >= 0; c--) {
+        for (int m = 0; m < masks; m++) {
+          int row = c * masks + m;
+          if (reach[row] < 0) {
+            continue;
+          }
+          int source = row * width;
+          int targetRow = (c + 1) * masks + (m | u.mask());
+          int target = targetRow * width + p;
+          for (int w = Math.min(reach[row], width - 1 - p); w >= 0; w--) {
+            double v = dp[source + w];
+            if (v == Double.NEGATIVE_INFINITY) {
+              continue;
+            }
+            double next = v + u.score();
+            if (next > dp[target + w]) {
+              dp[target + w] = next;
+              tookHere[target + w] = (byte) (m + 1);
+              reach[targetRow] = Math.max(reach[targetRow], w + p);
+            }
+          }
+        }
+      }
+    }
+
+    int bestState = -1;
+    double bestValue = Double.NEGATIVE_INFINITY;
+    for (int c = 1; c < counts; c++) {
+      for (int m = 0; m < masks; m++) {
+        double bonus = constraints.coverageBonus() * Integer.bitCount(m);
+        int base = (c * masks + m) * width;
+        for (int w = 0; w < width; w++) {
+          double v = dp[base + w];
+          if (v != Double.NEGATIVE_INFINITY && v + bonus > bestValue) {
+            bestValue = v + bonus;
+            bestState = base + w;
+          }
+        }
+      }
+    }
+    if (bestState < 0 || bestValue <= 0) {
+      return null;
+    }
+
+    // Walk back: the last unit that improved a state is the one its value came from.
+    Map<String, Integer> quantities = new LinkedHashMap<>();
+    Map<String, ScoringPlan.Scored> byId = new LinkedHashMap<>();
+    int state = bestState;
+    int coveredMask = (state / width) % masks;
+    int totalPrice = 0;
+    double itemScore = 0.0;
+    for (int i = n - 1; i >= 0 && state >= masks * width; i--) {
+      int prevMask = from[i][state] - 1;
+      if (prevMask < 0) {
+        continue;
+      }
+      Unit u = units.get(i);
+      String id = u.scored().item().id();
+      quantities.merge(id, 1, Integer::sum);
+      byId.putIfAbsent(id, u.scored());
+      totalPrice += u.price();
+      itemScore += u.score();
+
+      int c = state / width / masks;
+      int w = state % width;
+      state = ((c - 1) * masks + prevMask) * width + (w - price[i]);
+    }
+
+    List<Pick> picks = new ArrayList<>(quantities.size());
+    quantities.forEach((id, quantity) -> picks.add(new Pick(byId.get(id), quantity)));
+    return new Combo(restaurantName, picks, totalPrice, itemScore, coveredMask, bestValue);
+  }
+
+  private double[] value(int states) {
+    if (value.length < states) {
+      value = new double[states];
+    }
+    return value;
+  }
+
+  private byte[][] took(int units, int states) {
+    if (took.length < units || (units > 0 && took[0].length < states)) {
+      byte[][] grown = new byte[Math.max(units, took.length)][];
+      int size = Math.max(states, took.length == 0 ? 0 : took[0].length);
+      for (int i = 0; i < grown.length; i++) {
+        grown[i] = new byte[size];
+      }
+      took = grown;
+    }
+    return took;
+  }
+
+  private static long gcd(long a, long b) {
+    while (b != 0) {
+      long t = a % b;
+      a = b;
+      b = t;
+    }
+    return a;
+  }
+}
@@ -1,8 +1,9 @@
 package com.mealpilot.api.decide;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.mealpilot.api.common.Hashing;
 import com.mealpilot.api.items.Item;
-import com.mealpilot.api.items.ItemRepository;
+import com.mealpilot.api.items.ItemCatalog;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
@@ -13,27 +14,30 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.TreeMap;
-import java.util.TreeSet;
 import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -43,23 +47,56 @@ public class DecideController {
 
   private static final int MIN_LIMIT = 1;
   private static final int MAX_LIMIT = 50;
+  private static final int MAX_BATCH = 10;
+  private static final int BATCH_CONCURRENCY = 4;
 
-  private static final int DECISION_SCHEMA_VERSION = 2;
+  // v3: itemsHash is an order-independent catalog fingerprint (see CatalogFingerprint).
+  // v4: candidates store reason codes instead of rendered why strings.
+  private static final int DECISION_SCHEMA_VERSION = 4;
   private static final String ALGORITHM = "heuristic-score";
-  private static final String ALGORITHM_VERSION = "1";
-
-  private final ItemRepository itemRepository;
-  private final DecisionRepository decisionRepository;
-  private final UserPreferenceRepository userPreferenceRepository;
+  // v2: co-acceptance affinity term (breakdown.coAcceptAffinity).
+  private static final String ALGORITHM_VERSION = "2";
+
+  private static final DecideRequest DEFAULT_REQUEST = new DecideRequest(null, null, null, null, null);
+
+  private final DecideSources sources;
+  private final DecisionWriteBehind decisionWriter;
+  private final boolean strictHardAvoid;
+  private final boolean strictMustTags;
+  private final RankingExecutor rankingExecutor;
+  private final DecisionMemo decisionMemo;
+  private final DecisionPreviews previews;
+  private final DecideSessions sessions;
+  private final ReadyDecisions readyDecisions;
+  private final DecideLoader loader;
+  private final ItemSimilarity itemSimilarity;
 
   public DecideController(
-      ItemRepository itemRepository,
-      DecisionRepository decisionRepository,
-      UserPreferenceRepository userPreferenceRepository
+      DecideSources sources,
+      DecisionWriteBehind decisionWriter,
+      RankingExecutor rankingExecutor,
+      DecisionMemo decisionMemo,
+      DecisionPreviews previews,
+      DecideSessions sessions,
+      ReadyDecisions readyDecisions,
+      DecideLoader loader,
+      ItemSimilarity itemSimilarity,
+      @Value("${mealpilot.decide.strict-hard-avoid:false}") boolean strictHardAvoid,
+      @Value("${mealpilot.decide.strict-must-tags:false}") boolean strictMustTags
   ) {
-    this.itemRepository = itemRepository;
-    this.decisionRepository = decisionRepository;
-    this.userPreferenceRepository = userPreferenceRepository;
+    this.sources = sources;
+    this.decisionWriter = decisionWriter;
+    this.rankingExecutor = rankingExecutor;
+    this.decisionMemo = decisionMemo;
+    this.previews = previews;
+    this.sessions = sessions;
+    this.strictHardAvoid = strictHardAvoid;
+    this.strictMustTags = strictMustTags;
+    this.readyDecisions = readyDecisions;
+    this.loader = loader;
+    this.itemSimilarity = itemSimilarity;
+    String readyInputHash = hashInput(DEFAULT_REQUEST, clampLimit(DEFAULT_REQUEST.limit()));
+    readyDecisions.computeWith(this::precompute, ready -> isCurrent(ready, readyInputHash));
   }
 
   public record DecideRequest(
@@ -94,15 +131,78 @@ public class DecideController {
       @Schema(description = "Candidate limit applied", example = "3")
       int limit,
       List<Candidate> candidates,
+      String message,
+      @JsonInclude(JsonInclude.Include.NON_NULL)
+      @Schema(description = "true when items or preferences could not be loaded in time and this re-serves the most recent decision")
+      Boolean degraded,
+      @JsonInclude(JsonInclude.Include.NON_NULL)
+      @Schema(description = "Preview fingerprint (preview=true, not persisted); POST /api/decide/previews/{fingerprint} stores it")
+      String previewFingerprint
+  ) {
+    public DecideResponse(String decisionId, String userId, String time, int limit, List<Candidate> candidates, String message) {
+      this(decisionId, userId, time, limit, candidates, message, null, null);
+    }
+
+    DecideResponse withDecisionId(String id) {
+      return new DecideResponse(id, userId, time, limit, candidates, message, degraded, null);
+    }
+
+    DecideResponse withPreviewFingerprint(String fingerprint) {
+      return new DecideResponse(decisionId, userId, time, limit, candidates, message, degraded, fingerprint);
+    }
+  }
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public record DecideEvent(
+      @Schema(description = "candidate | decision | message", example = "candidate")
+      String type,
+      @Schema(description = "1-based rank (candidate events)", example = "1")
+      Integer rank,
+      Candidate candidate,
+      @Schema(description = "Persisted decision id (decision events)", example = "678b2e7e2ef2f44a3c9d8a1b")
+      String decisionId,
+      String userId,
+      String time,
+      Integer limit,
       String message
+  ) {
+    static DecideEvent candidate(int rank, Candidate candidate) {
+      return new DecideEvent("candidate", rank, candidate, null, null, null, null, null);
+    }
+
+    static DecideEvent decision(DecideResponse response) {
+      return new DecideEvent("decision", null, null, response.decisionId(), response.userId(), response.time(),
+          response.limit(), null);
+    }
+
+    static DecideEvent message(DecideResponse response) {
+      return new DecideEvent("message", null, null, null, response.userId(), response.time(), response.limit(),
+          response.message());
+    }
+  }
+
+  public record DecideBatchRequest(
+      @NotEmpty(message = "requests must not be empty")
+      @Size(max = MAX_BATCH, message = "requests must have <= " + MAX_BATCH + " entries")
+      @Schema(description = "Scenarios to rank against the same snapshot of items and preferences")
+      List<@Valid DecideRequest> requests
+  ) {}
+
+  public record DecideBatchResponse(
+      @Schema(description = "Authenticated user id", example = "user_123")
+      String userId,
+      @Schema(description = "One result per request, in request order")
+      List<DecideResponse> results
   ) {}
 
+  @JsonInclude(JsonInclude.Include.NON_NULL)
   public record Candidate(
       ItemSummary item,
       @Schema(description = "Overall score", example = "4.25")
       double score,
       @Schema(description = "0..1 confidence heuristic", example = "0.74")
       double confidence,
+      @Schema(description = "Omitted unless requested when ?fields= is set")
       List<String> why,
       List<Decision.DeepLink> deepLinks,
       Decision.ScoreBreakdown breakdown
@@ -116,10 +216,12 @@ public class DecideController {
       Integer priceEstimate
   ) {}
 
-  @PostMapping
+  @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(
       summary = "Rank items (Decide)",
-      description = "Ranks up to N items using request signals + learned weights + explicit PreferenceProfile constraints, and persists a Decision with reproducibility metadata."
+      description = "Ranks up to N items using request signals + learned weights + explicit PreferenceProfile constraints, and persists a Decision with reproducibility metadata. "
+          + "?fields=compact (or a subset of why,breakdown,deepLinks) trims what each candidate carries. "
+          + "?preview=true ranks without persisting (unless sampled) and returns a previewFingerprint to promote later."
     )
     @ApiResponses({
       @ApiResponse(
@@ -142,7 +244,7 @@ public class DecideController {
               "      \"confidence\": 0.74,\n" +
               "      \"why\": [\"Matches your usual preferences\",\"Budget fit\"],\n" +
               "      \"deepLinks\": [{\"platform\": \"SWIGGY\", \"url\": \"https://www.swiggy.com/search?query=chicken%20biryani\"}],\n" +
-              "      \"breakdown\": {\"base\": 1.0, \"budgetFit\": 0.6, \"mustTagMatch\": 1.5, \"avoidTagPenalty\": 0.0, \"queryMatch\": 0.0, \"restaurantAffinity\": 0.4, \"tagAffinity\": 0.5, \"priceSensitivity\": -0.1, \"total\": 4.25}\n" +
+              "      \"breakdown\": {\"base\": 1.0, \"budgetFit\": 0.6, \"mustTagMatch\": 1.5, \"avoidTagPenalty\": 0.0, \"queryMatch\": 0.0, \"restaurantAffinity\": 0.4, \"tagAffinity\": 0.5, \"priceSensitivity\": -0.1, \"coAcceptAffinity\": 0.0, \"total\": 4.25}\n" +
               "    }\n" +
               "  ],\n" +
               "  \"message\": null\n" +
@@ -179,100 +281,435 @@ public class DecideController {
     )
   public Mono<DecideResponse> decide(
       @AuthenticationPrincipal Jwt jwt,
-      @Valid @RequestBody(required = false) DecideRequest body
+      @Valid @RequestBody(required = false) DecideRequest body,
+      @RequestParam(name = "fields", required = false) String fields,
+      @RequestParam(name = "preview", defaultValue = "false") boolean preview
   ) {
     String userId = jwt.getSubject();
-    DecideRequest safeBody = body == null ? new DecideRequest(null, null, null, null, null) : body;
+    DecideRequest safeBody = body == null ? DEFAULT_REQUEST : body;
     int limit = clampLimit(safeBody.limit());
+    CandidateFields projection = CandidateFields.parse(fields);
 
-    Mono<UserPreference> preferenceMono = userPreferenceRepository.findById(userId)
-      .defaultIfEmpty(UserPreference.empty(userId));
-
-    return preferenceMono
-      .flatMap(preference -> itemRepository.findAllByUserIdAndActiveIsTrue(userId)
-        .collectList()
-        .flatMap(items -> buildAndPersistResponse(userId, safeBody, limit, items, preference))
-      );
+    Mono<DecideResponse> decided = loader.load(userId, safeBody)
+      .flatMap(inputs -> {
+        ItemCatalog catalog = inputs.catalog();
+        if (catalog.isEmpty()) {
+          return Mono.just(noItemsResponse(userId, limit));
+        }
+        if (preview) {
+          return scenario(userId, safeBody, inputs.plan(), catalog, inputs.preference())
+            .flatMap(this::previewOutcome);
+        }
+        DecisionMemo.Key key = memoKey(userId, safeBody, limit, catalog, inputs.preference(), inputs.plan());
+        return decisionMemo.computeIfAbsent(key, () -> rankingExecutor
+          .rank(inputs.plan(), catalog, sessions.depth(limit), strictHardAvoid, strictMustTags)
+          .flatMap(ranking -> {
+            List<ScoringPlan.Scored> ranked = ranking.top();
+            List<ScoringPlan.Scored> top = ranked.subList(0, Math.min(limit, ranked.size()));
+            Decision.UserPreferenceSnapshot preference = snapshotPreference(inputs.preference().preference());
+            Outcome outcome = buildOutcome(userId, safeBody, limit, top, key, preference);
+            if (outcome.decision() == null) {
+              return Mono.just(outcome.response());
+            }
+            return decisionWriter.persist(outcome.decision())
+              .map(saved -> {
+                sessions.open(saved.id(), userId, safeBody, limit, key, preference, ranked, top.size());
+                return outcome.response().withDecisionId(saved.id());
+              });
+          }));
+      });
+
+    if (!preview && readyDecisions.isEnabled() && DEFAULT_REQUEST.equals(safeBody)) {
+      decided = readyDecisions.get(userId)
+        .flatMap(ready -> serveReady(userId, limit, ready))
+        .switchIfEmpty(decided);
+    }
+
+    return decided
+      .onErrorResume(DecideSources.LoadTimeoutException.class, e -> sources.latestDecision(userId, e)
+        .map(latest -> degradedResponse(userId, limit, latest, e))
+        .switchIfEmpty(Mono.error(e)))
+      .map(projection::apply);
   }
 
-  private Mono<DecideResponse> buildAndPersistResponse(
-      String userId,
-      DecideRequest request,
-      int limit,
-      List<Item> items,
-      UserPreference preference
+  @PostMapping("/sessions/{decisionId}/next")
+  @Operation(
+      summary = "Re-decide: next-best candidates",
+      description = "Returns the next candidates of the ranking behind a decision, skipping everything already shown, "
+          + "and persists them as a new decision. Items are not reloaded; the session expires after a few minutes "
+          + "(404). Call again with the new decisionId (or the original one) to keep going."
+  )
+  public Mono<DecideResponse> next(
+      @AuthenticationPrincipal Jwt jwt,
+      @PathVariable String decisionId,
+      @RequestParam(name = "fields", required = false) String fields
   ) {
-    Instant now = Instant.now();
+    String userId = jwt.getSubject();
+    CandidateFields projection = CandidateFields.parse(fields);
+    DecideSessions.Session session = sessions.get(decisionId, userId);
+    if (session == null) {
+      return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "session not found or expired"));
+    }
 
-    if (items == null || items.isEmpty()) {
+    List<ScoringPlan.Scored> slice = session.next();
+    if (slice.isEmpty()) {
       return Mono.just(new DecideResponse(
-        null,
+          null,
           userId,
-          now.toString(),
-          limit,
+          Instant.now().toString(),
+          session.limit(),
           List.of(),
-          "No saved items yet. Create a few via POST /api/items to get decisions."
+          "No more candidates for this decision; decide again to start over."
       ));
     }
 
-    UserPreference.PreferenceProfile profile = preference == null
-      ? UserPreference.PreferenceProfile.empty()
-      : preference.effectiveProfile();
+    // Not memoized: the session shares the original decision's fingerprints but not its candidates.
+    Outcome outcome = buildOutcome(userId, session.request(), session.limit(), slice, session.key(), session.preference());
+    return decisionWriter.persist(outcome.decision())
+      .map(saved -> {
+        sessions.link(saved.id(), session);
+        return projection.apply(outcome.response().withDecisionId(saved.id()));
+      });
+  }
+
+  @PostMapping("/previews/{fingerprint}")
+  @Operation(
+      summary = "Store a decide preview",
+      description = "Persists the decision behind a preview (POST /api/decide?preview=true) while it is still held, "
+          + "and returns it with its decisionId. Promoting the same preview again returns the same decision."
+  )
+  public Mono<DecideResponse> promotePreview(
+      @AuthenticationPrincipal Jwt jwt,
+      @PathVariable String fingerprint
+  ) {
+    String userId = jwt.getSubject();
+    DecisionPreviews.Preview preview = previews.get(userId, fingerprint);
+    if (preview == null) {
+      return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "preview not found or expired"));
+    }
+    if (preview.decision() == null) {
+      return Mono.just(preview.response());
+    }
+
+    return decisionMemo.computeIfAbsent(preview.key(), () -> decisionWriter.persist(preview.decision())
+        .map(saved -> preview.response().withDecisionId(saved.id())))
+      .doOnNext(response -> previews.promoted(userId, fingerprint, response));
+  }
+
+  @PostMapping("/batch")
+  @Operation(
+      summary = "Rank several scenarios at once (Decide batch)",
+      description = "Ranks up to " + MAX_BATCH + " decide requests against one snapshot of the user's items and preferences, "
+          + "and persists one Decision per scenario that has candidates. Results are returned in request order."
+  )
+  public Mono<DecideBatchResponse> decideBatch(
+      @AuthenticationPrincipal Jwt jwt,
+      @Valid @RequestBody DecideBatchRequest body,
+      @RequestParam(name = "fields", required = false) String fields
+  ) {
+    String userId = jwt.getSubject();
+    CandidateFields projection = CandidateFields.parse(fields);
+    List<DecideRequest> requests = body.requests().stream()
+        .map(r -> r == null ? new DecideRequest(null, null, null, null, null) : r)
+        .toList();
+
+    // Hard avoids come from the profile alone, so every scenario shares the first one's catalog filter.
+    return loader.load(userId, requests.get(0))
+      .flatMap(inputs -> Flux.fromIterable(requests)
+        .flatMapSequential(
+            request -> scenario(
+                userId,
+                request,
+                loader.compile(request, inputs.preference().preference()),
+                inputs.catalog(),
+                inputs.preference()
+            ),
+            BATCH_CONCURRENCY
+        )
+        .collectList()
+        .flatMap(outcomes -> persistAll(outcomes)))
+      .map(results -> new DecideBatchResponse(userId, results.stream().map(projection::apply).toList()));
+  }
+
+  @PostMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+  @Operation(
+      summary = "Rank items, streaming (Decide)",
+      description = "Same ranking as POST /api/decide, negotiated by Accept: application/x-ndjson or text/event-stream. "
+          + "Emits one `candidate` event per candidate, best first, as soon as the ranking is final, then a `decision` "
+          + "event carrying the decisionId once the decision is persisted (or a single `message` event when there is "
+          + "nothing to rank)."
+  )
+  public Flux<DecideEvent> decideStream(
+      @AuthenticationPrincipal Jwt jwt,
+      @Valid @RequestBody(required = false) DecideRequest body,
+      @RequestParam(name = "fields", required = false) String fields
+  ) {
+    String userId = jwt.getSubject();
+    DecideRequest safeBody = body == null ? DEFAULT_REQUEST : body;
+    CandidateFields projection = CandidateFields.parse(fields);
+
+    return loader.load(userId, safeBody)
+      .flatMap(inputs -> scenario(userId, safeBody, inputs.plan(), inputs.catalog(), inputs.preference()))
+      .flatMapMany(outcome -> streamOutcome(outcome, projection));
+  }
+
+  /**
+   * Ranks the default request for {@code userId} as decide would, without persisting anything, to the
+   * session depth so serving it can open a re-decide session. Items and preferences are read from
+   * Mongo, however long that takes: a ready decision outlives the cache TTLs, so it must not be built
+   * from a degraded preference or from this instance's copy of a catalog another instance has since
+   * written. Nothing is precomputed from the cold-start pool, which changes independently of the
+   * user's writes.
+   */
+  private Mono<ReadyDecision> precompute(String userId, Instant computedAt) {
+    int limit = clampLimit(DEFAULT_REQUEST.limit());
+    return loader.loadFromSource(userId, DEFAULT_REQUEST)
+      .filter(inputs -> !inputs.catalog().isEmpty() && !inputs.coldStart())
+      .flatMap(inputs -> {
+        DecisionMemo.Key key = memoKey(userId, DEFAULT_REQUEST, limit, inputs.catalog(), inputs.preference(), inputs.plan());
+        Decision.UserPreferenceSnapshot preference = snapshotPreference(inputs.preference().preference());
+        return rankingExecutor.rank(inputs.plan(), inputs.catalog(), sessions.depth(limit), strictHardAvoid, strictMustTags)
+          .mapNotNull(ranking -> {
+            List<ScoringPlan.Scored> ranked = ranking.top();
+            List<ScoringPlan.Scored> top = ranked.subList(0, Math.min(limit, ranked.size()));
+            Decision decision = buildOutcome(userId, DEFAULT_REQUEST, limit, top, key, preference).decision();
+            return decision == null ? null : new ReadyDecision(
+                userId,
+                key.inputHash(),
+                key.itemsHash(),
+                key.preferenceHash(),
+                key.similarityVersion(),
+                decision,
+                List.copyOf(ranked),
+                computedAt,
+                null
+            );
+          });
+      });
+  }
 
-    Set<String> mustTags = normalizeTagSet(request.mustHaveTags());
-    Set<String> requestAvoidTags = normalizeTagSet(request.avoidTags());
-    String query = normalizeText(request.query());
+  /**
+   * Whether {@code ready} was ranked for {@code inputHash} by the current algorithm and schema,
+   * against the co-acceptance table decide reads now.
+   */
+  private boolean isCurrent(ReadyDecision ready, String inputHash) {
+    Decision.DecisionMeta meta = ready.decision().meta();
+    return inputHash.equals(ready.inputHash())
+        && meta != null
+        && Objects.equals(meta.schemaVersion(), DECISION_SCHEMA_VERSION)
+        && ALGORITHM_VERSION.equals(meta.algorithmVersion())
+        && itemSimilarity.isCurrent(ready.similarityVersion());
+  }
+
+  /**
+   * Persists the ready decision as of now and returns it like a freshly ranked one, with a re-decide
+   * session over the rest of its ranking.
+   */
+  private Mono<DecideResponse> serveReady(String userId, int limit, ReadyDecision ready) {
+    Instant now = Instant.now();
+    Decision decision = new Decision(
+        null,
+        userId,
+        now,
+        ready.decision().input(),
+        ready.decision().candidates(),
+        null,
+        ready.decision().meta()
+    );
+    List<Candidate> candidates = candidatesOf(decision, limit);
+    DecisionMemo.Key key = new DecisionMemo.Key(
+        userId, ready.inputHash(), ready.itemsHash(), ready.preferenceHash(), ready.similarityVersion());
+    return decisionWriter.persist(decision)
+      .map(saved -> {
+        if (ready.ranked() != null) {
+          sessions.open(saved.id(), userId, DEFAULT_REQUEST, limit, key, decision.meta().preferenceSnapshot(),
+              ready.ranked(), candidates.size());
+        }
+        return new DecideResponse(saved.id(), userId, now.toString(), limit, candidates, null);
+      });
+  }
 
-    // Apply explicit profile constraints.
-    // - Profile avoid tags are treated as a stronger signal than request avoid tags.
-    // - Dietary restrictions and allergens are treated as hard-avoid tags.
-    Set<String> profileAvoidTags = profile.avoidTags() == null ? Set.of() : profile.avoidTags();
-    Set<String> hardAvoidTags = union(
-      profile.dietaryRestrictions() == null ? Set.of() : profile.dietaryRestrictions(),
-      profile.allergens() == null ? Set.of() : profile.allergens()
+  /** Re-serves {@code latest} when {@code cause}'s source could not be loaded in time. */
+  private static DecideResponse degradedResponse(
+      String userId,
+      int limit,
+      Decision latest,
+      DecideSources.LoadTimeoutException cause
+  ) {
+    return new DecideResponse(
+        latest.id(),
+        userId,
+        latest.createdAt() == null ? Instant.now().toString() : latest.createdAt().toString(),
+        limit,
+        candidatesOf(latest, limit),
+        "Your " + cause.getReason() + "; showing your most recent decision.",
+        true,
+        null
     );
+  }
 
-    Integer effectiveBudget = request.budget();
-    if (profile.budgetMax() != null) {
-      effectiveBudget = (effectiveBudget == null)
-        ? profile.budgetMax()
-        : Math.min(effectiveBudget, profile.budgetMax());
-    }
-
-    List<Scored> scored = new ArrayList<>(items.size());
-    for (Item item : items) {
-      scored.add(score(
-          item,
-          effectiveBudget,
-          mustTags,
-          requestAvoidTags,
-          query,
-          preference,
-          profile,
-          profileAvoidTags,
-          hardAvoidTags
-      ));
+  /** The first {@code limit} stored candidates of {@code decision} as response candidates. */
+  private static List<Candidate> candidatesOf(Decision decision, int limit) {
+    return decision.candidates() == null
+        ? List.of()
+        : decision.withRenderedWhy().candidates().stream()
+            .limit(limit)
+            .map(c -> new Candidate(
+                new ItemSummary(
+                    c.item().id(),
+                    c.item().name(),
+                    c.item().restaurantName(),
+                    c.item().tags() == null ? List.of() : c.item().tags(),
+                    c.item().priceEstimate()
+                ),
+                c.score(),
+                c.confidence(),
+                c.why(),
+                c.deepLinks(),
+                c.breakdown()
+            ))
+            .toList();
+  }
+
+  /**
+   * A preview persists nothing unless it is sampled; otherwise the decision is held for promotion.
+   * Memoized outcomes are already stored and come back as they are.
+   */
+  private Mono<DecideResponse> previewOutcome(Outcome outcome) {
+    if (outcome.decision() == null) {
+      return Mono.just(outcome.response());
+    }
+    if (previews.sample()) {
+      return decisionWriter.persist(outcome.decision())
+        .map(saved -> {
+          DecideResponse persisted = outcome.response().withDecisionId(saved.id());
+          decisionMemo.remember(outcome.key(), persisted);
+          return persisted;
+        });
+    }
+    String fingerprint = previews.hold(outcome.key(), outcome.response(), outcome.decision());
+    return Mono.just(outcome.response().withPreviewFingerprint(fingerprint));
+  }
+
+  private Flux<DecideEvent> streamOutcome(Outcome outcome, CandidateFields projection) {
+    DecideResponse response = outcome.response();
+    if (response.candidates().isEmpty()) {
+      return Flux.just(DecideEvent.message(response));
     }
 
-    scored.sort(
-      Comparator
-        .comparingDouble(Scored::score).reversed()
-        .thenComparing((Scored s) -> s.item().updatedAt(), Comparator.nullsLast(Comparator.reverseOrder()))
-        .thenComparing((Scored s) -> s.item().createdAt(), Comparator.nullsLast(Comparator.reverseOrder()))
-        .thenComparing(s -> s.item().id(), Comparator.nullsLast(Comparator.naturalOrder()))
-    );
+    Flux<DecideEvent> candidates = Flux.range(0, response.candidates().size())
+        .map(i -> DecideEvent.candidate(i + 1, projection.apply(response.candidates().get(i))));
 
-    List<Scored> top = scored.stream().limit(limit).toList();
-    List<Double> confidences = softmax(top.stream().map(Scored::score).toList());
+    if (outcome.decision() == null) {
+      // Memoized: already persisted.
+      return candidates.concatWith(Mono.just(DecideEvent.decision(response)));
+    }
+
+    return candidates.concatWith(decisionWriter.persist(outcome.decision())
+        .map(saved -> {
+          DecideResponse persisted = response.withDecisionId(saved.id());
+          decisionMemo.remember(outcome.key(), persisted);
+          return DecideEvent.decision(persisted);
+        }));
+  }
+
+  private Mono<Outcome> scenario(
+      String userId,
+      DecideRequest request,
+      ScoringPlan plan,
+      ItemCatalog catalog,
+      UserPreferenceCache.Snapshot preference
+  ) {
+    int limit = clampLimit(request.limit());
+    if (catalog.isEmpty()) {
+      return Mono.just(new Outcome(noItemsResponse(userId, limit), null, null));
+    }
+
+    DecisionMemo.Key key = memoKey(userId, request, limit, catalog, preference, plan);
+    DecideResponse memoized = decisionMemo.get(key);
+    if (memoized != null) {
+      return Mono.just(new Outcome(memoized, null, null));
+    }
+
+    return rankingExecutor.rank(plan, catalog, limit, strictHardAvoid, strictMustTags)
+      .map(ranking -> buildOutcome(userId, request, limit, ranking.top(), key, snapshotPreference(preference.preference())));
+  }
+
+  /** Persists every new decision of a batch together and fills in their ids, keeping request order. */
+  private Mono<List<DecideResponse>> persistAll(List<Outcome> outcomes) {
+    List<Decision> pending = outcomes.stream()
+        .map(Outcome::decision)
+        .filter(Objects::nonNull)
+        .toList();
+    if (pending.isEmpty()) {
+      return Mono.just(outcomes.stream().map(Outcome::response).toList());
+    }
+
+    return decisionWriter.persistAll(pending)
+      .map(saved -> {
+        List<DecideResponse> out = new ArrayList<>(outcomes.size());
+        int next = 0;
+        for (Outcome outcome : outcomes) {
+          if (outcome.decision() == null) {
+            out.add(outcome.response());
+            continue;
+          }
+          DecideResponse response = outcome.response().withDecisionId(saved.get(next++).id());
+          decisionMemo.remember(outcome.key(), response);
+          out.add(response);
+        }
+        return out;
+      });
+  }
+
+  private static DecisionMemo.Key memoKey(
+      String userId,
+      DecideRequest request,
+      int limit,
+      ItemCatalog catalog,
+      UserPreferenceCache.Snapshot preference,
+      ScoringPlan plan
+  ) {
+    return new DecisionMemo.Key(
+        userId, hashInput(request, limit), catalog.itemsHash(), preference.preferenceHash(), plan.similarityVersion());
+  }
+
+  /**
+   * A ranked scenario: the response (without a decision id yet) and the decision to persist, or just a
+   * message response when nothing qualified.
+   */
+  private record Outcome(DecideResponse response, Decision decision, DecisionMemo.Key key) {}
+
+  private Outcome buildOutcome(
+      String userId,
+      DecideRequest request,
+      int limit,
+      List<ScoringPlan.Scored> top,
+      DecisionMemo.Key fingerprints,
+      Decision.UserPreferenceSnapshot preference
+  ) {
+    Instant now = Instant.now();
+
+    if (top.isEmpty()) {
+      return new Outcome(new DecideResponse(
+          null,
+          userId,
+          now.toString(),
+          limit,
+          List.of(),
+          "No saved items match your must-have tags, dietary restrictions and allergens."
+      ), null, fingerprints);
+    }
+    List<Double> confidences = softmax(top.stream().map(ScoringPlan.Scored::score).toList());
 
     List<Candidate> candidates = new ArrayList<>(top.size());
     for (int i = 0; i < top.size(); i++) {
-      Scored s = top.get(i);
+      ScoringPlan.Scored s = top.get(i);
       candidates.add(new Candidate(
           toSummary(s.item()),
           s.score(),
           confidences.get(i),
-          s.why(),
+          Decision.Reason.render(s.reasons()),
           deepLinksFor(s.item()),
           s.breakdown()
       ));
@@ -286,8 +723,10 @@ public class DecideController {
       limit
     );
 
-    List<Decision.CandidateSnapshot> storedCandidates = candidates.stream()
-      .map(c -> new Decision.CandidateSnapshot(
+    List<Decision.CandidateSnapshot> storedCandidates = new ArrayList<>(candidates.size());
+    for (int i = 0; i < candidates.size(); i++) {
+      Candidate c = candidates.get(i);
+      storedCandidates.add(new Decision.CandidateSnapshot(
         new Decision.ItemSnapshot(
           c.item().id(),
           c.item().name(),
@@ -297,21 +736,22 @@ public class DecideController {
         ),
         c.score(),
         c.confidence(),
-        c.why(),
+        null,
         c.deepLinks(),
-        c.breakdown()
-      ))
-      .toList();
+        c.breakdown(),
+        top.get(i).reasons()
+      ));
+    }
 
     Decision.DecisionMeta meta = new Decision.DecisionMeta(
         DECISION_SCHEMA_VERSION,
         ALGORITHM,
         ALGORITHM_VERSION,
-        hashInput(request, limit),
-        hashItems(items),
-        hashPreference(preference),
+        fingerprints.inputHash(),
+        fingerprints.itemsHash(),
+        fingerprints.preferenceHash(),
         null,
-        snapshotPreference(preference)
+        preference
     );
 
     Decision decision = new Decision(
@@ -324,11 +764,25 @@ public class DecideController {
       meta
     );
 
-    return decisionRepository.save(decision)
-      .map(saved -> new DecideResponse(saved.id(), userId, now.toString(), limit, candidates, null));
+    return new Outcome(
+        new DecideResponse(null, userId, now.toString(), limit, candidates, null),
+        decision,
+        fingerprints
+    );
+  }
+
+  private static DecideResponse noItemsResponse(String userId, int limit) {
+    return new DecideResponse(
+        null,
+        userId,
+        Instant.now().toString(),
+        limit,
+        List.of(),
+        "No saved items yet. Create a few via POST /api/items to get decisions."
+    );
   }
 
-  private static ItemSummary toSummary(Item item) {
+  static ItemSummary toSummary(Item item) {
     return new ItemSummary(
         item.id(),
         item.name(),
@@ -338,7 +792,7 @@ public class DecideController {
     );
   }
 
-  private static List<Decision.DeepLink> deepLinksFor(Item item) {
+  static List<Decision.DeepLink> deepLinksFor(Item item) {
     if (item == null) {
       return List.of();
     }
@@ -356,7 +810,7 @@ public class DecideController {
 
     List<Decision.DeepLink> out = new ArrayList<>();
     for (String p : platforms) {
-      String platform = normalizeText(p);
+      String platform = ScoringPlan.normalizeText(p);
       if (platform.isBlank()) {
         continue;
       }
@@ -383,208 +837,7 @@ public class DecideController {
     return name;
   }
 
-  private record Scored(Item item, double score, List<String> why, Decision.ScoreBreakdown breakdown) {}
-
-  private static Scored score(
-      Item item,
-      Integer budget,
-      Set<String> mustTags,
-      Set<String> requestAvoidTags,
-      String query,
-      UserPreference preference,
-      UserPreference.PreferenceProfile profile,
-      Set<String> profileAvoidTags,
-      Set<String> hardAvoidTags
-  ) {
-    double base = 1.0;
-    double score = base;
-    List<String> why = new ArrayList<>();
-
-    double budgetFit = 0.0;
-    double mustTagMatch = 0.0;
-    double avoidTagPenalty = 0.0;
-    double queryMatch = 0.0;
-    double restaurantAffinity = 0.0;
-    double tagAffinity = 0.0;
-    double priceSensitivity = 0.0;
-
-    // Budget fit
-    if (budget != null && item.priceEstimate() != null) {
-      if (item.priceEstimate() <= budget) {
-        budgetFit = 1.2;
-        score += budgetFit;
-        why.add("Within budget (≤ " + budget + ")");
-      } else {
-        budgetFit = -0.8;
-        score += budgetFit;
-        why.add("Above budget (> " + budget + ")");
-      }
-    }
-
-    // Tag matches
-    Set<String> itemTags = normalizeTagSet(item.tags());
-    if (!mustTags.isEmpty()) {
-      long matched = mustTags.stream().filter(itemTags::contains).count();
-      if (matched > 0) {
-        mustTagMatch = matched * 0.7;
-        score += mustTagMatch;
-        for (String t : mustTags) {
-          if (itemTags.contains(t)) {
-            why.add("Matches tag: " + t);
-          }
-        }
-      } else {
-        mustTagMatch = -0.4;
-        score += mustTagMatch;
-      }
-    }
-
-    // Hard avoids from explicit profile (diet/allergen).
-    if (hardAvoidTags != null && !hardAvoidTags.isEmpty()) {
-      Set<String> matched = intersect(itemTags, hardAvoidTags);
-      if (!matched.isEmpty()) {
-        double penalty = -matched.size() * 5.0;
-        avoidTagPenalty += penalty;
-        score += penalty;
-        for (String t : matched) {
-          why.add("Hard avoid tag: " + t);
-        }
-      }
-    }
-
-    // Avoid tags from explicit profile (stronger than request avoid tags).
-    if (profileAvoidTags != null && !profileAvoidTags.isEmpty()) {
-      Set<String> matched = intersect(itemTags, profileAvoidTags);
-      if (!matched.isEmpty()) {
-        double penalty = -matched.size() * 3.0;
-        avoidTagPenalty += penalty;
-        score += penalty;
-        for (String t : matched) {
-          why.add("Avoid tag (profile): " + t);
-        }
-      }
-    }
-
-    // Avoid tags from the request.
-    if (requestAvoidTags != null && !requestAvoidTags.isEmpty()) {
-      Set<String> matched = intersect(itemTags, requestAvoidTags);
-      if (!matched.isEmpty()) {
-        double penalty = -matched.size() * 1.5;
-        avoidTagPenalty += penalty;
-        score += penalty;
-        for (String t : matched) {
-          why.add("Avoid tag present: " + t);
-        }
-      }
-    }
-
-    // Text match (query / voice transcript)
-    if (query != null && !query.isBlank()) {
-      String haystack = (
-          normalizeText(item.name()) + " " + normalizeText(item.restaurantName()) + " " +
-              String.join(" ", itemTags)
-      ).trim();
-
-      List<String> terms = List.of(query.split("\\s+"))
-          .stream()
-          .filter(t -> t.length() >= 3)
-          .toList();
-
-      long hits = terms.stream().filter(haystack::contains).count();
-      if (hits > 0) {
-        queryMatch = hits * 0.5;
-        score += queryMatch;
-        why.add("Matches your query");
-      }
-    }
-
-    if (why.isEmpty()) {
-      why.add("A safe default based on your saved items");
-    }
-
-    // Learned preferences (lightweight personalization)
-    if (preference != null) {
-      int restaurantWeight = preference.restaurantWeightFor(item.restaurantName());
-      if (restaurantWeight != 0) {
-        double delta = restaurantWeight * 0.25;
-        restaurantAffinity += delta;
-        score += delta;
-        why.add(restaurantWeight > 0 ? "You often like this place" : "You often avoid this place");
-      }
-
-      int tagWeightSum = 0;
-      for (String tag : itemTags) {
-        int w = preference.tagWeightFor(tag);
-        if (w != 0) {
-          tagWeightSum += w;
-        }
-      }
-      if (tagWeightSum != 0) {
-        double delta = tagWeightSum * 0.15;
-        tagAffinity += delta;
-        score += delta;
-        why.add(tagWeightSum > 0 ? "Matches your usual preferences" : "Conflicts with your usual preferences");
-      }
-
-      // Price sensitivity learning from "TOO_PRICEY" rejections.
-      if (budget != null && item.priceEstimate() != null && item.priceEstimate() > budget) {
-        int penalty = preference.pricePenalty();
-        if (penalty > 0) {
-          priceSensitivity = -penalty * 0.2;
-          score += priceSensitivity;
-        }
-      }
-    }
-
-    // Explicit profile preferences (user-controlled)
-    if (profile != null) {
-      String restaurant = normalizeText(item.restaurantName());
-      if (restaurant != null && !restaurant.isBlank()) {
-        Set<String> preferRestaurants = profile.preferRestaurants() == null ? Set.of() : profile.preferRestaurants();
-        Set<String> avoidRestaurants = profile.avoidRestaurants() == null ? Set.of() : profile.avoidRestaurants();
-
-        if (preferRestaurants.contains(restaurant)) {
-          restaurantAffinity += 0.8;
-          score += 0.8;
-          why.add("Preferred restaurant (profile)");
-        }
-        if (avoidRestaurants.contains(restaurant)) {
-          restaurantAffinity -= 1.2;
-          score -= 1.2;
-          why.add("Avoid restaurant (profile)");
-        }
-      }
-
-      Set<String> preferTags = profile.preferTags() == null ? Set.of() : profile.preferTags();
-      if (!preferTags.isEmpty()) {
-        Set<String> matched = intersect(itemTags, preferTags);
-        if (!matched.isEmpty()) {
-          double delta = matched.size() * 0.6;
-          tagAffinity += delta;
-          score += delta;
-          for (String t : matched) {
-            why.add("Preferred tag: " + t);
-          }
-        }
-      }
-    }
-
-    Decision.ScoreBreakdown breakdown = new Decision.ScoreBreakdown(
-        base,
-        budgetFit,
-        mustTagMatch,
-        avoidTagPenalty,
-        queryMatch,
-        restaurantAffinity,
-        tagAffinity,
-        priceSensitivity,
-        score
-    );
-
-    return new Scored(item, score, why, breakdown);
-  }
-
-  private static String hashInput(DecideRequest request, int limit) {
+  static String hashInput(DecideRequest request, int limit) {
     if (request == null) {
       return null;
     }
@@ -592,55 +845,12 @@ public class DecideController {
     String normalized = "budget=" + request.budget()
         + "|must=" + joinNormalized(request.mustHaveTags())
         + "|avoid=" + joinNormalized(request.avoidTags())
-        + "|query=" + normalizeText(request.query())
+        + "|query=" + ScoringPlan.normalizeText(request.query())
         + "|limit=" + limit;
 
     return Hashing.sha256Hex(normalized);
   }
 
-  private static String hashItems(List<Item> items) {
-    if (items == null || items.isEmpty()) {
-      return null;
-    }
-
-    String normalized = items.stream()
-        .sorted(Comparator.comparing(Item::id, Comparator.nullsLast(Comparator.naturalOrder())))
-        .map(i -> i.id() + ":" + (i.updatedAt() == null ? "" : i.updatedAt().toString()))
-        .collect(Collectors.joining("|"));
-
-    return Hashing.sha256Hex(normalized);
-  }
-
-  private static String hashPreference(UserPreference preference) {
-    if (preference == null) {
-      return null;
-    }
-
-    Map<String, Integer> tags = new TreeMap<>(preference.tagWeights() == null ? Map.of() : preference.tagWeights());
-    Map<String, Integer> restaurants = new TreeMap<>(
-        preference.restaurantWeights() == null ? Map.of() : preference.restaurantWeights()
-    );
-
-    UserPreference.PreferenceProfile profile = preference.effectiveProfile();
-    String profileNormalized = "budgetMin=" + profile.budgetMin()
-        + "|budgetMax=" + profile.budgetMax()
-        + "|preferTags=" + joinSorted(profile.preferTags())
-        + "|avoidTags=" + joinSorted(profile.avoidTags())
-        + "|preferRestaurants=" + joinSorted(profile.preferRestaurants())
-        + "|avoidRestaurants=" + joinSorted(profile.avoidRestaurants())
-        + "|dietaryRestrictions=" + joinSorted(profile.dietaryRestrictions())
-        + "|allergens=" + joinSorted(profile.allergens());
-
-    String normalized = "tags=" + tags
-        + "|restaurants=" + restaurants
-        + "|pricePenalty=" + preference.pricePenalty()
-        + "|updatedAt=" + (preference.updatedAt() == null ? "" : preference.updatedAt().toString())
-        + "|schemaVersion=" + preference.schemaVersion()
-        + "|profile=" + profileNormalized;
-
-    return Hashing.sha256Hex(normalized);
-  }
-
   private static Decision.UserPreferenceSnapshot snapshotPreference(UserPreference preference) {
     if (preference == null) {
       return null;
@@ -669,32 +879,6 @@ public class DecideController {
         .collect(Collectors.joining(","));
   }
 
-  private static Set<String> union(Set<String> a, Set<String> b) {
-    if ((a == null || a.isEmpty()) && (b == null || b.isEmpty())) {
-      return Set.of();
-    }
-    Set<String> out = new HashSet<>();
-    if (a != null) out.addAll(a);
-    if (b != null) out.addAll(b);
-    return Set.copyOf(out);
-  }
-
-  private static Set<String> intersect(Set<String> a, Set<String> b) {
-    if (a == null || a.isEmpty() || b == null || b.isEmpty()) {
-      return Set.of();
-    }
-    Set<String> out = new HashSet<>(a);
-    out.retainAll(b);
-    return Set.copyOf(out);
-  }
-
-  private static String joinSorted(Set<String> values) {
-    if (values == null || values.isEmpty()) {
-      return "";
-    }
-    return new TreeSet<>(values).stream().collect(Collectors.joining(","));
-  }
-
   private static int clampLimit(Integer limit) {
     if (limit == null) {
       return MAX_LIMIT;
@@ -702,26 +886,7 @@ public class DecideController {
     return Math.max(MIN_LIMIT, Math.min(MAX_LIMIT, limit));
   }
 
-  private static Set<String> normalizeTagSet(List<String> tags) {
-    if (tags == null || tags.isEmpty()) {
-      return Set.of();
-    }
-    return tags.stream()
-        .filter(Objects::nonNull)
-        .map(String::trim)
-        .filter(s -> !s.isBlank())
-        .map(s -> s.toLowerCase(Locale.ROOT))
-        .collect(Collectors.toUnmodifiableSet());
-  }
-
-  private static String normalizeText(String s) {
-    if (s == null) {
-      return "";
-    }
-    return s.trim().toLowerCase(Locale.ROOT);
-  }
-
-  private static List<Double> softmax(List<Double> scores) {
+  static List<Double> softmax(List<Double> scores) {
     if (scores == null || scores.isEmpty()) {
       return List.of();
     }
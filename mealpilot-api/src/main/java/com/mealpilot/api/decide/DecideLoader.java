@@ -0,0 +1,95 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.items.ItemCatalog;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Loads what a decide-style request ranks against, the same way for decide, meal plans, group decide
+ * and combos.
+ *
+ * <p>Preferences and the catalog are read concurrently from {@link DecideSources}. Strict mode drops
+ * diet/allergen matches instead of penalizing them; when the catalog pushes that filter to Mongo it
+ * needs the preferences first. The plan is compiled with the co-acceptance affinity of the user's
+ * recent accepts ({@link ItemSimilarity}), and a catalog with too few items is topped up from the
+ * {@link ColdStartPool}.
+ */
+@Component
+public class DecideLoader {
+
+  /**
+   * The preference snapshot, its compiled plan and the catalog. {@code coldStart} is set when the
+   * catalog was topped up from the {@link ColdStartPool}.
+   */
+  record Inputs(UserPreferenceCache.Snapshot preference, ScoringPlan plan, ItemCatalog catalog, boolean coldStart) {}
+
+  private final DecideSources sources;
+  private final ColdStartPool coldStartPool;
+  private final ItemSimilarity itemSimilarity;
+  private final boolean strictHardAvoid;
+
+  public DecideLoader(
+      DecideSources sources,
+      ColdStartPool coldStartPool,
+      ItemSimilarity itemSimilarity,
+      @Value("${mealpilot.decide.strict-hard-avoid:false}") boolean strictHardAvoid
+  ) {
+    this.sources = sources;
+    this.coldStartPool = coldStartPool;
+    this.itemSimilarity = itemSimilarity;
+    this.strictHardAvoid = strictHardAvoid;
+  }
+
+  /** The inputs for {@code request}; fails with a {@link DecideSources.LoadTimeoutException} when a read misses its deadline. */
+  Mono<Inputs> load(String userId, DecideController.DecideRequest request) {
+    return load(userId, request, sources.preference(userId), true);
+  }
+
+  /** {@link #load} with the user's already loaded {@code preference}; only the catalog is read. */
+  Mono<Inputs> load(String userId, DecideController.DecideRequest request, UserPreferenceCache.Snapshot preference) {
+    return load(userId, request, Mono.just(preference), true);
+  }
+
+  /**
+   * {@link #load}, reading Mongo rather than the caches and waiting however long it takes; for results
+   * kept beyond the cache TTLs, which must not be built from another instance's stale copy.
+   */
+  Mono<Inputs> loadFromSource(String userId, DecideController.DecideRequest request) {
+    return load(userId, request, sources.preferenceFromSource(userId), false);
+  }
+
+  /** Compiles {@code request} against {@code preference} as {@link #load} does. */
+  ScoringPlan compile(DecideController.DecideRequest request, UserPreference preference) {
+    return ScoringPlan.compile(request, preference, itemSimilarity.affinityFor(preference));
+  }
+
+  private Mono<Inputs> load(
+      String userId,
+      DecideController.DecideRequest request,
+      Mono<UserPreferenceCache.Snapshot> preference,
+      boolean cached
+  ) {
+    if (strictHardAvoid && sources.catalogFiltersExcludedTags()) {
+      return preference.flatMap(p -> {
+        ScoringPlan plan = compile(request, p.preference());
+        return catalog(userId, plan.hardAvoidTags(), cached)
+            .map(catalog -> inputs(p, plan, catalog));
+      });
+    }
+    return Mono.zip(preference, catalog(userId, Set.of(), cached))
+        .map(t -> inputs(t.getT1(), compile(request, t.getT1().preference()), t.getT2()));
+  }
+
+  private Inputs inputs(UserPreferenceCache.Snapshot preference, ScoringPlan plan, ItemCatalog personal) {
+    ItemCatalog catalog = coldStartPool.blend(personal);
+    return new Inputs(preference, plan, catalog, catalog != personal);
+  }
+
+  private Mono<ItemCatalog> catalog(String userId, Set<String> excludeTags, boolean cached) {
+    return cached
+        ? sources.catalog(userId, excludeTags)
+        : sources.catalogFromSource(userId, excludeTags);
+  }
+}
@@ -0,0 +1,150 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.common.BoundedCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Short-lived re-decide sessions, keyed by decision id.
+ *
+ * <p>Decide ranks {@code depth} candidates beyond the returned ones and opens a session holding that
+ * ranking, so a next page exists whenever the catalog has one. Asking for the next candidates walks further down it, skipping everything
+ * already shown, without reloading items or preferences. Each follow-up decision is linked to the
+ * same session, so the client can keep asking with the latest decision id.
+ *
+ * <p>Sessions expire after {@code ttl}, counted from the latest page. The cache is weighed by the
+ * number of candidates held and evicts least recently used sessions beyond {@code max-candidates}.
+ * Follow-up decision ids are kept apart, as links to the id the session was opened for, so paging
+ * does not count a ranking again.
+ */
+@Component
+public class DecideSessions {
+
+  /** A ranking being walked; shared by every decision id of the session. */
+  static final class Session {
+    private final String id;
+    private final String userId;
+    private final DecideController.DecideRequest request;
+    private final int limit;
+    private final DecisionMemo.Key key;
+    private final Decision.UserPreferenceSnapshot preference;
+    private final List<ScoringPlan.Scored> ranked;
+    private int shown;
+
+    Session(
+        String id,
+        String userId,
+        DecideController.DecideRequest request,
+        int limit,
+        DecisionMemo.Key key,
+        Decision.UserPreferenceSnapshot preference,
+        List<ScoringPlan.Scored> ranked,
+        int shown
+    ) {
+      this.id = id;
+      this.userId = userId;
+      this.request = request;
+      this.limit = limit;
+      this.key = key;
+      this.preference = preference;
+      this.ranked = List.copyOf(ranked);
+      this.shown = Math.min(shown, this.ranked.size());
+    }
+
+    String userId() {
+      return userId;
+    }
+
+    DecideController.DecideRequest request() {
+      return request;
+    }
+
+    int limit() {
+      return limit;
+    }
+
+    DecisionMemo.Key key() {
+      return key;
+    }
+
+    Decision.UserPreferenceSnapshot preference() {
+      return preference;
+    }
+
+    /** The next {@code limit} candidates not shown yet (possibly none), marking them shown. */
+    synchronized List<ScoringPlan.Scored> next() {
+      int from = shown;
+      shown = Math.min(ranked.size(), shown + limit);
+      return ranked.subList(from, shown);
+    }
+  }
+
+  private final boolean enabled;
+  private final int depth;
+  private final BoundedCache<String, Session> sessions;
+  private final BoundedCache<String, String> links;
+
+  public DecideSessions(
+      MeterRegistry meterRegistry,
+      @Value("${mealpilot.decide.session.enabled:true}") boolean enabled,
+      @Value("${mealpilot.decide.session.depth:30}") int depth,
+      @Value("${mealpilot.decide.session.max-candidates:300000}") long maxCandidates,
+      @Value("${mealpilot.decide.session.ttl:PT10M}") Duration ttl
+  ) {
+    this.enabled = enabled;
+    this.depth = Math.max(1, depth);
+    this.sessions = new BoundedCache<>("decide_sessions", maxCandidates, ttl, s -> s.ranked.size(), meterRegistry);
+    this.links = new BoundedCache<>("decide_session_links", maxCandidates, ttl, id -> 1L, meterRegistry);
+  }
+
+  /** How many candidates decide should rank for a request returning {@code limit}. */
+  int depth(int limit) {
+    return enabled ? limit + depth : limit;
+  }
+
+  /**
+   * Opens a session for {@code decisionId} over {@code ranked}, of which the first {@code shown} were
+   * returned with the decision.
+   */
+  void open(
+      String decisionId,
+      String userId,
+      DecideController.DecideRequest request,
+      int limit,
+      DecisionMemo.Key key,
+      Decision.UserPreferenceSnapshot preference,
+      List<ScoringPlan.Scored> ranked,
+      int shown
+  ) {
+    if (!enabled || decisionId == null || ranked.size() <= shown) {
+      return;
+    }
+    sessions.put(decisionId, new Session(decisionId, userId, request, limit, key, preference, ranked, shown));
+  }
+
+  /** Makes {@code session} reachable from a follow-up decision, and keeps it alive for another {@code ttl}. */
+  void link(String decisionId, Session session) {
+    if (enabled && decisionId != null) {
+      sessions.put(session.id, session);
+      links.put(decisionId, session.id);
+    }
+  }
+
+  /** The user's session for {@code decisionId}, or {@code null} when unknown, expired or evicted. */
+  Session get(String decisionId, String userId) {
+    if (!enabled || decisionId == null) {
+      return null;
+    }
+    String opened = links.get(decisionId);
+    Session session = sessions.get(opened != null ? opened : decisionId);
+    return session != null && session.userId().equals(userId) ? session : null;
+  }
+
+  public void clear() {
+    sessions.clear();
+    links.clear();
+  }
+}
@@ -0,0 +1,161 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.items.ItemCatalog;
+import com.mealpilot.api.items.ItemCatalogCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+/**
+ * The reads decide depends on, each with its own deadline.
+ *
+ * <p>A preference load that misses {@code preference-timeout} fails with
+ * {@link PreferenceTimeoutException} and a catalog load that misses {@code catalog-timeout} with
+ * {@link CatalogTimeoutException} (both 503), which decide answers from
+ * {@link #latestDecision(String, LoadTimeoutException)}. Preferences are not replaced by an empty
+ * profile: ranking without them would drop the user's dietary restrictions and allergens. Timed-out
+ * loads are not cancelled: they finish in the background and still warm the caches for the next
+ * request.
+ *
+ * <p>Publishes {@code mealpilot.decide.fallback}, tagged {@code source=preference|catalog} and
+ * {@code result=served|unavailable}.
+ */
+@Component
+public class DecideSources {
+
+  private final UserPreferenceCache preferenceCache;
+  private final ItemCatalogCache catalogCache;
+  private final DecisionRepository decisionRepository;
+  private final Duration preferenceTimeout;
+  private final Duration catalogTimeout;
+  private final Duration fallbackTimeout;
+
+  private final Map<String, Counter> fallbacksServed;
+  private final Map<String, Counter> fallbacksUnavailable;
+
+  public DecideSources(
+      UserPreferenceCache preferenceCache,
+      ItemCatalogCache catalogCache,
+      DecisionRepository decisionRepository,
+      MeterRegistry meterRegistry,
+      @Value("${mealpilot.decide.load.preference-timeout:PT0.3S}") Duration preferenceTimeout,
+      @Value("${mealpilot.decide.load.catalog-timeout:PT1S}") Duration catalogTimeout,
+      @Value("${mealpilot.decide.load.fallback-timeout:PT0.3S}") Duration fallbackTimeout
+  ) {
+    this.preferenceCache = preferenceCache;
+    this.catalogCache = catalogCache;
+    this.decisionRepository = decisionRepository;
+    this.preferenceTimeout = preferenceTimeout;
+    this.catalogTimeout = catalogTimeout;
+    this.fallbackTimeout = fallbackTimeout;
+
+    this.fallbacksServed = Map.of(
+        PreferenceTimeoutException.SOURCE, fallbackCounter(meterRegistry, PreferenceTimeoutException.SOURCE, "served"),
+        CatalogTimeoutException.SOURCE, fallbackCounter(meterRegistry, CatalogTimeoutException.SOURCE, "served")
+    );
+    this.fallbacksUnavailable = Map.of(
+        PreferenceTimeoutException.SOURCE, fallbackCounter(meterRegistry, PreferenceTimeoutException.SOURCE, "unavailable"),
+        CatalogTimeoutException.SOURCE, fallbackCounter(meterRegistry, CatalogTimeoutException.SOURCE, "unavailable")
+    );
+  }
+
+  /** The user's preference snapshot; fails with {@link PreferenceTimeoutException} when it cannot be read in time. */
+  public Mono<UserPreferenceCache.Snapshot> preference(String userId) {
+    return detached(preferenceCache.snapshot(userId))
+        .timeout(preferenceTimeout)
+        .onErrorMap(TimeoutException.class, e -> new PreferenceTimeoutException());
+  }
+
+  /** The user's catalog; fails with {@link CatalogTimeoutException} when it cannot be read in time. */
+  public Mono<ItemCatalog> catalog(String userId, Set<String> excludeTags) {
+    return detached(catalogCache.catalog(userId, excludeTags))
+        .timeout(catalogTimeout)
+        .onErrorMap(TimeoutException.class, e -> new CatalogTimeoutException());
+  }
+
+  /**
+   * The user's preference snapshot read from Mongo, however long it takes; for background work that
+   * must neither degrade nor see a cached copy another instance has since written.
+   */
+  public Mono<UserPreferenceCache.Snapshot> preferenceFromSource(String userId) {
+    return preferenceCache.loadSnapshot(userId);
+  }
+
+  /** The user's catalog read from Mongo, however long it takes; see {@link #preferenceFromSource}. */
+  public Mono<ItemCatalog> catalogFromSource(String userId, Set<String> excludeTags) {
+    return catalogCache.load(userId, excludeTags);
+  }
+
+  /**
+   * Whether {@link #catalog(String, Set)} depends on {@code excludeTags}, i.e. they are pushed to
+   * Mongo instead of filtered in memory.
+   */
+  public boolean catalogFiltersExcludedTags() {
+    return !catalogCache.isEnabled();
+  }
+
+  /**
+   * The user's most recent decision, to re-serve when {@code cause}'s source is unavailable; empty when
+   * there is none or it cannot be read in time either.
+   */
+  public Mono<Decision> latestDecision(String userId, LoadTimeoutException cause) {
+    return decisionRepository.findFirstByUserIdOrderByCreatedAtDesc(userId)
+        .timeout(fallbackTimeout)
+        .onErrorResume(TimeoutException.class, e -> Mono.empty())
+        .doOnNext(d -> fallbacksServed.get(cause.source()).increment())
+        .switchIfEmpty(Mono.fromRunnable(fallbacksUnavailable.get(cause.source())::increment));
+  }
+
+  private static <T> Mono<T> detached(Mono<T> source) {
+    return Mono.defer(() -> Mono.fromFuture(source.toFuture(), true));
+  }
+
+  private static Counter fallbackCounter(MeterRegistry meterRegistry, String source, String result) {
+    return Counter.builder("mealpilot.decide.fallback")
+        .tag("source", source)
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  /** A read decide depends on did not complete within its deadline. */
+  public abstract static class LoadTimeoutException extends ResponseStatusException {
+
+    private final String source;
+
+    LoadTimeoutException(String source, String reason) {
+      super(HttpStatus.SERVICE_UNAVAILABLE, reason);
+      this.source = source;
+    }
+
+    /** {@code preference} or {@code catalog}. */
+    public String source() {
+      return source;
+    }
+  }
+
+  /** The catalog did not load within {@code catalog-timeout}. */
+  public static final class CatalogTimeoutException extends LoadTimeoutException {
+    static final String SOURCE = "catalog";
+
+    CatalogTimeoutException() {
+      super(SOURCE, "items are taking too long to load");
+    }
+  }
+
+  /** The preferences did not load within {@code preference-timeout}. */
+  public static final class PreferenceTimeoutException extends LoadTimeoutException {
+    static final String SOURCE = "preference";
+
+    PreferenceTimeoutException() {
+      super(SOURCE, "preferences are taking too long to load");
+    }
+  }
+}
@@ -5,15 +5,23 @@ import java.time.Instant;
 import java.util.List;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.IndexDirection;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document("decisions")
-@CompoundIndex(
-    name = "decisions_user_createdAt_id_desc",
-    def = "{ 'userId': 1, 'createdAt': -1, '_id': -1 }"
-)
+@CompoundIndexes({
+    @CompoundIndex(
+        name = "decisions_user_createdAt_id_desc",
+        def = "{ 'userId': 1, 'createdAt': -1, '_id': -1 }"
+    ),
+    // Incremental jobs scan feedback by status and time since their watermark.
+    @CompoundIndex(
+        name = "decisions_feedback_status_createdAt",
+        def = "{ 'feedback.status': 1, 'feedback.createdAt': 1 }"
+    )
+})
 @Schema(name = "Decision", description = "A persisted decision result (input, ranked candidates, optional feedback, and reproducibility metadata)")
 public record Decision(
     @Schema(description = "Decision id", example = "678b2e7e2ef2f44a3c9d8a1b")
@@ -49,6 +57,22 @@ public record Decision(
         this(id, userId, createdAt, input, candidates, feedback, null);
     }
 
+    /** This decision with each candidate's {@code why} rendered from its reason codes. */
+    public Decision withRenderedWhy() {
+        if (candidates == null || candidates.stream().allMatch(c -> c.why() != null || c.reasons() == null)) {
+            return this;
+        }
+        return new Decision(
+            id,
+            userId,
+            createdAt,
+            input,
+            candidates.stream().map(CandidateSnapshot::withRenderedWhy).toList(),
+            feedback,
+            meta
+        );
+    }
+
   @Schema(name = "DecideInput", description = "Input payload captured at decision time")
   public record DecideInput(
       @Schema(description = "Budget", example = "250")
@@ -72,11 +96,24 @@ public record Decision(
             ItemSnapshot item,
             @Schema(example = "4.25") double score,
             @Schema(example = "0.74") double confidence,
-            @Schema(description = "Short explanation bullets", example = "[\"Matches your usual preferences\"]")
+            @Schema(description = "Short explanation bullets (stored for schemaVersion <= 3, rendered from reasons after)", example = "[\"Matches your usual preferences\"]")
             List<String> why,
             List<DeepLink> deepLinks,
-            ScoreBreakdown breakdown
+            ScoreBreakdown breakdown,
+            @Schema(description = "Explanation codes (schemaVersion >= 4)")
+            List<Reason> reasons
         ) {
+        public CandidateSnapshot(
+                ItemSnapshot item,
+                double score,
+                double confidence,
+                List<String> why,
+                List<DeepLink> deepLinks,
+                ScoreBreakdown breakdown
+        ) {
+            this(item, score, confidence, why, deepLinks, breakdown, null);
+        }
+
         public CandidateSnapshot(
                 ItemSnapshot item,
                 double score,
@@ -95,6 +132,27 @@ public record Decision(
         ) {
             this(item, score, confidence, why, deepLinks, null);
         }
+
+        CandidateSnapshot withRenderedWhy() {
+            if (why != null || reasons == null) {
+                return this;
+            }
+            return new CandidateSnapshot(item, score, confidence, Reason.render(reasons), deepLinks, breakdown, reasons);
+        }
+    }
+
+    @Schema(name = "Reason", description = "One explanation entry: a code and the tag or budget it refers to")
+    public record Reason(
+        @Schema(example = "MUST_TAG") ReasonCode code,
+        @Schema(example = "spicy") String arg
+    ) {
+        public String render() {
+            return code.render(arg);
+        }
+
+        static List<String> render(List<Reason> reasons) {
+            return reasons.stream().map(Reason::render).toList();
+        }
     }
 
     @Schema(name = "DeepLink", description = "Deep link for a candidate on a delivery platform")
@@ -113,6 +171,7 @@ public record Decision(
       double restaurantAffinity,
       double tagAffinity,
       double priceSensitivity,
+      double coAcceptAffinity,
       double total
   ) {}
 
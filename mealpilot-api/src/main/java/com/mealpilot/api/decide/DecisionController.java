@@ -37,20 +37,26 @@ import reactor.core.publisher.Mono;
 public class DecisionController {
 
   private final DecisionRepository decisionRepository;
-  private final UserPreferenceRepository userPreferenceRepository;
+  private final UserPreferenceCache preferenceCache;
   private final DecisionHistoryService decisionHistoryService;
   private final DecisionEventRepository decisionEventRepository;
+  private final DecisionWriteBehind decisionWriter;
+  private final ReadyDecisions readyDecisions;
 
   public DecisionController(
       DecisionRepository decisionRepository,
-      UserPreferenceRepository userPreferenceRepository,
+      UserPreferenceCache preferenceCache,
       DecisionHistoryService decisionHistoryService,
-      DecisionEventRepository decisionEventRepository
+      DecisionEventRepository decisionEventRepository,
+      DecisionWriteBehind decisionWriter,
+      ReadyDecisions readyDecisions
   ) {
     this.decisionRepository = decisionRepository;
-    this.userPreferenceRepository = userPreferenceRepository;
+    this.preferenceCache = preferenceCache;
     this.decisionHistoryService = decisionHistoryService;
     this.decisionEventRepository = decisionEventRepository;
+    this.decisionWriter = decisionWriter;
+    this.readyDecisions = readyDecisions;
   }
 
   @GetMapping
@@ -88,7 +94,7 @@ public class DecisionController {
           if (page.nextCursor() != null && !page.nextCursor().isBlank()) {
             builder.header("X-Next-Cursor", page.nextCursor());
           }
-          return builder.body(page.items());
+          return builder.body(page.items().stream().map(Decision::withRenderedWhy).toList());
         });
   }
 
@@ -114,11 +120,11 @@ public class DecisionController {
               "      \"score\": 4.25,\n" +
               "      \"confidence\": 0.74,\n" +
               "      \"why\": [\"Matches your usual preferences\"],\n" +
-              "      \"breakdown\": {\"base\": 1.0, \"budgetFit\": 0.6, \"mustTagMatch\": 1.5, \"avoidTagPenalty\": 0.0, \"queryMatch\": 0.0, \"restaurantAffinity\": 0.4, \"tagAffinity\": 0.5, \"priceSensitivity\": -0.1, \"total\": 4.25}\n" +
+              "      \"breakdown\": {\"base\": 1.0, \"budgetFit\": 0.6, \"mustTagMatch\": 1.5, \"avoidTagPenalty\": 0.0, \"queryMatch\": 0.0, \"restaurantAffinity\": 0.4, \"tagAffinity\": 0.5, \"priceSensitivity\": -0.1, \"coAcceptAffinity\": 0.0, \"total\": 4.25}\n" +
               "    }\n" +
               "  ],\n" +
               "  \"feedback\": {\"status\": \"REJECT\", \"reasonCode\": \"TOO_PRICEY\", \"reason\": {\"category\": \"PRICE\", \"code\": \"TOO_PRICEY\", \"tags\": []}, \"comment\": \"Too expensive today\", \"rating\": 2, \"createdAt\": \"2026-01-17T12:05:00Z\"},\n" +
-              "  \"meta\": {\"schemaVersion\": 2, \"algorithm\": \"heuristic-score\", \"algorithmVersion\": \"1\", \"inputHash\": \"...\", \"itemsHash\": \"...\", \"preferenceHash\": \"...\"}\n" +
+              "  \"meta\": {\"schemaVersion\": 2, \"algorithm\": \"heuristic-score\", \"algorithmVersion\": \"2\", \"inputHash\": \"...\", \"itemsHash\": \"...\", \"preferenceHash\": \"...\"}\n" +
               "}"
           )
         )
@@ -128,13 +134,13 @@ public class DecisionController {
       @AuthenticationPrincipal Jwt jwt,
       @PathVariable String id
   ) {
-    return decisionRepository.findById(id)
+    return findDecision(id)
         .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "decision not found")))
         .flatMap(existing -> {
           if (!existing.userId().equals(jwt.getSubject())) {
             return Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "not your decision"));
           }
-          return Mono.just(existing);
+          return Mono.just(existing.withRenderedWhy());
         });
   }
 
@@ -200,7 +206,7 @@ public class DecisionController {
       @PathVariable String id,
       @Valid @RequestBody FeedbackRequest body
   ) {
-    return decisionRepository.findById(id)
+    return findDecision(id)
         .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "decision not found")))
         .flatMap(existing -> {
           if (!existing.userId().equals(jwt.getSubject())) {
@@ -241,10 +247,10 @@ public class DecisionController {
           );
 
             return decisionRepository.save(updated)
-              .flatMap(saved -> userPreferenceRepository.findById(saved.userId())
-                .defaultIfEmpty(UserPreference.empty(saved.userId()))
+              .flatMap(saved -> preferenceCache.load(saved.userId())
                 .map(pref -> pref.applyDecisionFeedback(saved, feedback))
-                .flatMap(userPreferenceRepository::save)
+                .flatMap(preferenceCache::save)
+                .flatMap(pref -> readyDecisions.invalidate(pref.userId()))
                 .thenReturn(saved)
               )
               .flatMap(saved -> {
@@ -259,7 +265,7 @@ public class DecisionController {
                     Instant.now()
                 );
 
-                return decisionEventRepository.save(event).thenReturn(saved);
+                return decisionEventRepository.save(event).thenReturn(saved.withRenderedWhy());
               });
         });
   }
@@ -318,7 +324,7 @@ public class DecisionController {
       return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "platform is required when action=CLICK_PLATFORM"));
     }
 
-    return decisionRepository.findById(id)
+    return findDecision(id)
         .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "decision not found")))
         .flatMap(existing -> {
           if (!existing.userId().equals(jwt.getSubject())) {
@@ -339,6 +345,12 @@ public class DecisionController {
         });
   }
 
+  private Mono<Decision> findDecision(String id) {
+    // Decisions accepted in write-behind mode may not have been flushed yet.
+    return decisionRepository.findById(id)
+        .switchIfEmpty(Mono.defer(() -> Mono.justOrEmpty(decisionWriter.pending(id))));
+  }
+
   private static DecisionEvent.Action actionFromFeedbackStatus(Decision.FeedbackStatus status) {
     if (status == null) {
       return null;
@@ -0,0 +1,81 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.common.BoundedCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Short-lived memo of decide responses, keyed on the reproducibility fingerprints of a decision.
+ *
+ * <p>The heuristic is deterministic: the same user, request ({@code inputHash}), catalog
+ * ({@code itemsHash}), preferences ({@code preferenceHash}) and co-acceptance table
+ * ({@code similarityVersion}, see {@link ItemSimilarity#version()}) always produce the same ranking. A
+ * repeat within {@code window} (client retry, double tap) gets the original response back, including
+ * its {@code decisionId}, without rescoring or writing another decision. Identical requests that
+ * arrive while the first is still running share its result. Any item or preference write changes a
+ * fingerprint, so it naturally misses.
+ */
+@Component
+public class DecisionMemo {
+
+  record Key(String userId, String inputHash, String itemsHash, String preferenceHash, String similarityVersion) {}
+
+  private final boolean enabled;
+  private final BoundedCache<Key, DecideController.DecideResponse> recent;
+  private final Map<Key, Mono<DecideController.DecideResponse>> inFlight = new ConcurrentHashMap<>();
+
+  public DecisionMemo(
+      MeterRegistry meterRegistry,
+      @Value("${mealpilot.decide.memo.enabled:true}") boolean enabled,
+      @Value("${mealpilot.decide.memo.max-entries:10000}") long maxEntries,
+      @Value("${mealpilot.decide.memo.window:PT30S}") Duration window
+  ) {
+    this.enabled = enabled;
+    this.recent = new BoundedCache<>("decision_memo", maxEntries, window, response -> 1L, meterRegistry);
+  }
+
+  /**
+   * The memoized response for {@code key}, or the result of {@code decide}, which is remembered when
+   * it produced a persisted decision.
+   */
+  Mono<DecideController.DecideResponse> computeIfAbsent(
+      Key key,
+      Supplier<Mono<DecideController.DecideResponse>> decide
+  ) {
+    if (!enabled) {
+      return decide.get();
+    }
+
+    return Mono.defer(() -> {
+      DecideController.DecideResponse cached = recent.get(key);
+      if (cached != null) {
+        return Mono.just(cached);
+      }
+
+      return inFlight.computeIfAbsent(key, k -> decide.get()
+          .doOnNext(response -> remember(k, response))
+          .doFinally(signal -> inFlight.remove(k))
+          .cache());
+    });
+  }
+
+  DecideController.DecideResponse get(Key key) {
+    return enabled ? recent.get(key) : null;
+  }
+
+  void remember(Key key, DecideController.DecideResponse response) {
+    if (enabled && key != null && response.decisionId() != null) {
+      recent.put(key, response);
+    }
+  }
+
+  public void clear() {
+    recent.clear();
+  }
+}
@@ -0,0 +1,94 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.common.BoundedCache;
+import com.mealpilot.api.common.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decide previews: rankings that were returned without persisting a decision.
+ *
+ * <p>A preview is kept for {@code ttl} under its fingerprint, a hash of the decision's
+ * reproducibility fingerprints ({@link DecisionMemo.Key}), so the client can promote it to a stored
+ * decision once the user acts on it. {@code sample-rate} is the share of previews that are persisted
+ * straight away anyway.
+ *
+ * <p>Publishes {@code mealpilot.decide.previews}, tagged {@code result=held|sampled|promoted}.
+ */
+@Component
+public class DecisionPreviews {
+
+  /**
+   * A held preview. {@code decision} is what promotion persists; it is {@code null} once promoted, and
+   * {@code response} then carries the decision id.
+   */
+  record Preview(DecisionMemo.Key key, DecideController.DecideResponse response, Decision decision) {}
+
+  private final double sampleRate;
+  private final BoundedCache<String, Preview> previews;
+
+  private final Counter held;
+  private final Counter sampled;
+  private final Counter promoted;
+
+  public DecisionPreviews(
+      MeterRegistry meterRegistry,
+      @Value("${mealpilot.decide.preview.sample-rate:0.0}") double sampleRate,
+      @Value("${mealpilot.decide.preview.max-entries:10000}") long maxEntries,
+      @Value("${mealpilot.decide.preview.ttl:PT10M}") Duration ttl
+  ) {
+    this.sampleRate = Math.max(0.0, Math.min(1.0, sampleRate));
+    this.previews = new BoundedCache<>("decision_previews", maxEntries, ttl, preview -> 1L, meterRegistry);
+
+    this.held = counter(meterRegistry, "held");
+    this.sampled = counter(meterRegistry, "sampled");
+    this.promoted = counter(meterRegistry, "promoted");
+  }
+
+  /** Whether this preview should be persisted like a regular decision. */
+  boolean sample() {
+    boolean persist = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    if (persist) {
+      sampled.increment();
+    }
+    return persist;
+  }
+
+  /** Holds {@code decision} for later promotion and returns its fingerprint. */
+  String hold(DecisionMemo.Key key, DecideController.DecideResponse response, Decision decision) {
+    String fingerprint = fingerprint(key);
+    previews.put(cacheKey(key.userId(), fingerprint), new Preview(key, response, decision));
+    held.increment();
+    return fingerprint;
+  }
+
+  /** The user's preview with {@code fingerprint}, or {@code null} when unknown or expired. */
+  Preview get(String userId, String fingerprint) {
+    return previews.get(cacheKey(userId, fingerprint));
+  }
+
+  /** Records that the preview was persisted as {@code response}, so promoting it again is a no-op. */
+  void promoted(String userId, String fingerprint, DecideController.DecideResponse response) {
+    previews.updateIfPresent(cacheKey(userId, fingerprint), preview -> preview.decision() == null
+        ? preview
+        : new Preview(preview.key(), response, null));
+    promoted.increment();
+  }
+
+  static String fingerprint(DecisionMemo.Key key) {
+    return Hashing.sha256Hex(key.userId() + "|" + key.inputHash() + "|" + key.itemsHash() + "|" + key.preferenceHash()
+        + "|" + key.similarityVersion());
+  }
+
+  private static String cacheKey(String userId, String fingerprint) {
+    return userId + ":" + fingerprint;
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("mealpilot.decide.previews").tag("result", result).register(meterRegistry);
+  }
+}
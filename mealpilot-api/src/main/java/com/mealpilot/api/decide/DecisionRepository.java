@@ -1,10 +1,13 @@
 package com.mealpilot.api.decide;
 
-import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-public interface DecisionRepository extends ReactiveCrudRepository<Decision, String> {
+public interface DecisionRepository extends ReactiveMongoRepository<Decision, String> {
   Flux<Decision> findAllByUserId(String userId);
 
   Flux<Decision> findAllByUserIdOrderByCreatedAtDesc(String userId);
+
+  Mono<Decision> findFirstByUserIdOrderByCreatedAtDesc(String userId);
 }
@@ -0,0 +1,260 @@
+package com.mealpilot.api.decide;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+/**
+ * Persists decisions either synchronously (default) or write-behind.
+ *
+ * <p>In write-behind mode the decision id is generated up front and the caller gets the decision
+ * back immediately; documents are queued and flushed with batched inserts when {@code batch-size}
+ * decisions are waiting or every {@code flush-interval}. A full queue is handled by the overflow
+ * policy: {@code BLOCK} waits up to {@code block-timeout} for space, {@code DROP} discards the
+ * decision and emits it without an id (so nothing refers to a decision that was never stored), and
+ * {@code SYNC} saves it inline. Decisions still in the queue are visible through
+ * {@link #pending(String)} so detail and feedback endpoints can find them before they are flushed.
+ * On shutdown the batch being written is awaited and the rest of the queue drained.
+ */
+@Component
+public class DecisionWriteBehind implements DisposableBean {
+
+  private static final Logger log = LoggerFactory.getLogger(DecisionWriteBehind.class);
+
+  enum OverflowPolicy {
+    BLOCK,
+    DROP,
+    SYNC
+  }
+
+  private final DecisionRepository decisionRepository;
+  private final boolean enabled;
+  private final int batchSize;
+  private final int maxRetries;
+  private final Duration blockTimeout;
+  private final OverflowPolicy overflowPolicy;
+
+  private final BlockingQueue<Decision> queue;
+  private final Map<String, Decision> pending = new ConcurrentHashMap<>();
+  private final AtomicBoolean flushing = new AtomicBoolean();
+  private volatile Mono<Void> inFlight = Mono.empty();
+  private final Disposable ticker;
+
+  private final Timer flushTimer;
+  private final Counter overflowCounter;
+  private final Counter failedCounter;
+
+  public DecisionWriteBehind(
+      DecisionRepository decisionRepository,
+      MeterRegistry meterRegistry,
+      @Value("${mealpilot.decide.write-behind.enabled:false}") boolean enabled,
+      @Value("${mealpilot.decide.write-behind.queue-capacity:10000}") int queueCapacity,
+      @Value("${mealpilot.decide.write-behind.batch-size:200}") int batchSize,
+      @Value("${mealpilot.decide.write-behind.flush-interval:PT0.5S}") Duration flushInterval,
+      @Value("${mealpilot.decide.write-behind.max-retries:3}") int maxRetries,
+      @Value("${mealpilot.decide.write-behind.overflow:SYNC}") String overflow,
+      @Value("${mealpilot.decide.write-behind.block-timeout:PT0.2S}") Duration blockTimeout
+  ) {
+    this.decisionRepository = decisionRepository;
+    this.enabled = enabled;
+    this.batchSize = Math.max(1, batchSize);
+    this.maxRetries = Math.max(0, maxRetries);
+    this.blockTimeout = blockTimeout;
+    this.overflowPolicy = OverflowPolicy.valueOf(overflow.trim().toUpperCase(Locale.ROOT));
+    this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+
+    Gauge.builder("mealpilot.decisions.write_behind.queue", queue, BlockingQueue::size).register(meterRegistry);
+    this.flushTimer = Timer.builder("mealpilot.decisions.write_behind.flush").register(meterRegistry);
+    this.overflowCounter = Counter.builder("mealpilot.decisions.write_behind.overflow")
+        .tag("policy", overflowPolicy.name())
+        .register(meterRegistry);
+    this.failedCounter = Counter.builder("mealpilot.decisions.write_behind.failed").register(meterRegistry);
+
+    this.ticker = enabled
+        ? Flux.interval(flushInterval, flushInterval).subscribe(tick -> flush())
+        : null;
+  }
+
+  /**
+   * Persists {@code decision} according to the configured mode and emits it with its id assigned.
+   */
+  public Mono<Decision> persist(Decision decision) {
+    if (!enabled) {
+      return decisionRepository.save(decision);
+    }
+
+    Decision withId = withAssignedId(decision);
+
+    pending.put(withId.id(), withId);
+    if (queue.offer(withId)) {
+      flushIfFull();
+      return Mono.just(withId);
+    }
+
+    overflowCounter.increment();
+    return switch (overflowPolicy) {
+      case DROP -> {
+        pending.remove(withId.id());
+        log.warn("Write-behind queue full; dropping decision {}", withId.id());
+        yield Mono.just(withoutId(decision));
+      }
+      case SYNC -> saveInline(withId);
+      case BLOCK -> Mono.fromCallable(() -> queue.offer(withId, blockTimeout.toMillis(), TimeUnit.MILLISECONDS))
+          .subscribeOn(Schedulers.boundedElastic())
+          .flatMap(queued -> {
+            if (queued) {
+              flushIfFull();
+              return Mono.just(withId);
+            }
+            return saveInline(withId);
+          });
+    };
+  }
+
+  /**
+   * Persists several decisions at once and emits them, with ids assigned, in the given order. When
+   * write-behind is off this is a single bulk insert.
+   */
+  public Mono<List<Decision>> persistAll(List<Decision> decisions) {
+    if (!enabled) {
+      // Ids are assigned here so the result order never depends on what the driver emits.
+      List<Decision> withIds = decisions.stream().map(DecisionWriteBehind::withAssignedId).toList();
+      return decisionRepository.insert(withIds).then(Mono.just(withIds));
+    }
+    return Flux.fromIterable(decisions)
+        .concatMap(this::persist)
+        .collectList();
+  }
+
+  /**
+   * A decision that has been accepted but not yet flushed, or {@code null}.
+   */
+  public Decision pending(String id) {
+    return id == null ? null : pending.get(id);
+  }
+
+  private static Decision withAssignedId(Decision decision) {
+    if (decision.id() != null) {
+      return decision;
+    }
+    return new Decision(
+        new ObjectId().toHexString(),
+        decision.userId(),
+        decision.createdAt(),
+        decision.input(),
+        decision.candidates(),
+        decision.feedback(),
+        decision.meta()
+    );
+  }
+
+  private static Decision withoutId(Decision decision) {
+    return new Decision(
+        null,
+        decision.userId(),
+        decision.createdAt(),
+        decision.input(),
+        decision.candidates(),
+        decision.feedback(),
+        decision.meta()
+    );
+  }
+
+  private Mono<Decision> saveInline(Decision decision) {
+    return decisionRepository.save(decision)
+        .doFinally(signal -> pending.remove(decision.id()));
+  }
+
+  private void flushIfFull() {
+    if (queue.size() >= batchSize) {
+      flush();
+    }
+  }
+
+  private void flush() {
+    if (!flushing.compareAndSet(false, true)) {
+      return;
+    }
+
+    List<Decision> batch = new ArrayList<>(batchSize);
+    queue.drainTo(batch, batchSize);
+    if (batch.isEmpty()) {
+      flushing.set(false);
+      return;
+    }
+
+    Timer.Sample sample = Timer.start();
+    Mono<Void> write = writeBatch(batch)
+        .doFinally(signal -> {
+          sample.stop(flushTimer);
+          for (Decision d : batch) {
+            pending.remove(d.id());
+          }
+          flushing.set(false);
+          flushIfFull();
+        })
+        .cache();
+    inFlight = write;
+    write.subscribe();
+  }
+
+  private Mono<Void> writeBatch(List<Decision> batch) {
+    return decisionRepository.insert(batch)
+        .then()
+        .retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(100))
+            .filter(e -> !(e instanceof DuplicateKeyException)))
+        // A duplicate (e.g. feedback already upserted the decision) or exhausted retries:
+        // fall back to one insert per document so a single bad document cannot sink the batch.
+        .onErrorResume(e -> Flux.fromIterable(batch)
+            .concatMap(d -> decisionRepository.insert(d)
+                .then()
+                .onErrorResume(DuplicateKeyException.class, dup -> Mono.empty())
+                .onErrorResume(err -> {
+                  failedCounter.increment();
+                  log.error("Write-behind insert failed for decision {}", d.id(), err);
+                  return Mono.empty();
+                }))
+            .then());
+  }
+
+  @Override
+  public void destroy() {
+    if (ticker != null) {
+      ticker.dispose();
+    }
+    // Wait for the batch being written, then hold the flush flag so no other flush starts while the
+    // rest is drained.
+    while (!flushing.compareAndSet(false, true)) {
+      inFlight.block(Duration.ofSeconds(30));
+      Thread.onSpinWait();
+    }
+    while (!queue.isEmpty()) {
+      List<Decision> batch = new ArrayList<>(batchSize);
+      queue.drainTo(batch, batchSize);
+      writeBatch(batch).block(Duration.ofSeconds(30));
+    }
+  }
+}
@@ -0,0 +1,202 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.items.Item;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/decide/group")
+@Tag(name = "Decide", description = "Rank candidate items and persist a decision record")
+public class GroupDecideController {
+
+  private static final int MAX_OTHER_MEMBERS = 9;
+  private static final int DEFAULT_LIMIT = 3;
+  private static final int MAX_LIMIT = 50;
+
+  private final DecideSources sources;
+  private final DecideLoader loader;
+  private final RankingExecutor rankingExecutor;
+
+  public GroupDecideController(DecideSources sources, DecideLoader loader, RankingExecutor rankingExecutor) {
+    this.sources = sources;
+    this.loader = loader;
+    this.rankingExecutor = rankingExecutor;
+  }
+
+  public record GroupDecideRequest(
+      @NotEmpty(message = "members must not be empty")
+      @Size(max = MAX_OTHER_MEMBERS, message = "members must have <= " + MAX_OTHER_MEMBERS + " entries")
+      @Schema(description = "User ids to decide with; the caller is always included. Each must have shared their preferences with the caller.", example = "[\"user_456\"]")
+      List<@NotBlank(message = "member must not be blank") @Size(max = 128, message = "member must be <= 128 characters") String> members,
+
+      @Schema(description = "mean (default), least_misery or approval", example = "least_misery")
+      String strategy,
+
+      @Min(value = 0, message = "budget must be >= 0")
+      @Max(value = 100000, message = "budget must be <= 100000")
+      @Schema(description = "Optional budget bound (combined with each member's budgetMax)", example = "250")
+      Integer budget,
+
+      @Size(max = 20, message = "mustHaveTags must have <= 20 entries")
+      @Schema(description = "Tags that must be present on candidate items", example = "[\"veg\"]")
+      List<@Size(max = 32, message = "tag must be <= 32 characters") String> mustHaveTags,
+
+      @Size(max = 20, message = "avoidTags must have <= 20 entries")
+      @Schema(description = "Tags to avoid (soft penalty)", example = "[\"spicy\"]")
+      List<@Size(max = 32, message = "tag must be <= 32 characters") String> avoidTags,
+
+      @Size(max = 200, message = "query must be <= 200 characters")
+      @Schema(description = "Optional free-text query to bias ranking", example = "biryani")
+      String query,
+
+      @Min(value = 1, message = "limit must be >= 1")
+      @Max(value = MAX_LIMIT, message = "limit must be <= " + MAX_LIMIT)
+      @Schema(description = "Number of candidates to return (default 3)", example = "3")
+      Integer limit
+  ) {}
+
+  public record GroupCandidate(
+      DecideController.ItemSummary item,
+      @Schema(description = "Group score under the chosen strategy (approval: number of members it suits)", example = "2.4")
+      double score,
+      @Schema(description = "Each member's own score for the item, by user id")
+      Map<String, Double> memberScores,
+      List<Decision.DeepLink> deepLinks
+  ) {}
+
+  public record GroupDecideResponse(
+      @Schema(description = "Authenticated user id", example = "user_123")
+      String userId,
+      @Schema(description = "Everyone decided for, caller first", example = "[\"user_123\",\"user_456\"]")
+      List<String> members,
+      @Schema(description = "Aggregation strategy applied", example = "least_misery")
+      String strategy,
+      @Schema(description = "ISO-8601 timestamp", example = "2026-01-17T12:00:00Z")
+      String time,
+      int limit,
+      List<GroupCandidate> candidates,
+      String message
+  ) {}
+
+  @PostMapping
+  @Operation(
+      summary = "Rank items for a group",
+      description = "Pools the saved items of the caller and every member, drops items carrying any member's dietary "
+          + "restriction or allergen, scores the rest once per member and aggregates the scores (mean, least_misery or "
+          + "approval). Each member must list the caller in their profile's sharedWith. Not persisted."
+  )
+  public Mono<GroupDecideResponse> decide(
+      @AuthenticationPrincipal Jwt jwt,
+      @Valid @RequestBody GroupDecideRequest body
+  ) {
+    String userId = jwt.getSubject();
+    GroupDecider.Strategy strategy = GroupDecider.Strategy.parse(body.strategy());
+    if (strategy == null) {
+      return Mono.error(new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "strategy must be one of mean, least_misery, approval"));
+    }
+    int limit = body.limit() == null ? DEFAULT_LIMIT : body.limit();
+
+    Set<String> unique = new LinkedHashSet<>();
+    unique.add(userId);
+    body.members().forEach(member -> unique.add(member.trim()));
+    List<String> members = List.copyOf(unique);
+
+    DecideController.DecideRequest request = new DecideController.DecideRequest(
+        body.budget(), body.mustHaveTags(), body.avoidTags(), body.query(), limit);
+
+    return Flux.fromIterable(members)
+        .flatMapSequential(member -> load(member, userId, request), members.size())
+        .collectList()
+        .flatMap(loaded -> {
+          List<ScoringPlan> lanes = new ArrayList<>(loaded.size());
+          // Keyed by id: members topped up from the cold-start pool share its items.
+          Map<String, Item> pooled = new LinkedHashMap<>();
+          for (DecideLoader.Inputs member : loaded) {
+            lanes.add(member.plan());
+            member.catalog().items().forEach(item -> pooled.putIfAbsent(item.id(), item));
+          }
+          List<Item> pool = List.copyOf(pooled.values());
+          if (pool.isEmpty()) {
+            return Mono.just(response(userId, members, strategy, limit, List.of(),
+                "No saved items yet for anyone in the group."));
+          }
+          return rankingExecutor.offload(() -> GroupDecider.rank(lanes, pool, strategy, limit))
+              .map(ranked -> response(userId, members, strategy, limit, candidates(members, ranked),
+                  ranked.isEmpty() ? "No saved items fit everyone's dietary restrictions and allergens." : null));
+        });
+  }
+
+  /**
+   * Loads a member's inputs as decide would for them; forbidden unless they shared their preferences
+   * with the caller, which is checked before their catalog is read.
+   */
+  private Mono<DecideLoader.Inputs> load(String member, String userId, DecideController.DecideRequest request) {
+    return sources.preference(member)
+        .filter(preference -> member.equals(userId) || preference.preference().effectiveProfile().isSharedWith(userId))
+        .switchIfEmpty(Mono.error(() -> new ResponseStatusException(
+            HttpStatus.FORBIDDEN, "user " + member + " has not shared their preferences with you")))
+        .flatMap(preference -> loader.load(member, request, preference));
+  }
+
+  private static List<GroupCandidate> candidates(List<String> members, List<GroupDecider.Ranked> ranked) {
+    List<GroupCandidate> out = new ArrayList<>(ranked.size());
+    for (GroupDecider.Ranked r : ranked) {
+      Map<String, Double> memberScores = new LinkedHashMap<>();
+      for (int lane = 0; lane < members.size(); lane++) {
+        memberScores.put(members.get(lane), r.memberScores()[lane]);
+      }
+      out.add(new GroupCandidate(
+          DecideController.toSummary(r.item()),
+          r.score(),
+          memberScores,
+          DecideController.deepLinksFor(r.item())
+      ));
+    }
+    return out;
+  }
+
+  private static GroupDecideResponse response(
+      String userId,
+      List<String> members,
+      GroupDecider.Strategy strategy,
+      int limit,
+      List<GroupCandidate> candidates,
+      String message
+  ) {
+    return new GroupDecideResponse(
+        userId,
+        members,
+        strategy.name().toLowerCase(Locale.ROOT),
+        Instant.now().toString(),
+        limit,
+        candidates,
+        message
+    );
+  }
+}
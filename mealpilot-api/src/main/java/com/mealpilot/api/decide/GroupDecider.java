@@ -0,0 +1,131 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.items.Item;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Ranks a pool of items for a group, one {@link ScoringPlan} (score lane) per member.
+ *
+ * <p>Each item is visited once: it is dropped if it carries any member's diet/allergen tag, otherwise
+ * every lane scores it into a scratch row and the row is folded into the group score by the
+ * {@link Strategy}. Only the best {@code limit} rows are kept, so the work is O(pool x members) and
+ * memory O(limit x members). Items are deduplicated by id, as members can share a catalog entry.
+ */
+final class GroupDecider {
+
+  /**
+   * An item a member scores at least this is acceptable to them: the base score of an item with no
+   * signals either way.
+   */
+  static final double APPROVAL_THRESHOLD = 1.0;
+
+  enum Strategy {
+    /** Average of the members' scores. Ties go to the better worst score. */
+    MEAN,
+    /** The lowest member score, so nobody is left with a meal they dislike. Ties go to the better mean. */
+    LEAST_MISERY,
+    /** How many members find the item acceptable ({@link #APPROVAL_THRESHOLD}). Ties go to the better mean. */
+    APPROVAL;
+
+    static Strategy parse(String value) {
+      if (value == null || value.isBlank()) {
+        return MEAN;
+      }
+      return switch (value.trim().toLowerCase(Locale.ROOT).replace('-', '_')) {
+        case "mean" -> MEAN;
+        case "least_misery" -> LEAST_MISERY;
+        case "approval" -> APPROVAL;
+        default -> null;
+      };
+    }
+  }
+
+  /** {@code memberScores} is in lane order. */
+  record Ranked(Item item, double score, double[] memberScores) {}
+
+  private record Entry(Item item, double score, double tieBreak, double[] memberScores) {}
+
+  /** Best first: group score, then the strategy's tie-break, then id. */
+  private static final Comparator<Entry> ORDER = Comparator
+      .comparingDouble(Entry::score).reversed()
+      .thenComparing(Comparator.comparingDouble(Entry::tieBreak).reversed())
+      .thenComparing(e -> e.item().id(), Comparator.nullsLast(Comparator.naturalOrder()));
+
+  private GroupDecider() {}
+
+  static List<Ranked> rank(List<ScoringPlan> lanes, List<Item> pool, Strategy strategy, int limit) {
+    int members = lanes.size();
+    int keep = Math.max(1, limit);
+    PriorityQueue<Entry> heap = new PriorityQueue<>(keep + 1, ORDER.reversed());
+    Set<String> seen = new HashSet<>();
+    double[] row = new double[members];
+
+    for (Item item : pool) {
+      if (item.id() != null && !seen.add(item.id())) {
+        continue;
+      }
+      if (hasAnyHardAvoidTag(lanes, item)) {
+        continue;
+      }
+
+      double sum = 0.0;
+      double min = Double.POSITIVE_INFINITY;
+      int approvals = 0;
+      for (int lane = 0; lane < members; lane++) {
+        double s = lanes.get(lane).score(item, -1).score();
+        row[lane] = s;
+        sum += s;
+        min = Math.min(min, s);
+        if (s >= APPROVAL_THRESHOLD) {
+          approvals++;
+        }
+      }
+      double mean = sum / members;
+
+      double score;
+      double tieBreak;
+      switch (strategy) {
+        case LEAST_MISERY -> {
+          score = min;
+          tieBreak = mean;
+        }
+        case APPROVAL -> {
+          score = approvals;
+          tieBreak = mean;
+        }
+        default -> {
+          score = mean;
+          tieBreak = min;
+        }
+      }
+
+      Entry entry = new Entry(item, score, tieBreak, row);
+      if (heap.size() == keep && ORDER.compare(entry, heap.peek()) >= 0) {
+        continue;
+      }
+      heap.add(new Entry(item, score, tieBreak, row.clone()));
+      if (heap.size() > keep) {
+        heap.poll();
+      }
+    }
+
+    List<Entry> best = new ArrayList<>(heap);
+    best.sort(ORDER);
+    return best.stream().map(e -> new Ranked(e.item(), e.score(), e.memberScores())).toList();
+  }
+
+  private static boolean hasAnyHardAvoidTag(List<ScoringPlan> lanes, Item item) {
+    for (int lane = 0, n = lanes.size(); lane < n; lane++) {
+      if (lanes.get(lane).hasHardAvoidTag(item)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,32 @@
+package com.mealpilot.api.decide;
+
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Co-acceptance counts and nearest neighbours of one item, keyed on {@link ItemSimilarity#key}.
+ *
+ * <p>{@code users} is the number of distinct users who accepted the item and {@code coAccepts} how many
+ * of them also accepted another item (the largest counts only). {@code neighbors} is derived from both:
+ * the items with the highest share of co-accepting users, best first, which is all decide reads.
+ * {@code countedUntil} is the end of the last feedback window counted in, so a window is never added
+ * twice.
+ */
+@Document("item_similarity")
+public record ItemNeighbors(
+    @Id String key,
+    String restaurantKey,
+    String name,
+    int users,
+    List<CoAccept> coAccepts,
+    List<Neighbor> neighbors,
+    Instant updatedAt,
+    Instant countedUntil
+) {
+
+  public record CoAccept(String key, String restaurantKey, String name, int users) {}
+
+  public record Neighbor(String key, String restaurantKey, String name, double similarity) {}
+}
@@ -0,0 +1,256 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.common.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Item-to-item similarity from co-acceptance across users: "people who liked X also liked Y".
+ *
+ * <p>Every {@code interval}, accepted decisions since the stored watermark are counted into the
+ * {@code item_similarity} table ({@link CoAcceptCounts}), only rewriting the items whose counts changed,
+ * and the watermark moves on once they are written. Only the instance holding the job's lease counts,
+ * for at most {@code lease} before another may take over. A run that fails leaves its window pending,
+ * and the next one counts that same window again; each item records the last window it counts
+ * ({@link ItemNeighbors#countedUntil()}), so the items already written are skipped and no accept is
+ * lost or counted twice. Feedback younger than a minute is left for the next run, as it may not be
+ * visible yet.
+ *
+ * <p>The neighbour lists are then loaded into an immutable in-memory table. Decide looks up the
+ * neighbours of the user's recently accepted items ({@link UserPreference#recentAccepts()}) once per
+ * request ({@link #affinityFor}), so scoring an item is a single map lookup. Each loaded table has a
+ * {@link #version()}, a hash of which items it holds and when they were last rewritten, so it is the
+ * same on every instance that loaded the same table. Anything that keeps a ranking records the version
+ * of its affinity and stops using it once the table moves on.
+ *
+ * <p>Publishes {@code mealpilot.decide.similarity}, tagged {@code result=served|updated|failed}.
+ */
+@Component
+public class ItemSimilarity implements DisposableBean {
+
+  private static final Logger log = LoggerFactory.getLogger(ItemSimilarity.class);
+
+  private static final Duration SETTLE = Duration.ofMinutes(1);
+
+  /**
+   * The similar items of a user's recent accepts, by restaurant key, then normalized name, and the
+   * version of the table they were looked up in.
+   */
+  static final class Affinity {
+
+    /** No affinity, whatever the table holds: similarity is disabled or the user accepted nothing. */
+    static final Affinity NONE = new Affinity(Map.of(), null);
+
+    private final Map<String, Map<String, Match>> byRestaurant;
+    private final String version;
+
+    private Affinity(Map<String, Map<String, Match>> byRestaurant, String version) {
+      this.byRestaurant = byRestaurant;
+      this.version = version;
+    }
+
+    /** The matches at the restaurant, by normalized item name; {@code null} when there are none. */
+    Map<String, Match> atRestaurant(String restaurantKey) {
+      return byRestaurant.get(restaurantKey);
+    }
+
+    /** The {@link ItemSimilarity#version()} this was looked up in; {@code null} for {@link #NONE}. */
+    String version() {
+      return version;
+    }
+  }
+
+  /** The best similarity to one of the user's accepted items, and that item's (normalized) name. */
+  record Match(double similarity, String anchorName) {}
+
+  private record Anchor(String name, List<ItemNeighbors.Neighbor> neighbors) {}
+
+  private record Table(String version, Map<String, Anchor> anchors) {}
+
+  private static final Table EMPTY = new Table(Hashing.sha256Hex(""), Map.of());
+
+  private final ItemSimilarityStore store;
+  private final String owner = UUID.randomUUID().toString();
+  private final boolean enabled;
+  private final Duration lease;
+  private final int history;
+  private final int maxCoAccepts;
+  private final int minCoAccepts;
+  private final int maxNeighbors;
+
+  private final AtomicReference<Table> table = new AtomicReference<>(EMPTY);
+  private final Disposable ticker;
+
+  private final Counter served;
+  private final Counter updated;
+  private final Counter failed;
+
+  public ItemSimilarity(
+      ItemSimilarityStore store,
+      MeterRegistry meterRegistry,
+      @Value("${mealpilot.decide.similarity.enabled:true}") boolean enabled,
+      @Value("${mealpilot.decide.similarity.interval:PT1H}") Duration interval,
+      @Value("${mealpilot.decide.similarity.lease:PT15M}") Duration lease,
+      @Value("${mealpilot.decide.similarity.history:50}") int history,
+      @Value("${mealpilot.decide.similarity.max-co-accepts:100}") int maxCoAccepts,
+      @Value("${mealpilot.decide.similarity.min-co-accepts:2}") int minCoAccepts,
+      @Value("${mealpilot.decide.similarity.neighbors:20}") int maxNeighbors
+  ) {
+    this.store = store;
+    this.enabled = enabled;
+    this.lease = lease;
+    this.history = Math.max(1, history);
+    this.maxCoAccepts = Math.max(1, maxCoAccepts);
+    this.minCoAccepts = Math.max(1, minCoAccepts);
+    this.maxNeighbors = Math.max(1, maxNeighbors);
+
+    this.served = counter(meterRegistry, "served");
+    this.updated = counter(meterRegistry, "updated");
+    this.failed = counter(meterRegistry, "failed");
+
+    this.ticker = enabled && !interval.isZero()
+        ? Flux.interval(Duration.ZERO, interval).concatMap(tick -> update()).subscribe()
+        : null;
+  }
+
+  /** The key of an item in the similarity table: normalized restaurant and name. */
+  static String key(String restaurantName, String name) {
+    return ScoringPlan.normalizeText(restaurantName) + "|" + ScoringPlan.normalizeText(name);
+  }
+
+  /** The version of the neighbour table decide currently reads. */
+  String version() {
+    return table.get().version();
+  }
+
+  /**
+   * Whether a ranking whose affinity was looked up in {@code version} still matches the table:
+   * always for {@link Affinity#NONE}'s {@code null}.
+   */
+  boolean isCurrent(String version) {
+    return version == null || version.equals(version());
+  }
+
+  /**
+   * Items similar to the ones {@code preference} recently accepted, best similarity per item. Without
+   * matches, the affinity is still tied to the table version unless the user accepted nothing.
+   */
+  Affinity affinityFor(UserPreference preference) {
+    if (!enabled || preference == null || preference.effectiveRecentAccepts().isEmpty()) {
+      return Affinity.NONE;
+    }
+
+    Table current = table.get();
+    Map<String, Map<String, Match>> byRestaurant = new HashMap<>();
+    for (String key : preference.effectiveRecentAccepts()) {
+      Anchor anchor = current.anchors().get(key);
+      if (anchor == null) {
+        continue;
+      }
+      for (ItemNeighbors.Neighbor neighbor : anchor.neighbors()) {
+        byRestaurant.computeIfAbsent(neighbor.restaurantKey(), k -> new HashMap<>())
+            .merge(neighbor.name(), new Match(neighbor.similarity(), anchor.name()),
+                (a, b) -> b.similarity() > a.similarity() ? b : a);
+      }
+    }
+    if (byRestaurant.isEmpty()) {
+      return new Affinity(Map.of(), current.version());
+    }
+    served.increment();
+    return new Affinity(byRestaurant, current.version());
+  }
+
+  /** Counts the accepts since the last run, then reloads the neighbour table. */
+  Mono<Void> update() {
+    return Mono.defer(this::count)
+        .then(Mono.defer(this::reload))
+        .onErrorResume(e -> {
+          failed.increment();
+          log.warn("Item similarity update failed", e);
+          return Mono.empty();
+        });
+  }
+
+  /** Emits how many items were rewritten; 0 when another instance holds the lease. */
+  Mono<Integer> count() {
+    return store.lease(owner, Instant.now().minus(SETTLE), lease)
+        .flatMap(window -> {
+          if (window.isEmpty()) {
+            return store.release(owner).thenReturn(0);
+          }
+          return count(window)
+              .flatMap(n -> store.complete(owner, window).thenReturn(n))
+              .onErrorResume(e -> store.release(owner).then(Mono.error(e)));
+        })
+        .defaultIfEmpty(0);
+  }
+
+  private Mono<Integer> count(ItemSimilarityStore.Window window) {
+    CoAcceptCounts counts = new CoAcceptCounts(history);
+    return store.acceptsBetween(window.from(), window.until())
+        .bufferUntilChanged(ItemSimilarityStore.Accept::userId)
+        .concatMap(accepts -> earlierAccepts(accepts.get(0).userId(), window.from())
+            .doOnNext(earlier -> counts.add(earlier, accepts)))
+        .then(Mono.defer(() -> store.find(counts.keys()).collectMap(ItemNeighbors::key)))
+        .map(existing -> counts.merge(
+            existing, window.until(), Instant.now(), maxCoAccepts, minCoAccepts, maxNeighbors))
+        .flatMap(items -> store.saveAll(items).thenReturn(items.size()))
+        .doOnNext(n -> updated.increment(n));
+  }
+
+  private Mono<List<ItemSimilarityStore.Accept>> earlierAccepts(String userId, Instant until) {
+    if (Instant.EPOCH.equals(until)) {
+      return Mono.just(List.of());
+    }
+    return store.acceptsOf(userId, until, history).collectList();
+  }
+
+  private Mono<Void> reload() {
+    return store.allNeighbors()
+        .collectList()
+        .doOnNext(loaded -> table.set(table(loaded)))
+        .then();
+  }
+
+  private static Table table(List<ItemNeighbors> loaded) {
+    if (loaded.isEmpty()) {
+      return EMPTY;
+    }
+    Map<String, Anchor> anchors = new HashMap<>();
+    List<String> rewrites = new ArrayList<>(loaded.size());
+    for (ItemNeighbors item : loaded) {
+      anchors.put(item.key(), new Anchor(item.name(), List.copyOf(item.neighbors())));
+      rewrites.add(item.key() + "@" + item.updatedAt());
+    }
+    Collections.sort(rewrites);
+    return new Table(Hashing.sha256Hex(String.join("\n", rewrites)), Map.copyOf(anchors));
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("mealpilot.decide.similarity").tag("result", result).register(meterRegistry);
+  }
+
+  @Override
+  public void destroy() {
+    if (ticker != null) {
+      ticker.dispose();
+    }
+  }
+}
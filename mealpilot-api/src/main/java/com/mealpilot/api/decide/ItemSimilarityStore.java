@@ -0,0 +1,55 @@
+package com.mealpilot.api.decide;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ItemSimilarityStore {
+
+  /** The top candidate of a decision {@code userId} accepted at {@code at}. */
+  record Accept(String userId, String restaurantName, String name, Instant at) {}
+
+  /** Feedback with {@code createdAt} in ({@code from}, {@code until}]: one run's share of the counting. */
+  record Window(Instant from, Instant until) {
+
+    boolean isEmpty() {
+      return !until.isAfter(from);
+    }
+  }
+
+  /**
+   * Takes the counting lease for {@code owner} for {@code leaseFor}, unless another owner holds one
+   * that has not expired, and emits the window to count. The window starts at the watermark
+   * ({@link Instant#EPOCH} before the first run) and ends where a run that did not finish left it, or
+   * else at {@code until}. Empty when another owner holds the lease.
+   */
+  Mono<Window> lease(String owner, Instant until, Duration leaseFor);
+
+  /**
+   * Moves the watermark to the end of {@code window} and releases the lease; emits {@code false} when
+   * {@code owner} no longer holds it, and the window stays pending for the next holder.
+   */
+  Mono<Boolean> complete(String owner, Window window);
+
+  /** Releases the lease if {@code owner} holds it, leaving the watermark and pending window as they are. */
+  Mono<Void> release(String owner);
+
+  /** Accepted decisions with feedback in ({@code after}, {@code until}], by user, then feedback time. */
+  Flux<Accept> acceptsBetween(Instant after, Instant until);
+
+  /** The {@code limit} latest accepts of {@code userId} with feedback at or before {@code until}, newest first. */
+  Flux<Accept> acceptsOf(String userId, Instant until, int limit);
+
+  Flux<ItemNeighbors> find(Collection<String> keys);
+
+  /**
+   * Writes {@code items}, except over a stored item that already counts the same or a later window
+   * ({@link ItemNeighbors#countedUntil()}).
+   */
+  Mono<Void> saveAll(Collection<ItemNeighbors> items);
+
+  /** Every item with at least one neighbour, without its raw counts. */
+  Flux<ItemNeighbors> allNeighbors();
+}
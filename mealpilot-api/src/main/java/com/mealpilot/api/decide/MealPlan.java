@@ -0,0 +1,101 @@
+package com.mealpilot.api.decide;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Document("meal_plans")
+@CompoundIndex(
+    name = "meal_plans_user_createdAt_id_desc",
+    def = "{ 'userId': 1, 'createdAt': -1, '_id': -1 }"
+)
+@Schema(name = "MealPlan", description = "A persisted multi-day meal plan (input, planned meals and reproducibility metadata)")
+public record MealPlan(
+    @Schema(description = "Plan id (null when nothing could be planned)", example = "678b2e7e2ef2f44a3c9d8a1d")
+    @Id String id,
+
+    @Schema(description = "Owner user id", example = "user_123")
+    String userId,
+
+    @Schema(description = "Creation timestamp", example = "2026-01-17T12:00:00Z")
+    Instant createdAt,
+
+    @Schema(description = "Input used for the plan")
+    PlanInput input,
+
+    @Schema(description = "Planned meals, by day then slot; slots nothing fit in are absent")
+    List<PlannedMeal> meals,
+
+    @Schema(description = "Sum of planned prices", example = "4200")
+    int totalPrice,
+
+    @Schema(description = "Sum of planned scores", example = "61.5")
+    double totalScore,
+
+    @Schema(description = "false when some slots could not be filled within the constraints")
+    boolean complete,
+
+    String message,
+
+    @Schema(description = "Reproducibility metadata")
+    Decision.DecisionMeta meta
+) {
+
+  /** This plan with each meal's {@code why} rendered from its reason codes. */
+  public MealPlan withRenderedWhy() {
+    if (meals == null || meals.stream().allMatch(m -> m.why() != null || m.reasons() == null)) {
+      return this;
+    }
+    return new MealPlan(
+        id,
+        userId,
+        createdAt,
+        input,
+        meals.stream().map(PlannedMeal::withRenderedWhy).toList(),
+        totalPrice,
+        totalScore,
+        complete,
+        message,
+        meta
+    );
+  }
+
+  MealPlan withId(String id) {
+    return new MealPlan(id, userId, createdAt, input, meals, totalPrice, totalScore, complete, message, meta);
+  }
+
+  @Schema(name = "PlanInput", description = "Input payload captured at planning time")
+  public record PlanInput(
+      Integer budget,
+      List<String> mustHaveTags,
+      List<String> avoidTags,
+      String query,
+      int days,
+      int mealsPerDay,
+      Integer weeklyBudget,
+      int repeatWindowDays,
+      Integer maxPerRestaurant,
+      Integer maxPerTag
+  ) {}
+
+  @Schema(name = "PlannedMeal", description = "The item planned for one slot of one day")
+  public record PlannedMeal(
+      @Schema(description = "Day index, from 0", example = "0") int day,
+      @Schema(description = "Slot index within the day, from 0", example = "1") int slot,
+      Decision.ItemSnapshot item,
+      @Schema(example = "4.25") double score,
+      @Schema(description = "Short explanation bullets (rendered from reasons on read)") List<String> why,
+      List<Decision.DeepLink> deepLinks,
+      @Schema(description = "Explanation codes") List<Decision.Reason> reasons
+  ) {
+    PlannedMeal withRenderedWhy() {
+      if (why != null || reasons == null) {
+        return this;
+      }
+      return new PlannedMeal(day, slot, item, score, Decision.Reason.render(reasons), deepLinks, reasons);
+    }
+  }
+}
@@ -0,0 +1,265 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.common.Hashing;
+import com.mealpilot.api.items.Item;
+import com.mealpilot.api.items.ItemCatalog;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/decide/plan")
+@Tag(name = "Decide", description = "Rank candidate items and persist a decision record")
+public class MealPlanController {
+
+  private static final int DEFAULT_DAYS = 7;
+  private static final int DEFAULT_MEALS_PER_DAY = 2;
+  private static final int DEFAULT_REPEAT_WINDOW_DAYS = 3;
+
+  private static final int PLAN_SCHEMA_VERSION = 1;
+  private static final String ALGORITHM = "heuristic-score+beam-search";
+  // Tracks DecideController's scorer; v2: co-acceptance affinity term.
+  private static final String ALGORITHM_VERSION = "2";
+
+  private final DecideLoader loader;
+  private final RankingExecutor rankingExecutor;
+  private final MealPlanRepository mealPlanRepository;
+  private final boolean strictHardAvoid;
+  private final boolean strictMustTags;
+  private final int maxCandidates;
+  private final int beamWidth;
+  private final Duration timeLimit;
+
+  public MealPlanController(
+      DecideLoader loader,
+      RankingExecutor rankingExecutor,
+      MealPlanRepository mealPlanRepository,
+      @Value("${mealpilot.decide.strict-hard-avoid:false}") boolean strictHardAvoid,
+      @Value("${mealpilot.decide.strict-must-tags:false}") boolean strictMustTags,
+      @Value("${mealpilot.decide.plan.candidates:100}") int maxCandidates,
+      @Value("${mealpilot.decide.plan.beam-width:64}") int beamWidth,
+      @Value("${mealpilot.decide.plan.time-limit:PT0.5S}") Duration timeLimit
+  ) {
+    this.loader = loader;
+    this.rankingExecutor = rankingExecutor;
+    this.mealPlanRepository = mealPlanRepository;
+    this.strictHardAvoid = strictHardAvoid;
+    this.strictMustTags = strictMustTags;
+    this.maxCandidates = Math.max(1, maxCandidates);
+    this.beamWidth = Math.max(1, beamWidth);
+    this.timeLimit = timeLimit;
+  }
+
+  public record PlanRequest(
+      @Min(value = 0, message = "budget must be >= 0")
+      @Max(value = 100000, message = "budget must be <= 100000")
+      @Schema(description = "Optional per-meal budget bound (scored like decide's budget)", example = "250")
+      Integer budget,
+
+      @Size(max = 20, message = "mustHaveTags must have <= 20 entries")
+      @Schema(description = "Tags that must be present on planned items", example = "[\"veg\"]")
+      List<@Size(max = 32, message = "tag must be <= 32 characters") String> mustHaveTags,
+
+      @Size(max = 20, message = "avoidTags must have <= 20 entries")
+      @Schema(description = "Tags to avoid (soft penalty)", example = "[\"peanut\"]")
+      List<@Size(max = 32, message = "tag must be <= 32 characters") String> avoidTags,
+
+      @Size(max = 200, message = "query must be <= 200 characters")
+      @Schema(description = "Optional free-text query to bias ranking", example = "biryani")
+      String query,
+
+      @Min(value = 1, message = "days must be >= 1")
+      @Max(value = 7, message = "days must be <= 7")
+      @Schema(description = "Days to plan (default 7)", example = "7")
+      Integer days,
+
+      @Min(value = 1, message = "mealsPerDay must be >= 1")
+      @Max(value = 4, message = "mealsPerDay must be <= 4")
+      @Schema(description = "Meals per day (default 2)", example = "2")
+      Integer mealsPerDay,
+
+      @Min(value = 0, message = "weeklyBudget must be >= 0")
+      @Max(value = 10000000, message = "weeklyBudget must be <= 10000000")
+      @Schema(description = "Optional bound on the sum of planned prices", example = "4000")
+      Integer weeklyBudget,
+
+      @Min(value = 0, message = "repeatWindowDays must be >= 0")
+      @Max(value = 7, message = "repeatWindowDays must be <= 7")
+      @Schema(description = "An item is not planned again within this many days (default 3; 0 allows repeats)", example = "3")
+      Integer repeatWindowDays,
+
+      @Min(value = 1, message = "maxPerRestaurant must be >= 1")
+      @Schema(description = "Optional cap on meals from one restaurant", example = "3")
+      Integer maxPerRestaurant,
+
+      @Min(value = 1, message = "maxPerTag must be >= 1")
+      @Schema(description = "Optional cap on meals carrying one tag", example = "4")
+      Integer maxPerTag
+  ) {}
+
+  @PostMapping
+  @Operation(
+      summary = "Plan meals for several days",
+      description = "Scores the catalog once with the decide heuristics, then assigns items to days x mealsPerDay slots "
+          + "maximizing the total score without repeats inside repeatWindowDays, within weeklyBudget and the "
+          + "per-restaurant/per-tag caps. The plan is stored as one document."
+  )
+  public Mono<MealPlan> plan(
+      @AuthenticationPrincipal Jwt jwt,
+      @Valid @RequestBody(required = false) PlanRequest body
+  ) {
+    String userId = jwt.getSubject();
+    PlanRequest request = body == null
+        ? new PlanRequest(null, null, null, null, null, null, null, null, null, null)
+        : body;
+    MealPlan.PlanInput input = inputOf(request);
+    MealPlanner.Constraints constraints = constraintsOf(input);
+    DecideController.DecideRequest decideRequest = new DecideController.DecideRequest(
+        request.budget(),
+        request.mustHaveTags(),
+        request.avoidTags(),
+        request.query(),
+        null
+    );
+
+    return loader.load(userId, decideRequest)
+      .flatMap(inputs -> {
+        if (inputs.catalog().isEmpty()) {
+          return Mono.just(emptyPlan(userId, input, "No saved items yet. Create a few via POST /api/items to plan meals."));
+        }
+        return rankingExecutor.rank(inputs.plan(), inputs.catalog(), maxCandidates, strictHardAvoid, strictMustTags)
+          .flatMap(ranking -> {
+            List<ScoringPlan.Scored> candidates = ranking.top();
+            if (candidates.isEmpty()) {
+              return Mono.just(emptyPlan(userId, input,
+                  "No saved items match your must-have tags, dietary restrictions and allergens."));
+            }
+            Decision.DecisionMeta meta = meta(decideRequest, input, inputs.catalog(), inputs.preference());
+            return rankingExecutor.offload(() -> MealPlanner.solve(candidates, constraints, beamWidth, timeLimit))
+              .map(result -> toPlan(userId, input, constraints, result, meta))
+              .flatMap(mealPlanRepository::save);
+          });
+      })
+      .map(MealPlan::withRenderedWhy);
+  }
+
+  private static MealPlan.PlanInput inputOf(PlanRequest request) {
+    return new MealPlan.PlanInput(
+        request.budget(),
+        request.mustHaveTags(),
+        request.avoidTags(),
+        request.query(),
+        request.days() == null ? DEFAULT_DAYS : request.days(),
+        request.mealsPerDay() == null ? DEFAULT_MEALS_PER_DAY : request.mealsPerDay(),
+        request.weeklyBudget(),
+        request.repeatWindowDays() == null ? DEFAULT_REPEAT_WINDOW_DAYS : request.repeatWindowDays(),
+        request.maxPerRestaurant(),
+        request.maxPerTag()
+    );
+  }
+
+  private static MealPlanner.Constraints constraintsOf(MealPlan.PlanInput input) {
+    return new MealPlanner.Constraints(
+        input.days(),
+        input.mealsPerDay(),
+        input.weeklyBudget(),
+        input.repeatWindowDays() * input.mealsPerDay(),
+        input.maxPerRestaurant() == null ? Integer.MAX_VALUE : input.maxPerRestaurant(),
+        input.maxPerTag() == null ? Integer.MAX_VALUE : input.maxPerTag()
+    );
+  }
+
+  private static MealPlan toPlan(
+      String userId,
+      MealPlan.PlanInput input,
+      MealPlanner.Constraints constraints,
+      MealPlanner.Result result,
+      Decision.DecisionMeta meta
+  ) {
+    List<MealPlan.PlannedMeal> meals = new ArrayList<>(result.slots().size());
+    for (int i = 0; i < result.slots().size(); i++) {
+      ScoringPlan.Scored s = result.slots().get(i);
+      if (s == null) {
+        continue;
+      }
+      Item item = s.item();
+      meals.add(new MealPlan.PlannedMeal(
+          i / constraints.slotsPerDay(),
+          i % constraints.slotsPerDay(),
+          new Decision.ItemSnapshot(
+              item.id(),
+              item.name(),
+              item.restaurantName(),
+              item.tags() == null ? List.of() : item.tags(),
+              item.priceEstimate()
+          ),
+          s.score(),
+          null,
+          DecideController.deepLinksFor(item),
+          s.reasons()
+      ));
+    }
+
+    return new MealPlan(
+        null,
+        userId,
+        Instant.now(),
+        input,
+        meals,
+        result.totalPrice(),
+        result.totalScore(),
+        result.complete(),
+        result.complete() ? null : "Some meals could not be planned within your budget, repeat window and variety caps.",
+        meta
+    );
+  }
+
+  private static MealPlan emptyPlan(String userId, MealPlan.PlanInput input, String message) {
+    return new MealPlan(null, userId, Instant.now(), input, List.of(), 0, 0.0, false, message, null);
+  }
+
+  private static String hashInput(DecideController.DecideRequest decideRequest, MealPlan.PlanInput input) {
+    String normalized = "decide=" + DecideController.hashInput(decideRequest, 0)
+        + "|days=" + input.days()
+        + "|mealsPerDay=" + input.mealsPerDay()
+        + "|weeklyBudget=" + input.weeklyBudget()
+        + "|repeatWindowDays=" + input.repeatWindowDays()
+        + "|maxPerRestaurant=" + input.maxPerRestaurant()
+        + "|maxPerTag=" + input.maxPerTag();
+    return Hashing.sha256Hex(normalized);
+  }
+
+  private static Decision.DecisionMeta meta(
+      DecideController.DecideRequest decideRequest,
+      MealPlan.PlanInput input,
+      ItemCatalog catalog,
+      UserPreferenceCache.Snapshot preference
+  ) {
+    return new Decision.DecisionMeta(
+        PLAN_SCHEMA_VERSION,
+        ALGORITHM,
+        ALGORITHM_VERSION,
+        hashInput(decideRequest, input),
+        catalog.itemsHash(),
+        preference.preferenceHash(),
+        null,
+        null
+    );
+  }
+}
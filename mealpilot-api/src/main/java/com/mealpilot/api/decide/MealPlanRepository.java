@@ -0,0 +1,6 @@
+package com.mealpilot.api.decide;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface MealPlanRepository extends ReactiveMongoRepository<MealPlan, String> {
+}
@@ -0,0 +1,258 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.items.Item;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Assigns ranked candidates to the slots of a meal plan with a beam search.
+ *
+ * <p>Slots are filled in order, day by day. Each partial plan tracks its total score, spend, and
+ * per-restaurant and per-tag counts; extending it with a candidate must keep the candidate out of the
+ * previous {@code repeatWindowSlots - 1} slots, stay under both variety quotas, and leave enough of
+ * the weekly budget to fill every remaining slot at the cheapest prices the restaurant quota still
+ * allows. Only the
+ * {@code beamWidth} best partial plans survive each slot. Past {@code timeLimit} the search narrows
+ * to a single plan, i.e. finishes greedily. A slot nothing fits in is left empty.
+ */
+final class MealPlanner {
+
+  /** {@code weeklyBudget} null means unbounded. Items without a price count as free. */
+  record Constraints(
+      int days,
+      int slotsPerDay,
+      Integer weeklyBudget,
+      int repeatWindowSlots,
+      int maxPerRestaurant,
+      int maxPerTag
+  ) {
+    int slots() {
+      return days * slotsPerDay;
+    }
+  }
+
+  /** One candidate per slot, {@code null} where nothing fit. */
+  record Result(List<ScoringPlan.Scored> slots, double totalScore, int totalPrice, boolean timedOut) {
+    boolean complete() {
+      return slots.stream().allMatch(s -> s != null);
+    }
+  }
+
+  private static final class State {
+    final State parent;
+    final int candidate;
+    final double score;
+    final int spent;
+    final int[] restaurantCounts;
+    final int[] tagCounts;
+
+    State(State parent, int candidate, double score, int spent, int[] restaurantCounts, int[] tagCounts) {
+      this.parent = parent;
+      this.candidate = candidate;
+      this.score = score;
+      this.spent = spent;
+      this.restaurantCounts = restaurantCounts;
+      this.tagCounts = tagCounts;
+    }
+  }
+
+  private record Extension(State parent, int candidate, double score) {}
+
+  private static final Comparator<Extension> WORST_FIRST = Comparator.comparingDouble(Extension::score);
+
+  private final List<ScoringPlan.Scored> candidates;
+  private final Constraints constraints;
+  private final double[] score;
+  private final int[] price;
+  private final int[] restaurant;
+  private final int[][] tags;
+  private final int restaurantCount;
+  private final int tagCount;
+  /** Cheapest price per restaurant, restaurants cheapest first, and the cheapest item without one. */
+  private final int[] restaurantMinPrice;
+  private final int[] restaurantsByPrice;
+  private final long unaffiliatedMinPrice;
+
+  private MealPlanner(List<ScoringPlan.Scored> candidates, Constraints constraints) {
+    // Best first, so expanding a plan can stop at the first candidate that cannot make the beam.
+    this.candidates = candidates.stream()
+        .sorted(Comparator.comparingDouble(ScoringPlan.Scored::score).reversed())
+        .toList();
+    this.constraints = constraints;
+
+    int n = this.candidates.size();
+    this.score = new double[n];
+    this.price = new int[n];
+    this.restaurant = new int[n];
+    this.tags = new int[n][];
+
+    Map<String, Integer> restaurantIds = new HashMap<>();
+    Map<String, Integer> tagIds = new HashMap<>();
+    List<Integer> minPrices = new ArrayList<>();
+    long unaffiliated = Long.MAX_VALUE;
+    for (int i = 0; i < n; i++) {
+      Item item = this.candidates.get(i).item();
+      score[i] = this.candidates.get(i).score();
+      price[i] = item.priceEstimate() == null ? 0 : Math.max(0, item.priceEstimate());
+
+      String key = item.restaurantKey();
+      restaurant[i] = key == null || key.isEmpty()
+          ? -1
+          : restaurantIds.computeIfAbsent(key, k -> restaurantIds.size());
+      if (restaurant[i] < 0) {
+        unaffiliated = Math.min(unaffiliated, price[i]);
+      } else if (restaurant[i] == minPrices.size()) {
+        minPrices.add(price[i]);
+      } else {
+        minPrices.set(restaurant[i], Math.min(minPrices.get(restaurant[i]), price[i]));
+      }
+
+      List<String> itemTags = item.searchTags();
+      tags[i] = itemTags.stream().mapToInt(tag -> tagIds.computeIfAbsent(tag, t -> tagIds.size())).toArray();
+    }
+    this.restaurantCount = restaurantIds.size();
+    this.tagCount = tagIds.size();
+    this.restaurantMinPrice = minPrices.stream().mapToInt(Integer::intValue).toArray();
+    this.restaurantsByPrice = IntStream.range(0, restaurantCount)
+        .boxed()
+        .sorted(Comparator.comparingInt(r -> restaurantMinPrice[r]))
+        .mapToInt(Integer::intValue)
+        .toArray();
+    this.unaffiliatedMinPrice = unaffiliated;
+  }
+
+  static Result solve(List<ScoringPlan.Scored> candidates, Constraints constraints, int beamWidth, Duration timeLimit) {
+    return new MealPlanner(candidates, constraints).solve(Math.max(1, beamWidth), timeLimit);
+  }
+
+  private Result solve(int beamWidth, Duration timeLimit) {
+    long deadline = System.nanoTime() + timeLimit.toNanos();
+    int slots = constraints.slots();
+    boolean timedOut = false;
+
+    List<State> beam = List.of(new State(null, -1, 0.0, 0, new int[restaurantCount], new int[tagCount]));
+    for (int slot = 0; slot < slots; slot++) {
+      if (!timedOut && System.nanoTime() > deadline) {
+        timedOut = true;
+        beamWidth = 1;
+      }
+
+      int remainingAfter = slots - slot - 1;
+      PriorityQueue<Extension> best = new PriorityQueue<>(beamWidth + 1, WORST_FIRST);
+      for (State state : beam) {
+        for (int i = 0; i < score.length; i++) {
+          double total = state.score + score[i];
+          if (best.size() == beamWidth && total <= best.peek().score()) {
+            break;
+          }
+          if (fits(state, i, remainingAfter)) {
+            best.add(new Extension(state, i, total));
+            if (best.size() > beamWidth) {
+              best.poll();
+            }
+          }
+        }
+      }
+
+      if (best.isEmpty()) {
+        // Nothing fits this slot for any plan: leave it empty and keep going.
+        List<State> carried = new ArrayList<>(beam.size());
+        for (State state : beam) {
+          carried.add(new State(state, -1, state.score, state.spent, state.restaurantCounts, state.tagCounts));
+        }
+        beam = carried;
+        continue;
+      }
+
+      List<State> next = new ArrayList<>(best.size());
+      for (Extension extension : best) {
+        next.add(extend(extension));
+      }
+      beam = next;
+    }
+
+    State winner = beam.stream().max(Comparator.comparingDouble(s -> s.score)).orElseThrow();
+    ScoringPlan.Scored[] assigned = new ScoringPlan.Scored[slots];
+    State at = winner;
+    for (int slot = slots - 1; slot >= 0; slot--) {
+      assigned[slot] = at.candidate < 0 ? null : candidates.get(at.candidate);
+      at = at.parent;
+    }
+    return new Result(Arrays.asList(assigned), winner.score, winner.spent, timedOut);
+  }
+
+  private boolean fits(State state, int candidate, int remainingAfter) {
+    Integer budget = constraints.weeklyBudget();
+    int r = restaurant[candidate];
+    if (budget != null
+        && (long) state.spent + price[candidate] + cheapestFill(state.restaurantCounts, r, remainingAfter) > budget) {
+      return false;
+    }
+    if (r >= 0 && state.restaurantCounts[r] >= constraints.maxPerRestaurant()) {
+      return false;
+    }
+    for (int tag : tags[candidate]) {
+      if (state.tagCounts[tag] >= constraints.maxPerTag()) {
+        return false;
+      }
+    }
+
+    State at = state;
+    for (int back = 1; back < constraints.repeatWindowSlots() && at != null && at.parent != null; back++) {
+      if (at.candidate == candidate) {
+        return false;
+      }
+      at = at.parent;
+    }
+    return true;
+  }
+
+  /**
+   * A lower bound on what filling {@code slots} more slots costs: the cheapest item of each restaurant,
+   * as often as its quota allows (counting {@code takenRestaurant} once more), cheapest restaurants
+   * first. Slots no restaurant has quota left for cost nothing, as they stay empty.
+   */
+  private long cheapestFill(int[] restaurantCounts, int takenRestaurant, int slots) {
+    long cost = 0;
+    long left = slots;
+    for (int r : restaurantsByPrice) {
+      if (left == 0 || unaffiliatedMinPrice <= restaurantMinPrice[r]) {
+        break;
+      }
+      long quota = (long) constraints.maxPerRestaurant() - restaurantCounts[r] - (r == takenRestaurant ? 1 : 0);
+      long take = Math.min(Math.max(0, quota), left);
+      cost += take * restaurantMinPrice[r];
+      left -= take;
+    }
+    if (left > 0 && unaffiliatedMinPrice != Long.MAX_VALUE) {
+      cost += left * unaffiliatedMinPrice;
+    }
+    return cost;
+  }
+
+  private State extend(Extension extension) {
+    State parent = extension.parent();
+    int candidate = extension.candidate();
+
+    int[] restaurantCounts = parent.restaurantCounts;
+    if (restaurant[candidate] >= 0) {
+      restaurantCounts = restaurantCounts.clone();
+      restaurantCounts[restaurant[candidate]]++;
+    }
+    int[] tagCounts = parent.tagCounts;
+    if (tags[candidate].length > 0) {
+      tagCounts = tagCounts.clone();
+      for (int tag : tags[candidate]) {
+        tagCounts[tag]++;
+      }
+    }
+    return new State(parent, candidate, extension.score(), parent.spent + price[candidate], restaurantCounts, tagCounts);
+  }
+}
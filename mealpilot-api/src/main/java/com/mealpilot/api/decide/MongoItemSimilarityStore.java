@@ -0,0 +1,176 @@
+package com.mealpilot.api.decide;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.ReplaceOptions;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class MongoItemSimilarityStore implements ItemSimilarityStore {
+
+  private static final String JOB = "co-accept";
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  public MongoItemSimilarityStore(ReactiveMongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Mono<Window> lease(String owner, Instant until, Duration leaseFor) {
+    Instant now = Instant.now();
+    Query job = new Query(Criteria.where("_id").is(JOB));
+    Query free = new Query(Criteria.where("_id").is(JOB).orOperator(
+        Criteria.where("leaseOwner").exists(false),
+        Criteria.where("leaseOwner").is(owner),
+        Criteria.where("leaseExpiresAt").lt(now)
+    ));
+    // A window left pending by a run that did not finish is counted again as it was, so the items
+    // that run already wrote can be recognised and skipped.
+    Query nothingPending = new Query(Criteria.where("_id").is(JOB).and("leaseOwner").is(owner)
+        .and("pendingUntil").exists(false)
+        .orOperator(Criteria.where("watermark").exists(false), Criteria.where("watermark").lt(until)));
+
+    // While another owner holds the lease, the upsert tries to insert a second document with the same
+    // id and fails.
+    return mongoTemplate.upsert(
+            free,
+            new Update().set("leaseOwner", owner).set("leaseExpiresAt", now.plus(leaseFor)),
+            SimilarityWatermark.class
+        )
+        .then(Mono.defer(() -> mongoTemplate.updateFirst(
+            nothingPending, new Update().set("pendingUntil", until), SimilarityWatermark.class)))
+        .then(Mono.defer(() -> mongoTemplate.findOne(job, SimilarityWatermark.class)))
+        .map(MongoItemSimilarityStore::toWindow)
+        .onErrorResume(DuplicateKeyException.class, e -> Mono.empty());
+  }
+
+  private static Window toWindow(SimilarityWatermark job) {
+    Instant from = job.watermark() == null ? Instant.EPOCH : job.watermark();
+    return new Window(from, job.pendingUntil() == null ? from : job.pendingUntil());
+  }
+
+  @Override
+  public Mono<Boolean> complete(String owner, Window window) {
+    return mongoTemplate.updateFirst(
+            new Query(Criteria.where("_id").is(JOB).and("leaseOwner").is(owner)),
+            new Update()
+                .set("watermark", window.until())
+                .unset("pendingUntil")
+                .unset("leaseOwner")
+                .unset("leaseExpiresAt"),
+            SimilarityWatermark.class
+        )
+        .map(result -> result.getMatchedCount() > 0);
+  }
+
+  @Override
+  public Mono<Void> release(String owner) {
+    return mongoTemplate.updateFirst(
+            new Query(Criteria.where("_id").is(JOB).and("leaseOwner").is(owner)),
+            new Update().unset("leaseOwner").unset("leaseExpiresAt"),
+            SimilarityWatermark.class
+        )
+        .then();
+  }
+
+  @Override
+  public Flux<Accept> acceptsBetween(Instant after, Instant until) {
+    return accepts(
+        Criteria.where("feedback.createdAt").gt(after).lte(until),
+        Sort.by("userId", "at"),
+        null
+    );
+  }
+
+  @Override
+  public Flux<Accept> acceptsOf(String userId, Instant until, int limit) {
+    return accepts(
+        Criteria.where("userId").is(userId).and("feedback.createdAt").lte(until),
+        Sort.by(Sort.Direction.DESC, "at"),
+        limit
+    );
+  }
+
+  private Flux<Accept> accepts(Criteria criteria, Sort sort, Integer limit) {
+    // Feedback always refers to the top candidate.
+    List<AggregationOperation> stages = new ArrayList<>(4);
+    stages.add(Aggregation.match(
+        Criteria.where("feedback.status").is(Decision.FeedbackStatus.ACCEPT.name()).andOperator(criteria)));
+    stages.add(Aggregation.project("userId")
+        .and("feedback.createdAt").as("at")
+        .and(ArrayOperators.ArrayElemAt.arrayOf("candidates.item").elementAt(0)).as("item"));
+    stages.add(Aggregation.sort(sort));
+    if (limit != null) {
+      stages.add(Aggregation.limit(limit));
+    }
+    Aggregation aggregation = Aggregation.newAggregation(stages)
+        .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+    return mongoTemplate.aggregate(aggregation, Decision.class, Document.class)
+        .filter(doc -> doc.get("item") instanceof Document)
+        .map(MongoItemSimilarityStore::toAccept);
+  }
+
+  private static Accept toAccept(Document doc) {
+    Document item = doc.get("item", Document.class);
+    Date at = doc.getDate("at");
+    return new Accept(
+        doc.getString("userId"),
+        item.getString("restaurantName"),
+        item.getString("name"),
+        at == null ? null : at.toInstant()
+    );
+  }
+
+  @Override
+  public Flux<ItemNeighbors> find(Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return Flux.empty();
+    }
+    return mongoTemplate.find(new Query(Criteria.where("_id").in(keys)), ItemNeighbors.class);
+  }
+
+  @Override
+  public Mono<Void> saveAll(Collection<ItemNeighbors> items) {
+    return Flux.fromIterable(items)
+        .flatMap(this::save, 8)
+        .then();
+  }
+
+  private Mono<Void> save(ItemNeighbors item) {
+    Query older = new Query(Criteria.where("_id").is(item.key()).orOperator(
+        Criteria.where("countedUntil").exists(false),
+        Criteria.where("countedUntil").lt(item.countedUntil())
+    ));
+    // An item that already counts this window (or a later one) fails the upsert with a duplicate id:
+    // another run got there first, and its write stands.
+    return mongoTemplate.replace(older, item, ReplaceOptions.replaceOptions().upsert())
+        .then()
+        .onErrorResume(DuplicateKeyException.class, e -> Mono.empty());
+  }
+
+  @Override
+  public Flux<ItemNeighbors> allNeighbors() {
+    Query query = new Query(Criteria.where("neighbors.0").exists(true));
+    query.fields().exclude("coAccepts");
+    return mongoTemplate.find(query, ItemNeighbors.class);
+  }
+}
@@ -0,0 +1,73 @@
+package com.mealpilot.api.decide;
+
+import java.time.Instant;
+import java.util.List;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+@Service
+public class MongoPopularItemStore implements PopularItemStore {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  public MongoPopularItemStore(ReactiveMongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Flux<PopularItem> mostAccepted(Instant since, int minUsers, int limit) {
+    // Feedback always refers to the top candidate. Snapshots of the same item differ between users
+    // (and over time): the latest accepted one names and prices it, and its tags are those of every
+    // snapshot, so an allergen tag on any of them keeps it out of hard-avoid matches.
+    Aggregation aggregation = Aggregation.newAggregation(
+        Aggregation.match(Criteria.where("feedback.status").is(Decision.FeedbackStatus.ACCEPT.name())
+            .and("feedback.createdAt").gte(since)),
+        Aggregation.sort(Sort.by(Sort.Direction.ASC, "feedback.createdAt", "_id")),
+        Aggregation.project("userId").and(ArrayOperators.ArrayElemAt.arrayOf("candidates.item").elementAt(0)).as("item"),
+        Aggregation.project("userId", "item")
+            .and(StringOperators.valueOf("item.name").toLower()).as("nameKey")
+            .and(StringOperators.valueOf("item.restaurantName").toLower()).as("restaurantKey")
+            .and(ConditionalOperators.ifNull("item.tags").then(List.of())).as("tags"),
+        Aggregation.group("nameKey", "restaurantKey")
+            .addToSet("userId").as("users")
+            .count().as("accepts")
+            .last("item").as("item")
+            .addToSet("tags").as("tagSets"),
+        Aggregation.stage(new Document("$project", new Document("item", 1)
+            .append("accepts", 1)
+            .append("users", new Document("$size", "$users"))
+            .append("tags", new Document("$reduce", new Document("input", "$tagSets")
+                .append("initialValue", List.of())
+                .append("in", new Document("$setUnion", List.of("$$value", "$$this"))))))),
+        Aggregation.match(Criteria.where("users").gte(minUsers)),
+        Aggregation.sort(Sort.by(Sort.Direction.DESC, "users", "accepts")),
+        Aggregation.limit(limit)
+    );
+
+    return mongoTemplate.aggregate(aggregation, Decision.class, Document.class)
+        .map(MongoPopularItemStore::toPopularItem);
+  }
+
+  private static PopularItem toPopularItem(Document doc) {
+    Document item = doc.get("item", Document.class);
+    return new PopularItem(
+        new Decision.ItemSnapshot(
+            null,
+            item.getString("name"),
+            item.getString("restaurantName"),
+            doc.getList("tags", String.class, List.of()).stream().sorted().toList(),
+            item.getInteger("priceEstimate")
+        ),
+        doc.getInteger("users", 0),
+        doc.getInteger("accepts", 0)
+    );
+  }
+}
@@ -0,0 +1,77 @@
+package com.mealpilot.api.decide;
+
+import java.time.Instant;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class MongoReadyDecisionStore implements ReadyDecisionStore {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  public MongoReadyDecisionStore(ReactiveMongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Mono<ReadyDecision> find(String userId) {
+    return mongoTemplate.findById(userId, ReadyDecision.class);
+  }
+
+  @Override
+  public Mono<Boolean> save(ReadyDecision ready) {
+    Query notInvalidatedSince = new Query(Criteria.where("_id").is(ready.userId()).orOperator(
+        Criteria.where("invalidatedAt").exists(false),
+        Criteria.where("invalidatedAt").lt(ready.computedAt())
+    ));
+
+    Update update = new Update()
+        .set("inputHash", ready.inputHash())
+        .set("itemsHash", ready.itemsHash())
+        .set("preferenceHash", ready.preferenceHash())
+        .set("similarityVersion", ready.similarityVersion())
+        .set("decision", ready.decision())
+        .set("ranked", ready.ranked())
+        .set("computedAt", ready.computedAt());
+
+    // When the document exists but was invalidated since, the upsert tries to insert a second
+    // document with the same id and fails: the result is stale, drop it.
+    return mongoTemplate.upsert(notInvalidatedSince, update, ReadyDecision.class)
+        .thenReturn(true)
+        .onErrorResume(DuplicateKeyException.class, e -> Mono.just(false));
+  }
+
+  @Override
+  public Mono<Void> invalidate(String userId, Instant at) {
+    return mongoTemplate.upsert(
+            new Query(Criteria.where("_id").is(userId)),
+            new Update().max("invalidatedAt", at).unset("decision").unset("ranked"),
+            ReadyDecision.class
+        )
+        .then();
+  }
+
+  @Override
+  public Flux<String> usersDecidingAt(int hourOfDay, Instant since, int minDecisions, int maxUsers) {
+    Aggregation aggregation = Aggregation.newAggregation(
+        Aggregation.match(Criteria.where("createdAt").gte(since)),
+        Aggregation.project("userId").and(DateOperators.dateOf("createdAt").hour()).as("hour"),
+        Aggregation.match(Criteria.where("hour").is(hourOfDay)),
+        Aggregation.group("userId").count().as("decisions"),
+        Aggregation.match(Criteria.where("decisions").gte(minDecisions)),
+        Aggregation.limit(maxUsers)
+    );
+
+    return mongoTemplate.aggregate(aggregation, Decision.class, Document.class)
+        .map(doc -> doc.getString("_id"));
+  }
+}
@@ -0,0 +1,18 @@
+package com.mealpilot.api.decide;
+
+import java.time.Instant;
+import reactor.core.publisher.Flux;
+
+public interface PopularItemStore {
+
+  /** An item snapshot accepted by {@code users} distinct users, {@code accepts} times in total. */
+  record PopularItem(Decision.ItemSnapshot item, int users, int accepts) {}
+
+  /**
+   * Top candidates of decisions accepted since {@code since}, grouped by item and restaurant name,
+   * accepted by at least {@code minUsers} users; most users first, then most accepts, at most
+   * {@code limit} of them. Name and price come from the latest accepted snapshot; tags are the union
+   * of every snapshot's.
+   */
+  Flux<PopularItem> mostAccepted(Instant since, int minUsers, int limit);
+}
@@ -32,10 +32,12 @@ import reactor.core.publisher.Mono;
 @Tag(name = "Preferences", description = "User preference profile (explicit constraints) and learned preference signals")
 public class PreferenceController {
 
-  private final UserPreferenceRepository userPreferenceRepository;
+  private final UserPreferenceCache preferenceCache;
+  private final ReadyDecisions readyDecisions;
 
-  public PreferenceController(UserPreferenceRepository userPreferenceRepository) {
-    this.userPreferenceRepository = userPreferenceRepository;
+  public PreferenceController(UserPreferenceCache preferenceCache, ReadyDecisions readyDecisions) {
+    this.preferenceCache = preferenceCache;
+    this.readyDecisions = readyDecisions;
   }
 
   @GetMapping
@@ -77,8 +79,7 @@ public class PreferenceController {
       )
   })
   public Mono<UserPreference> get(@AuthenticationPrincipal Jwt jwt) {
-    return userPreferenceRepository.findById(jwt.getSubject())
-        .defaultIfEmpty(UserPreference.empty(jwt.getSubject()));
+    return preferenceCache.get(jwt.getSubject());
   }
 
   public record UpdateProfileRequest(
@@ -118,7 +119,11 @@ public class PreferenceController {
 
       @Schema(description = "Free-form notes", example = "Prefer lighter dinners on weekdays")
       @Size(max = 500, message = "notes must be <= 500 characters")
-      String notes
+      String notes,
+
+      @Schema(description = "User ids allowed to include you in a group decide (omit to keep the current list)", example = "[\"user_456\"]")
+      @Size(max = 50, message = "sharedWith must have <= 50 entries")
+      Set<@Size(max = 128, message = "userId must be <= 128 characters") String> sharedWith
   ) {}
 
   @PutMapping("/profile")
@@ -163,7 +168,7 @@ public class PreferenceController {
       return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "budgetMin must be <= budgetMax"));
     }
 
-    UserPreference.PreferenceProfile profile = new UserPreference.PreferenceProfile(
+    UserPreference.PreferenceProfile update = new UserPreference.PreferenceProfile(
         body.budgetMin(),
         body.budgetMax(),
         normalizeSet(body.preferTags()),
@@ -172,13 +177,43 @@ public class PreferenceController {
         normalizeSet(body.avoidRestaurants()),
         normalizeSet(body.dietaryRestrictions()),
         normalizeSet(body.allergens()),
-        body.notes() == null ? null : body.notes().trim()
+        body.notes() == null ? null : body.notes().trim(),
+        body.sharedWith() == null ? null : normalizeUserIds(body.sharedWith())
+    );
+
+    return preferenceCache.load(jwt.getSubject())
+        .map(existing -> existing.withProfile(update.sharedWith() != null
+            ? update
+            : withSharedWith(update, existing.effectiveProfile().sharedWith())))
+        .flatMap(preferenceCache::save)
+        .flatMap(saved -> readyDecisions.invalidate(saved.userId()).thenReturn(saved));
+  }
+
+  private static UserPreference.PreferenceProfile withSharedWith(
+      UserPreference.PreferenceProfile profile,
+      Set<String> sharedWith
+  ) {
+    return new UserPreference.PreferenceProfile(
+        profile.budgetMin(),
+        profile.budgetMax(),
+        profile.preferTags(),
+        profile.avoidTags(),
+        profile.preferRestaurants(),
+        profile.avoidRestaurants(),
+        profile.dietaryRestrictions(),
+        profile.allergens(),
+        profile.notes(),
+        sharedWith == null ? Set.of() : sharedWith
     );
+  }
 
-    return userPreferenceRepository.findById(jwt.getSubject())
-        .defaultIfEmpty(UserPreference.empty(jwt.getSubject()))
-        .map(existing -> existing.withProfile(profile))
-        .flatMap(userPreferenceRepository::save);
+  /** User ids are case-sensitive, so they are only trimmed. */
+  private static Set<String> normalizeUserIds(Set<String> values) {
+    return values.stream()
+        .filter(Objects::nonNull)
+        .map(String::trim)
+        .filter(s -> !s.isBlank())
+        .collect(Collectors.toUnmodifiableSet());
   }
 
   private static Set<String> normalizeSet(Set<String> values) {
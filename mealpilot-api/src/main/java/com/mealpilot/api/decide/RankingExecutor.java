@@ -0,0 +1,146 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.items.ItemCatalog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs decide ranking off the event loop for large catalogs.
+ *
+ * <p>Catalogs below {@code offload-threshold} items are ranked inline; they cost less than the
+ * thread hop. Larger ones run on a fixed pool with a bounded queue that acts as a bulkhead: when it
+ * is full the request fails fast with 503 and {@code mealpilot.decide.scoring.rejected} is
+ * incremented, instead of piling work up behind the event loop. Catalogs of at least
+ * {@code parallel-threshold} items are split into contiguous chunks ranked concurrently on the same
+ * pool and merged; the ranking order is total, so the result is identical to a sequential pass.
+ */
+@Component
+public class RankingExecutor implements DisposableBean {
+
+  private final int offloadThreshold;
+  private final int parallelThreshold;
+  private final int parallelism;
+  private final int indexMinItems;
+
+  private final ExecutorService executor;
+  private final Scheduler scheduler;
+  private final Counter rejected;
+  private final Counter offloaded;
+
+  public RankingExecutor(
+      MeterRegistry meterRegistry,
+      @Value("${mealpilot.decide.scoring.offload-threshold:5000}") int offloadThreshold,
+      @Value("${mealpilot.decide.scoring.parallel-threshold:50000}") int parallelThreshold,
+      @Value("${mealpilot.decide.scoring.threads:0}") int threads,
+      @Value("${mealpilot.decide.scoring.queue-capacity:64}") int queueCapacity,
+      @Value("${mealpilot.decide.index.min-items:2000}") int indexMinItems
+  ) {
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    this.offloadThreshold = Math.max(0, offloadThreshold);
+    this.parallelThreshold = Math.max(1, parallelThreshold);
+    this.parallelism = poolSize;
+    this.indexMinItems = indexMinItems;
+
+    AtomicInteger threadIds = new AtomicInteger();
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(
+        poolSize,
+        poolSize,
+        0L,
+        TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+        r -> {
+          Thread t = new Thread(r, "decide-scoring-" + threadIds.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        },
+        new ThreadPoolExecutor.AbortPolicy()
+    );
+    this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "decide_scoring");
+    this.scheduler = Schedulers.fromExecutorService(executor, "decide-scoring");
+    this.rejected = Counter.builder("mealpilot.decide.scoring.rejected").register(meterRegistry);
+    this.offloaded = Counter.builder("mealpilot.decide.scoring.offloaded").register(meterRegistry);
+  }
+
+  Mono<CandidateRanking> rank(
+      ScoringPlan plan,
+      ItemCatalog catalog,
+      int limit,
+      boolean excludeHardAvoid,
+      boolean requireMustTag
+  ) {
+    int size = catalog.size();
+    boolean useIndex = size >= indexMinItems;
+
+    if (size < offloadThreshold) {
+      return Mono.fromSupplier(() -> {
+        CandidateRanking ranking = new CandidateRanking(plan, limit, excludeHardAvoid, requireMustTag);
+        ranking.acceptAll(catalog, useIndex);
+        return ranking;
+      });
+    }
+
+    offloaded.increment();
+    if (size < parallelThreshold || parallelism < 2) {
+      return onPool(Mono.fromCallable(() -> {
+        CandidateRanking ranking = new CandidateRanking(plan, limit, excludeHardAvoid, requireMustTag);
+        ranking.acceptAll(catalog, useIndex);
+        return ranking;
+      }));
+    }
+
+    // Probe the index once (on the pool), then rank contiguous ordinal ranges concurrently.
+    int chunkSize = (size + parallelism - 1) / parallelism;
+    return onPool(Mono.fromCallable(() -> {
+          CandidateRanking probeOwner = new CandidateRanking(plan, limit, excludeHardAvoid, requireMustTag);
+          return Optional.ofNullable(useIndex ? probeOwner.probe(catalog) : null);
+        }))
+        .flatMap(probe -> Flux.range(0, parallelism)
+            .flatMap(chunk -> onPool(Mono.fromCallable(() -> {
+              CandidateRanking ranking = new CandidateRanking(plan, limit, excludeHardAvoid, requireMustTag);
+              int from = chunk * chunkSize;
+              ranking.acceptRange(catalog.items(), probe.orElse(null), from, Math.min(size, from + chunkSize));
+              return ranking;
+            })))
+            .reduceWith(() -> new CandidateRanking(plan, limit, excludeHardAvoid, requireMustTag), (merged, part) -> {
+              merged.merge(part);
+              return merged;
+            }));
+  }
+
+  /** Runs other decide CPU work (e.g. meal planning) on the scoring pool, behind the same bulkhead. */
+  <T> Mono<T> offload(Callable<T> work) {
+    return onPool(Mono.fromCallable(work));
+  }
+
+  private <T> Mono<T> onPool(Mono<T> work) {
+    return work.subscribeOn(scheduler)
+        .onErrorMap(RejectedExecutionException.class, e -> {
+          rejected.increment();
+          return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "decide is busy, retry shortly", e);
+        });
+  }
+
+  @Override
+  public void destroy() {
+    scheduler.dispose();
+    executor.shutdownNow();
+  }
+}
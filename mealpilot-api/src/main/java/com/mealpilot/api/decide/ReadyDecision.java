@@ -0,0 +1,28 @@
+package com.mealpilot.api.decide;
+
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A user's precomputed default-input decision, waiting to be served by decide.
+ *
+ * <p>{@code decision} is not persisted as a decision yet (no id); {@code ranked} is the ranking behind
+ * it to the re-decide session depth, its first candidates being the decision's. Both are unset when
+ * the user's items or preferences change ({@code invalidatedAt}), and a result computed before the
+ * latest invalidation is never stored. {@code similarityVersion} is the co-acceptance table it was
+ * ranked against; it is not served once that table is reloaded with other contents.
+ */
+@Document("ready_decisions")
+public record ReadyDecision(
+    @Id String userId,
+    String inputHash,
+    String itemsHash,
+    String preferenceHash,
+    String similarityVersion,
+    Decision decision,
+    List<ScoringPlan.Scored> ranked,
+    Instant computedAt,
+    Instant invalidatedAt
+) {}
@@ -0,0 +1,25 @@
+package com.mealpilot.api.decide;
+
+import java.time.Instant;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReadyDecisionStore {
+
+  Mono<ReadyDecision> find(String userId);
+
+  /**
+   * Stores {@code ready} unless the user's data was invalidated at or after its {@code computedAt};
+   * emits whether it was stored.
+   */
+  Mono<Boolean> save(ReadyDecision ready);
+
+  /** Drops the user's ready decision and fences off results computed before {@code at}. */
+  Mono<Void> invalidate(String userId, Instant at);
+
+  /**
+   * Users with at least {@code minDecisions} decisions since {@code since} made during
+   * {@code hourOfDay} (UTC), at most {@code maxUsers} of them.
+   */
+  Flux<String> usersDecidingAt(int hourOfDay, Instant since, int minDecisions, int maxUsers);
+}
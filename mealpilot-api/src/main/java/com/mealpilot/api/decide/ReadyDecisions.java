@@ -0,0 +1,216 @@
+package com.mealpilot.api.decide;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Precomputes each user's default-input decision so decide can serve it with a single read.
+ *
+ * <p>Item writes and preference changes {@link #invalidate(String) invalidate} the stored result
+ * before they respond, and schedule a recompute {@code refresh-delay} later; further writes within
+ * that delay push it back, so a burst of edits is recomputed once. Every
+ * {@code prewarm.interval}, users who usually decide in the hour starting {@code prewarm.lead} from
+ * now (at least {@code prewarm.min-decisions} decisions in that UTC hour over {@code prewarm.lookback})
+ * get a result computed ahead of time if they have none, or only one decide no longer accepts (e.g.
+ * ranked against a co-acceptance table that has since been reloaded).
+ *
+ * <p>Publishes {@code mealpilot.decide.ready}, tagged
+ * {@code result=served|missed|computed|invalidated}.
+ */
+@Component
+public class ReadyDecisions implements DisposableBean {
+
+  private static final Logger log = LoggerFactory.getLogger(ReadyDecisions.class);
+
+  private static final int PREWARM_CONCURRENCY = 4;
+
+  /** Ranks a user's default-input decision, or completes empty when there is nothing to decide. */
+  interface Computer {
+    Mono<ReadyDecision> compute(String userId, Instant computedAt);
+  }
+
+  private final ReadyDecisionStore store;
+  private final boolean enabled;
+  private final Duration readTimeout;
+  private final Duration refreshDelay;
+  private final Duration prewarmLead;
+  private final Duration prewarmLookback;
+  private final int prewarmMinDecisions;
+  private final int prewarmMaxUsers;
+
+  private final Map<String, Object> pendingRefreshes = new ConcurrentHashMap<>();
+  private final AtomicInteger lastPrewarmHour = new AtomicInteger(-1);
+  private final Disposable ticker;
+  private volatile Computer computer;
+  private volatile Predicate<ReadyDecision> current = ready -> true;
+
+  private final Counter served;
+  private final Counter missed;
+  private final Counter computed;
+  private final Counter invalidated;
+
+  public ReadyDecisions(
+      ReadyDecisionStore store,
+      MeterRegistry meterRegistry,
+      @Value("${mealpilot.decide.ready.enabled:true}") boolean enabled,
+      @Value("${mealpilot.decide.ready.read-timeout:PT0.2S}") Duration readTimeout,
+      @Value("${mealpilot.decide.ready.refresh-delay:PT2S}") Duration refreshDelay,
+      @Value("${mealpilot.decide.ready.prewarm.interval:PT10M}") Duration prewarmInterval,
+      @Value("${mealpilot.decide.ready.prewarm.lead:PT30M}") Duration prewarmLead,
+      @Value("${mealpilot.decide.ready.prewarm.lookback:P28D}") Duration prewarmLookback,
+      @Value("${mealpilot.decide.ready.prewarm.min-decisions:3}") int prewarmMinDecisions,
+      @Value("${mealpilot.decide.ready.prewarm.max-users:1000}") int prewarmMaxUsers
+  ) {
+    this.store = store;
+    this.enabled = enabled;
+    this.readTimeout = readTimeout;
+    this.refreshDelay = refreshDelay;
+    this.prewarmLead = prewarmLead;
+    this.prewarmLookback = prewarmLookback;
+    this.prewarmMinDecisions = Math.max(1, prewarmMinDecisions);
+    this.prewarmMaxUsers = Math.max(0, prewarmMaxUsers);
+
+    this.served = counter(meterRegistry, "served");
+    this.missed = counter(meterRegistry, "missed");
+    this.computed = counter(meterRegistry, "computed");
+    this.invalidated = counter(meterRegistry, "invalidated");
+
+    this.ticker = enabled && !prewarmInterval.isZero() && this.prewarmMaxUsers > 0
+        ? Flux.interval(prewarmInterval, prewarmInterval).subscribe(tick -> prewarm(Instant.now()))
+        : null;
+  }
+
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Sets how ready decisions are computed, and which stored ones are still {@code current}; decide
+   * registers itself on startup.
+   */
+  void computeWith(Computer computer, Predicate<ReadyDecision> current) {
+    this.computer = computer;
+    this.current = current;
+  }
+
+  /**
+   * The user's ready decision when there is one and it is current; empty otherwise, including when
+   * the store cannot answer within {@code read-timeout}.
+   */
+  Mono<ReadyDecision> get(String userId) {
+    return store.find(userId)
+        .timeout(readTimeout)
+        .filter(this::isServable)
+        .doOnNext(ready -> served.increment())
+        .switchIfEmpty(Mono.fromRunnable(missed::increment))
+        .onErrorResume(e -> {
+          if (!(e instanceof TimeoutException)) {
+            log.warn("Ready decision lookup failed for user {}", userId, e);
+          }
+          missed.increment();
+          return Mono.empty();
+        });
+  }
+
+  /**
+   * Drops the user's ready decision and schedules its recompute. Writes to the user's items or
+   * preferences wait for it before responding: decide does not compare the ready result against the
+   * current catalog, so a decide following the write must not find it.
+   */
+  public Mono<Void> invalidate(String userId) {
+    if (!enabled || userId == null) {
+      return Mono.empty();
+    }
+
+    return Mono.defer(() -> {
+          invalidated.increment();
+          return store.invalidate(userId, Instant.now());
+        })
+        .doOnError(e -> log.warn("Ready decision invalidation failed for user {}", userId, e))
+        .onErrorResume(e -> Mono.empty())
+        .then(Mono.fromRunnable(() -> scheduleRefresh(userId)));
+  }
+
+  private void scheduleRefresh(String userId) {
+    // Only the latest scheduled refresh of a user runs.
+    Object token = new Object();
+    pendingRefreshes.put(userId, token);
+    Mono.delay(refreshDelay)
+        .filter(tick -> pendingRefreshes.remove(userId, token))
+        .flatMap(tick -> refresh(userId))
+        .subscribe();
+  }
+
+  /** Computes and stores the user's ready decision. */
+  Mono<Void> refresh(String userId) {
+    Computer computer = this.computer;
+    if (computer == null) {
+      return Mono.empty();
+    }
+
+    // Taken before loading anything, so a write racing the computation fences it off.
+    Instant startedAt = Instant.now();
+    return computer.compute(userId, startedAt)
+        .flatMap(store::save)
+        .doOnNext(stored -> {
+          if (stored) {
+            computed.increment();
+          }
+        })
+        .onErrorResume(e -> {
+          log.warn("Ready decision refresh failed for user {}", userId, e);
+          return Mono.empty();
+        })
+        .then();
+  }
+
+  /** Prewarms users whose usual mealtime starts in the hour {@code prewarm.lead} after {@code now}. */
+  void prewarm(Instant now) {
+    int hour = now.plus(prewarmLead).atOffset(ZoneOffset.UTC).getHour();
+    if (lastPrewarmHour.getAndSet(hour) == hour) {
+      return;
+    }
+
+    store.usersDecidingAt(hour, now.minus(prewarmLookback), prewarmMinDecisions, prewarmMaxUsers)
+        .flatMap(userId -> store.find(userId)
+            .filter(this::isServable)
+            .hasElement()
+            .flatMap(ready -> ready ? Mono.<Void>empty() : refresh(userId)), PREWARM_CONCURRENCY)
+        .onErrorResume(e -> {
+          log.warn("Ready decision prewarm failed for hour {}", hour, e);
+          return Mono.empty();
+        })
+        .subscribe();
+  }
+
+  private boolean isServable(ReadyDecision ready) {
+    return ready.decision() != null && current.test(ready);
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("mealpilot.decide.ready").tag("result", result).register(meterRegistry);
+  }
+
+  @Override
+  public void destroy() {
+    if (ticker != null) {
+      ticker.dispose();
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package com.mealpilot.api.decide;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Why a candidate scored the way it did. Scoring records a code plus an optional argument (a tag, a
+ * budget); the text is only rendered for candidates that are shown.
+ */
+@Schema(name = "ReasonCode", description = "Explanation code; see Reason.arg for the tag or budget it refers to")
+public enum ReasonCode {
+  BUDGET_WITHIN("Within budget (≤ %s)"),
+  BUDGET_ABOVE("Above budget (> %s)"),
+  MUST_TAG("Matches tag: %s"),
+  HARD_AVOID_TAG("Hard avoid tag: %s"),
+  PROFILE_AVOID_TAG("Avoid tag (profile): %s"),
+  REQUEST_AVOID_TAG("Avoid tag present: %s"),
+  QUERY_MATCH("Matches your query"),
+  SAFE_DEFAULT("A safe default based on your saved items"),
+  LIKED_RESTAURANT("You often like this place"),
+  AVOIDED_RESTAURANT("You often avoid this place"),
+  LIKED_TAGS("Matches your usual preferences"),
+  CONFLICTING_TAGS("Conflicts with your usual preferences"),
+  PREFERRED_RESTAURANT("Preferred restaurant (profile)"),
+  AVOID_RESTAURANT("Avoid restaurant (profile)"),
+  PREFERRED_TAG("Preferred tag: %s"),
+  CO_ACCEPTED("People who liked %s also liked this");
+
+  private final String template;
+
+  ReasonCode(String template) {
+    this.template = template;
+  }
+
+  String render(String arg) {
+    int at = template.indexOf("%s");
+    if (at < 0) {
+      return template;
+    }
+    return template.substring(0, at) + (arg == null ? "" : arg) + template.substring(at + 2);
+  }
+}
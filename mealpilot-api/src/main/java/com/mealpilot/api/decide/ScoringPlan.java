@@ -0,0 +1,496 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.items.Item;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Decide scoring heuristic, compiled once per request.
+ *
+ * <p>Everything that only depends on the request and the user's preferences (effective budget,
+ * query terms, tag sets, budget reasons) is resolved up front. Items carry their normalized
+ * tags, restaurant key and search tokens from write time, and those are interned on first sight, so
+ * scoring an item only does map lookups and arithmetic. Explanations are {@link ReasonCode}s with an
+ * argument, recorded only when asked for ({@link #explain}) and rendered to text by the caller.
+ */
+final class ScoringPlan {
+
+  private static final int MUST = 1;
+  private static final int HARD_AVOID = 1 << 1;
+  private static final int PROFILE_AVOID = 1 << 2;
+  private static final int REQUEST_AVOID = 1 << 3;
+  private static final int PREFER = 1 << 4;
+
+  // Per-thread scratch for an item's resolved tags, so scoring does not allocate per item.
+  private static final ThreadLocal<TagInfo[]> TAG_SCRATCH = ThreadLocal.withInitial(() -> new TagInfo[32]);
+
+  private static final Decision.Reason QUERY_MATCH = new Decision.Reason(ReasonCode.QUERY_MATCH, null);
+  private static final Decision.Reason SAFE_DEFAULT = new Decision.Reason(ReasonCode.SAFE_DEFAULT, null);
+  private static final Decision.Reason LIKED_RESTAURANT = new Decision.Reason(ReasonCode.LIKED_RESTAURANT, null);
+  private static final Decision.Reason AVOIDED_RESTAURANT = new Decision.Reason(ReasonCode.AVOIDED_RESTAURANT, null);
+  private static final Decision.Reason LIKED_TAGS = new Decision.Reason(ReasonCode.LIKED_TAGS, null);
+  private static final Decision.Reason CONFLICTING_TAGS = new Decision.Reason(ReasonCode.CONFLICTING_TAGS, null);
+  private static final Decision.Reason PREFERRED_RESTAURANT = new Decision.Reason(ReasonCode.PREFERRED_RESTAURANT, null);
+  private static final Decision.Reason AVOID_RESTAURANT = new Decision.Reason(ReasonCode.AVOID_RESTAURANT, null);
+
+  private final Integer budget;
+  private final Decision.Reason withinBudget;
+  private final Decision.Reason aboveBudget;
+
+  private final Set<String> mustTags;
+  private final Set<String> requestAvoidTags;
+  private final Set<String> profileAvoidTags;
+  private final Set<String> hardAvoidTags;
+  private final Set<String> preferTags;
+  private final Set<String> preferRestaurants;
+  private final Set<String> avoidRestaurants;
+  private final String[] queryTerms;
+  private final boolean hasQuery;
+
+  private final UserPreference preference;
+  private final boolean hasProfile;
+  private final ItemSimilarity.Affinity coAccepts;
+
+  // Interned per normalized value; shared across threads when scoring is split.
+  private final Map<String, TagInfo> tagsByNormalized = new ConcurrentHashMap<>();
+  private final Map<String, RestaurantInfo> restaurantsByKey = new ConcurrentHashMap<>();
+
+  private ScoringPlan(
+      DecideController.DecideRequest request,
+      UserPreference preference,
+      ItemSimilarity.Affinity coAccepts
+  ) {
+    UserPreference.PreferenceProfile profile = preference == null
+        ? UserPreference.PreferenceProfile.empty()
+        : preference.effectiveProfile();
+
+    this.preference = preference;
+    this.hasProfile = profile != null;
+    this.coAccepts = coAccepts;
+
+    this.mustTags = normalizeTagSet(request.mustHaveTags());
+    this.requestAvoidTags = normalizeTagSet(request.avoidTags());
+
+    // Apply explicit profile constraints.
+    // - Profile avoid tags are treated as a stronger signal than request avoid tags.
+    // - Dietary restrictions and allergens are treated as hard-avoid tags.
+    this.profileAvoidTags = orEmpty(profile.avoidTags());
+    this.hardAvoidTags = union(orEmpty(profile.dietaryRestrictions()), orEmpty(profile.allergens()));
+    this.preferTags = orEmpty(profile.preferTags());
+    this.preferRestaurants = orEmpty(profile.preferRestaurants());
+    this.avoidRestaurants = orEmpty(profile.avoidRestaurants());
+
+    Integer effectiveBudget = request.budget();
+    if (profile.budgetMax() != null) {
+      effectiveBudget = (effectiveBudget == null)
+          ? profile.budgetMax()
+          : Math.min(effectiveBudget, profile.budgetMax());
+    }
+    this.budget = effectiveBudget;
+    this.withinBudget = budget == null ? null : new Decision.Reason(ReasonCode.BUDGET_WITHIN, budget.toString());
+    this.aboveBudget = budget == null ? null : new Decision.Reason(ReasonCode.BUDGET_ABOVE, budget.toString());
+
+    String query = normalizeText(request.query());
+    this.hasQuery = !query.isBlank();
+    this.queryTerms = hasQuery
+        ? Arrays.stream(query.split("\\s+")).filter(t -> t.length() >= 3).toArray(String[]::new)
+        : new String[0];
+  }
+
+  static ScoringPlan compile(DecideController.DecideRequest request, UserPreference preference) {
+    return new ScoringPlan(request, preference, ItemSimilarity.Affinity.NONE);
+  }
+
+  /** {@link #compile(DecideController.DecideRequest, UserPreference)} with a co-acceptance term. */
+  static ScoringPlan compile(
+      DecideController.DecideRequest request,
+      UserPreference preference,
+      ItemSimilarity.Affinity coAccepts
+  ) {
+    return new ScoringPlan(request, preference, coAccepts);
+  }
+
+  Integer budget() {
+    return budget;
+  }
+
+  /** The similarity table version the co-acceptance term was looked up in; {@code null} without one. */
+  String similarityVersion() {
+    return coAccepts.version();
+  }
+
+  /** Normalized diet/allergen tags from the profile. */
+  Set<String> hardAvoidTags() {
+    return hardAvoidTags;
+  }
+
+  Set<String> mustTags() {
+    return mustTags;
+  }
+
+  /** Lowercase query terms (no whitespace) that count towards the query match. */
+  String[] queryTerms() {
+    return queryTerms;
+  }
+
+  boolean hasMustTag(Item item) {
+    if (mustTags.isEmpty()) {
+      return false;
+    }
+    for (String normalized : item.searchTags()) {
+      if ((intern(normalized).flags & MUST) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  boolean hasHardAvoidTag(Item item) {
+    if (hardAvoidTags.isEmpty()) {
+      return false;
+    }
+    for (String normalized : item.searchTags()) {
+      if ((intern(normalized).flags & HARD_AVOID) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  record Scored(Item item, double score, List<Decision.Reason> reasons, Decision.ScoreBreakdown breakdown) {}
+
+  /** Scores {@code item} with its explanation. */
+  Scored score(Item item) {
+    return score(item, -1, true);
+  }
+
+  /**
+   * Scores {@code item} for ranking: {@link Scored#reasons()} is left {@code null}; call {@link #explain}
+   * on the candidates that are kept. A non-negative {@code queryHits} is the number of
+   * {@link #queryTerms()} the item matches, already resolved (e.g. from an inverted index); otherwise
+   * they are matched here.
+   */
+  Scored score(Item item, int queryHits) {
+    return score(item, queryHits, false);
+  }
+
+  /** {@code scored} with its explanation filled in; score and breakdown are unchanged. */
+  Scored explain(Scored scored) {
+    return scored.reasons() != null ? scored : score(scored.item(), -1, true);
+  }
+
+  private Scored score(Item item, int queryHits, boolean explain) {
+    double base = 1.0;
+    double score = base;
+    // Only explained scores record reasons; every note() below is a no-op otherwise.
+    List<Decision.Reason> why = explain ? new ArrayList<>(4) : null;
+
+    double budgetFit = 0.0;
+    double mustTagMatch = 0.0;
+    double avoidTagPenalty = 0.0;
+    double queryMatch = 0.0;
+    double restaurantAffinity = 0.0;
+    double tagAffinity = 0.0;
+    double priceSensitivity = 0.0;
+    double coAcceptAffinity = 0.0;
+
+    // Budget fit
+    Integer price = item.priceEstimate();
+    if (budget != null && price != null) {
+      if (price <= budget) {
+        budgetFit = 1.2;
+        score += budgetFit;
+        note(why, withinBudget);
+      } else {
+        budgetFit = -0.8;
+        score += budgetFit;
+        note(why, aboveBudget);
+      }
+    }
+
+    // Resolve the item's distinct normalized tags once; every tag signal below reads from this.
+    List<String> searchTags = item.searchTags();
+    int searchCount = searchTags.size();
+    TagInfo[] tags = TAG_SCRATCH.get();
+    if (tags.length < searchCount) {
+      tags = new TagInfo[searchCount];
+      TAG_SCRATCH.set(tags);
+    }
+    int tagCount = 0;
+    int mustMatched = 0;
+    int hardMatched = 0;
+    int profileAvoidMatched = 0;
+    int requestAvoidMatched = 0;
+    int preferMatched = 0;
+    int tagWeightSum = 0;
+    for (int i = 0; i < searchCount; i++) {
+      TagInfo tag = intern(searchTags.get(i));
+      tags[tagCount++] = tag;
+      int flags = tag.flags;
+      if ((flags & MUST) != 0) mustMatched++;
+      if ((flags & HARD_AVOID) != 0) hardMatched++;
+      if ((flags & PROFILE_AVOID) != 0) profileAvoidMatched++;
+      if ((flags & REQUEST_AVOID) != 0) requestAvoidMatched++;
+      if ((flags & PREFER) != 0) preferMatched++;
+      tagWeightSum += tag.weight;
+    }
+
+    // Tag matches
+    if (!mustTags.isEmpty()) {
+      if (mustMatched > 0) {
+        mustTagMatch = mustMatched * 0.7;
+        score += mustTagMatch;
+        addTagReasons(why, tags, tagCount, MUST, ReasonCode.MUST_TAG);
+      } else {
+        mustTagMatch = -0.4;
+        score += mustTagMatch;
+      }
+    }
+
+    // Hard avoids from explicit profile (diet/allergen).
+    if (hardMatched > 0) {
+      double penalty = -hardMatched * 5.0;
+      avoidTagPenalty += penalty;
+      score += penalty;
+      addTagReasons(why, tags, tagCount, HARD_AVOID, ReasonCode.HARD_AVOID_TAG);
+    }
+
+    // Avoid tags from explicit profile (stronger than request avoid tags).
+    if (profileAvoidMatched > 0) {
+      double penalty = -profileAvoidMatched * 3.0;
+      avoidTagPenalty += penalty;
+      score += penalty;
+      addTagReasons(why, tags, tagCount, PROFILE_AVOID, ReasonCode.PROFILE_AVOID_TAG);
+    }
+
+    // Avoid tags from the request.
+    if (requestAvoidMatched > 0) {
+      double penalty = -requestAvoidMatched * 1.5;
+      avoidTagPenalty += penalty;
+      score += penalty;
+      addTagReasons(why, tags, tagCount, REQUEST_AVOID, ReasonCode.REQUEST_AVOID_TAG);
+    }
+
+    RestaurantInfo restaurant = internRestaurant(item.restaurantKey());
+
+    // Text match (query / voice transcript). Terms never contain whitespace, so matching the item's
+    // tokens is equivalent to matching the space-joined "name restaurant tags" haystack.
+    if (hasQuery) {
+      long hits = Math.max(0, queryHits);
+      if (queryHits < 0) {
+        List<String> tokens = item.searchTokens();
+        for (String term : queryTerms) {
+          if (anyContains(tokens, term)) {
+            hits++;
+          }
+        }
+      }
+      if (hits > 0) {
+        queryMatch = hits * 0.5;
+        score += queryMatch;
+        note(why, QUERY_MATCH);
+      }
+    }
+
+    if (why != null && why.isEmpty()) {
+      why.add(SAFE_DEFAULT);
+    }
+
+    // Learned preferences (lightweight personalization)
+    if (preference != null) {
+      int restaurantWeight = restaurant == null ? 0 : restaurant.weight();
+      if (restaurantWeight != 0) {
+        double delta = restaurantWeight * 0.25;
+        restaurantAffinity += delta;
+        score += delta;
+        note(why, restaurantWeight > 0 ? LIKED_RESTAURANT : AVOIDED_RESTAURANT);
+      }
+
+      if (tagWeightSum != 0) {
+        double delta = tagWeightSum * 0.15;
+        tagAffinity += delta;
+        score += delta;
+        note(why, tagWeightSum > 0 ? LIKED_TAGS : CONFLICTING_TAGS);
+      }
+
+      // Price sensitivity learning from "TOO_PRICEY" rejections.
+      if (budget != null && price != null && price > budget) {
+        int penalty = preference.pricePenalty();
+        if (penalty > 0) {
+          priceSensitivity = -penalty * 0.2;
+          score += priceSensitivity;
+        }
+      }
+    }
+
+    // Items other users accepted along with the user's recent accepts.
+    Map<String, ItemSimilarity.Match> coAccepted = restaurant == null ? null : restaurant.coAccepted();
+    if (coAccepted != null) {
+      ItemSimilarity.Match match = coAccepted.get(normalizeText(item.name()));
+      if (match != null) {
+        coAcceptAffinity = match.similarity();
+        score += coAcceptAffinity;
+        if (why != null) {
+          why.add(new Decision.Reason(ReasonCode.CO_ACCEPTED, match.anchorName()));
+        }
+      }
+    }
+
+    // Explicit profile preferences (user-controlled)
+    if (hasProfile) {
+      if (restaurant != null && !restaurant.normalized().isBlank()) {
+        if (restaurant.preferred()) {
+          restaurantAffinity += 0.8;
+          score += 0.8;
+          note(why, PREFERRED_RESTAURANT);
+        }
+        if (restaurant.avoided()) {
+          restaurantAffinity -= 1.2;
+          score -= 1.2;
+          note(why, AVOID_RESTAURANT);
+        }
+      }
+
+      if (preferMatched > 0) {
+        double delta = preferMatched * 0.6;
+        tagAffinity += delta;
+        score += delta;
+        addTagReasons(why, tags, tagCount, PREFER, ReasonCode.PREFERRED_TAG);
+      }
+    }
+
+    Decision.ScoreBreakdown breakdown = new Decision.ScoreBreakdown(
+        base,
+        budgetFit,
+        mustTagMatch,
+        avoidTagPenalty,
+        queryMatch,
+        restaurantAffinity,
+        tagAffinity,
+        priceSensitivity,
+        coAcceptAffinity,
+        score
+    );
+
+    return new Scored(item, score, why, breakdown);
+  }
+
+  private static final class TagInfo {
+    final String normalized;
+    final int flags;
+    final int weight;
+
+    TagInfo(String normalized, int flags, int weight) {
+      this.normalized = normalized;
+      this.flags = flags;
+      this.weight = weight;
+    }
+  }
+
+  private record RestaurantInfo(
+      String normalized,
+      int weight,
+      boolean preferred,
+      boolean avoided,
+      Map<String, ItemSimilarity.Match> coAccepted
+  ) {}
+
+  private TagInfo intern(String normalized) {
+    TagInfo cached = tagsByNormalized.get(normalized);
+    if (cached != null) {
+      return cached;
+    }
+    return tagsByNormalized.computeIfAbsent(normalized, n -> {
+      int flags = (mustTags.contains(n) ? MUST : 0)
+          | (hardAvoidTags.contains(n) ? HARD_AVOID : 0)
+          | (profileAvoidTags.contains(n) ? PROFILE_AVOID : 0)
+          | (requestAvoidTags.contains(n) ? REQUEST_AVOID : 0)
+          | (preferTags.contains(n) ? PREFER : 0);
+      int weight = preference == null ? 0 : preference.tagWeightFor(n);
+      return new TagInfo(n, flags, weight);
+    });
+  }
+
+  private RestaurantInfo internRestaurant(String key) {
+    if (key == null || key.isEmpty()) {
+      return null;
+    }
+    RestaurantInfo cached = restaurantsByKey.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    return restaurantsByKey.computeIfAbsent(key, k -> new RestaurantInfo(
+        k,
+        preference == null ? 0 : preference.restaurantWeightFor(k),
+        preferRestaurants.contains(k),
+        avoidRestaurants.contains(k),
+        coAccepts.atRestaurant(k)
+    ));
+  }
+
+  private static void note(List<Decision.Reason> why, Decision.Reason reason) {
+    if (why != null) {
+      why.add(reason);
+    }
+  }
+
+  private static void addTagReasons(List<Decision.Reason> why, TagInfo[] tags, int count, int flag, ReasonCode code) {
+    if (why == null) {
+      return;
+    }
+    for (int i = 0; i < count; i++) {
+      if ((tags[i].flags & flag) != 0) {
+        why.add(new Decision.Reason(code, tags[i].normalized));
+      }
+    }
+  }
+
+  private static boolean anyContains(List<String> tokens, String term) {
+    for (int i = 0, n = tokens.size(); i < n; i++) {
+      if (tokens.get(i).contains(term)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static Set<String> normalizeTagSet(List<String> tags) {
+    if (tags == null || tags.isEmpty()) {
+      return Set.of();
+    }
+    return tags.stream()
+        .filter(Objects::nonNull)
+        .map(String::trim)
+        .filter(s -> !s.isBlank())
+        .map(s -> s.toLowerCase(Locale.ROOT))
+        .collect(Collectors.toUnmodifiableSet());
+  }
+
+  static String normalizeText(String s) {
+    if (s == null) {
+      return "";
+    }
+    return s.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static Set<String> orEmpty(Set<String> values) {
+    return values == null ? Set.of() : values;
+  }
+
+  private static Set<String> union(Set<String> a, Set<String> b) {
+    if (a.isEmpty() && b.isEmpty()) {
+      return Set.of();
+    }
+    Set<String> out = new HashSet<>(a);
+    out.addAll(b);
+    return Set.copyOf(out);
+  }
+}
@@ -0,0 +1,20 @@
+package com.mealpilot.api.decide;
+
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * How far an incremental job has processed decision feedback: everything up to {@code watermark}.
+ *
+ * <p>A run holds the job's lease ({@code leaseOwner} until {@code leaseExpiresAt}) while it counts, and
+ * records the end of its window in {@code pendingUntil} until the watermark moves there.
+ */
+@Document("similarity_watermarks")
+public record SimilarityWatermark(
+    @Id String job,
+    Instant watermark,
+    Instant pendingUntil,
+    String leaseOwner,
+    Instant leaseExpiresAt
+) {}
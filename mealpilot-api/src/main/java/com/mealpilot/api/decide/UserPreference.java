@@ -1,7 +1,9 @@
 package com.mealpilot.api.decide;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import org.springframework.data.annotation.Id;
@@ -15,9 +17,13 @@ public record UserPreference(
     int pricePenalty,
     Instant updatedAt,
     Integer schemaVersion,
-    PreferenceProfile profile
+    PreferenceProfile profile,
+    List<String> recentAccepts
 ) {
 
+  /** How many accepted items {@link #recentAccepts()} keeps, newest first. */
+  static final int MAX_RECENT_ACCEPTS = 20;
+
   public UserPreference(
       String userId,
       Map<String, Integer> tagWeights,
@@ -28,10 +34,27 @@ public record UserPreference(
     this(userId, tagWeights, restaurantWeights, pricePenalty, updatedAt, null, null);
   }
 
+  public UserPreference(
+      String userId,
+      Map<String, Integer> tagWeights,
+      Map<String, Integer> restaurantWeights,
+      int pricePenalty,
+      Instant updatedAt,
+      Integer schemaVersion,
+      PreferenceProfile profile
+  ) {
+    this(userId, tagWeights, restaurantWeights, pricePenalty, updatedAt, schemaVersion, profile, List.of());
+  }
+
   public static UserPreference empty(String userId) {
     return new UserPreference(userId, Map.of(), Map.of(), 0, Instant.now(), 2, PreferenceProfile.empty());
   }
 
+  /** Item keys ({@link ItemSimilarity#key}) of the items the user accepted most recently, newest first. */
+  public List<String> effectiveRecentAccepts() {
+    return recentAccepts == null ? List.of() : recentAccepts;
+  }
+
   public PreferenceProfile effectiveProfile() {
     return profile == null ? PreferenceProfile.empty() : profile;
   }
@@ -44,7 +67,8 @@ public record UserPreference(
         pricePenalty,
         Instant.now(),
         2,
-        profile == null ? PreferenceProfile.empty() : profile
+        profile == null ? PreferenceProfile.empty() : profile,
+        effectiveRecentAccepts()
     );
   }
 
@@ -99,8 +123,10 @@ public record UserPreference(
       newPricePenalty = clamp(pricePenalty + 1, 0, 5);
     }
 
+    List<String> newRecentAccepts = effectiveRecentAccepts();
     if (feedback.status() == Decision.FeedbackStatus.ACCEPT) {
       newPricePenalty = clamp(pricePenalty - 1, 0, 5);
+      newRecentAccepts = withRecentAccept(newRecentAccepts, ItemSimilarity.key(topItem.restaurantName(), topItem.name()));
     }
 
     return new UserPreference(
@@ -110,7 +136,8 @@ public record UserPreference(
         newPricePenalty,
         Instant.now(),
         schemaVersion == null ? 2 : schemaVersion,
-        profile
+        profile,
+        newRecentAccepts
     );
   }
 
@@ -123,8 +150,29 @@ public record UserPreference(
       java.util.Set<String> avoidRestaurants,
       java.util.Set<String> dietaryRestrictions,
       java.util.Set<String> allergens,
-      String notes
+      String notes,
+      java.util.Set<String> sharedWith
   ) {
+    public PreferenceProfile(
+        Integer budgetMin,
+        Integer budgetMax,
+        java.util.Set<String> preferTags,
+        java.util.Set<String> avoidTags,
+        java.util.Set<String> preferRestaurants,
+        java.util.Set<String> avoidRestaurants,
+        java.util.Set<String> dietaryRestrictions,
+        java.util.Set<String> allergens,
+        String notes
+    ) {
+      this(budgetMin, budgetMax, preferTags, avoidTags, preferRestaurants, avoidRestaurants,
+          dietaryRestrictions, allergens, notes, java.util.Set.of());
+    }
+
+    /** Whether {@code userId} may include this user in a group decide. */
+    public boolean isSharedWith(String userId) {
+      return sharedWith != null && sharedWith.contains(userId);
+    }
+
     public static PreferenceProfile empty() {
       return new PreferenceProfile(
           null,
@@ -135,11 +183,26 @@ public record UserPreference(
           java.util.Set.of(),
           java.util.Set.of(),
           java.util.Set.of(),
-          null
+          null,
+          java.util.Set.of()
       );
     }
   }
 
+  private static List<String> withRecentAccept(List<String> recent, String key) {
+    List<String> next = new ArrayList<>(Math.min(recent.size() + 1, MAX_RECENT_ACCEPTS));
+    next.add(key);
+    for (String existing : recent) {
+      if (next.size() == MAX_RECENT_ACCEPTS) {
+        break;
+      }
+      if (!existing.equals(key)) {
+        next.add(existing);
+      }
+    }
+    return List.copyOf(next);
+  }
+
   private static void bump(Map<String, Integer> map, String key, int delta) {
     int next = clamp(map.getOrDefault(key, 0) + delta, -5, 5);
     if (next == 0) {
@@ -0,0 +1,151 @@
+package com.mealpilot.api.decide;
+
+import com.mealpilot.api.common.BoundedCache;
+import com.mealpilot.api.common.Hashing;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-through cache of {@link UserPreference} documents, shared by decide and the preference
+ * endpoints.
+ *
+ * <p>Every preference write in this service goes through {@link #save(UserPreference)}, which stores
+ * the saved document in the cache. The reproducibility hash recorded in {@code DecisionMeta} is
+ * computed once per stored version rather than on every decide. Entries are versioned by {@code updatedAt}, so a read that
+ * finishes after a concurrent write cannot replace newer learned weights with older ones. The TTL
+ * bounds staleness for writes made by other API instances.
+ */
+@Component
+public class UserPreferenceCache {
+
+  private final UserPreferenceRepository userPreferenceRepository;
+  private final boolean enabled;
+  private final BoundedCache<String, Snapshot> cache;
+
+  public UserPreferenceCache(
+      UserPreferenceRepository userPreferenceRepository,
+      MeterRegistry meterRegistry,
+      @Value("${mealpilot.cache.preferences.enabled:true}") boolean enabled,
+      @Value("${mealpilot.cache.preferences.max-entries:50000}") long maxEntries,
+      @Value("${mealpilot.cache.preferences.ttl:PT5M}") Duration ttl
+  ) {
+    this.userPreferenceRepository = userPreferenceRepository;
+    this.enabled = enabled;
+    this.cache = new BoundedCache<>("user_preferences", maxEntries, ttl, pref -> 1L, meterRegistry);
+  }
+
+  /**
+   * A stored preference version together with its reproducibility hash.
+   */
+  public record Snapshot(UserPreference preference, String preferenceHash) {
+    static Snapshot of(UserPreference preference) {
+      return new Snapshot(preference, hashPreference(preference));
+    }
+  }
+
+  /**
+   * The user's preferences, or {@link UserPreference#empty(String)} when none are stored.
+   */
+  public Mono<UserPreference> get(String userId) {
+    return snapshot(userId).map(Snapshot::preference);
+  }
+
+  public Mono<Snapshot> snapshot(String userId) {
+    if (!enabled) {
+      return load(userId).map(Snapshot::of);
+    }
+
+    return Mono.defer(() -> {
+      Snapshot cached = cache.get(userId);
+      if (cached != null) {
+        return Mono.just(cached);
+      }
+      return load(userId).map(this::remember);
+    });
+  }
+
+  /**
+   * Fresh read from Mongo, for read-modify-write paths.
+   */
+  public Mono<UserPreference> load(String userId) {
+    return userPreferenceRepository.findById(userId)
+        .defaultIfEmpty(UserPreference.empty(userId));
+  }
+
+  /** {@link #load(String)} with its reproducibility hash; does not touch the cache. */
+  public Mono<Snapshot> loadSnapshot(String userId) {
+    return load(userId).map(Snapshot::of);
+  }
+
+  public Mono<UserPreference> save(UserPreference preference) {
+    return userPreferenceRepository.save(preference)
+        .doOnNext(this::remember);
+  }
+
+  public void invalidate(String userId) {
+    cache.invalidate(userId);
+  }
+
+  private Snapshot remember(UserPreference preference) {
+    Snapshot snapshot = Snapshot.of(preference);
+    if (enabled && preference.userId() != null) {
+      cache.merge(preference.userId(), snapshot, UserPreferenceCache::newer);
+    }
+    return snapshot;
+  }
+
+  private static Snapshot newer(Snapshot cached, Snapshot incoming) {
+    Instant a = cached.preference().updatedAt();
+    Instant b = incoming.preference().updatedAt();
+    if (a != null && b != null && a.isAfter(b)) {
+      return cached;
+    }
+    return incoming;
+  }
+
+  static String hashPreference(UserPreference preference) {
+    if (preference == null) {
+      return null;
+    }
+
+    Map<String, Integer> tags = new TreeMap<>(preference.tagWeights() == null ? Map.of() : preference.tagWeights());
+    Map<String, Integer> restaurants = new TreeMap<>(
+        preference.restaurantWeights() == null ? Map.of() : preference.restaurantWeights()
+    );
+
+    UserPreference.PreferenceProfile profile = preference.effectiveProfile();
+    String profileNormalized = "budgetMin=" + profile.budgetMin()
+        + "|budgetMax=" + profile.budgetMax()
+        + "|preferTags=" + joinSorted(profile.preferTags())
+        + "|avoidTags=" + joinSorted(profile.avoidTags())
+        + "|preferRestaurants=" + joinSorted(profile.preferRestaurants())
+        + "|avoidRestaurants=" + joinSorted(profile.avoidRestaurants())
+        + "|dietaryRestrictions=" + joinSorted(profile.dietaryRestrictions())
+        + "|allergens=" + joinSorted(profile.allergens());
+
+    String normalized = "tags=" + tags
+        + "|restaurants=" + restaurants
+        + "|pricePenalty=" + preference.pricePenalty()
+        + "|updatedAt=" + (preference.updatedAt() == null ? "" : preference.updatedAt().toString())
+        + "|schemaVersion=" + preference.schemaVersion()
+        + "|profile=" + profileNormalized;
+
+    return Hashing.sha256Hex(normalized);
+  }
+
+  private static String joinSorted(Set<String> values) {
+    if (values == null || values.isEmpty()) {
+      return "";
+    }
+    return new TreeSet<>(values).stream().collect(Collectors.joining(","));
+  }
+}
@@ -0,0 +1,79 @@
+package com.mealpilot.api.items;
+
+import com.mealpilot.api.common.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Order-independent fingerprint of a set of items, keyed on {@code id} and {@code updatedAt}.
+ *
+ * <p>Each item contributes 128 bits of its SHA-256 digest, combined with XOR. Adding and removing an
+ * item are the same operation, so the fingerprint can be accumulated while streaming a catalog and
+ * maintained incrementally as items change, without sorting or re-reading the whole catalog.
+ */
+public final class CatalogFingerprint {
+
+  private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  });
+
+  private long hi;
+  private long lo;
+  private int count;
+
+  public CatalogFingerprint() {}
+
+  private CatalogFingerprint(long hi, long lo, int count) {
+    this.hi = hi;
+    this.lo = lo;
+    this.count = count;
+  }
+
+  public void add(Item item) {
+    toggle(item);
+    count++;
+  }
+
+  public void remove(Item item) {
+    toggle(item);
+    count--;
+  }
+
+  public int count() {
+    return count;
+  }
+
+  public CatalogFingerprint copy() {
+    return new CatalogFingerprint(hi, lo, count);
+  }
+
+  /**
+   * Hex digest of the fingerprint, or {@code null} for an empty catalog.
+   */
+  public String value() {
+    if (count <= 0) {
+      return null;
+    }
+    return Hashing.sha256Hex("catalog-v2|" + count + "|" + Long.toHexString(hi) + "|" + Long.toHexString(lo));
+  }
+
+  private void toggle(Item item) {
+    String key = item.id() + ":" + (item.updatedAt() == null ? "" : item.updatedAt().toString());
+    byte[] digest = DIGEST.get().digest(key.getBytes(StandardCharsets.UTF_8));
+    hi ^= readLong(digest, 0);
+    lo ^= readLong(digest, 8);
+  }
+
+  private static long readLong(byte[] bytes, int offset) {
+    long v = 0;
+    for (int i = 0; i < 8; i++) {
+      v = (v << 8) | (bytes[offset + i] & 0xFFL);
+    }
+    return v;
+  }
+}
@@ -1,11 +1,28 @@
 package com.mealpilot.api.items;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+/**
+ * A saved dish.
+ *
+ * <p>{@code searchTags}, {@code restaurantKey} and {@code searchTokens} are derived from the name,
+ * restaurant and tags when the item is written, so decide never has to normalize strings per
+ * request: trimmed lowercase distinct tags, the trimmed lowercase restaurant name, and the sorted
+ * distinct whitespace tokens of all three. Documents written before these fields existed have them
+ * derived on read until {@code MongoSchemaMigrations} backfills them. Only {@code searchTags} is
+ * indexed: tokens are matched in memory ({@code ItemIndex}).
+ */
 @Document("items")
+@CompoundIndex(name = "items_user_active_search_tags", def = "{ 'userId': 1, 'active': 1, 'searchTags': 1 }")
 public record Item(
     @Id String id,
     String userId,
@@ -16,5 +33,73 @@ public record Item(
     Integer priceEstimate,
     boolean active,
     Instant createdAt,
-    Instant updatedAt
-) {}
+    Instant updatedAt,
+    @JsonIgnore List<String> searchTags,
+    @JsonIgnore String restaurantKey,
+    @JsonIgnore List<String> searchTokens
+) {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  public Item {
+    if (searchTags == null) {
+      searchTags = searchTagsOf(tags);
+    }
+    if (restaurantKey == null) {
+      restaurantKey = normalize(restaurantName);
+    }
+    if (searchTokens == null) {
+      searchTokens = searchTokensOf(name, restaurantName, tags);
+    }
+  }
+
+  public Item(
+      String id,
+      String userId,
+      String name,
+      String restaurantName,
+      List<String> tags,
+      List<String> platformHints,
+      Integer priceEstimate,
+      boolean active,
+      Instant createdAt,
+      Instant updatedAt
+  ) {
+    this(id, userId, name, restaurantName, tags, platformHints, priceEstimate, active, createdAt, updatedAt,
+        null, null, null);
+  }
+
+  static List<String> searchTagsOf(List<String> tags) {
+    if (tags == null || tags.isEmpty()) {
+      return List.of();
+    }
+    return tags.stream()
+        .map(Item::normalize)
+        .filter(tag -> !tag.isEmpty())
+        .distinct()
+        .toList();
+  }
+
+  static List<String> searchTokensOf(String name, String restaurantName, List<String> tags) {
+    TreeSet<String> out = new TreeSet<>();
+    addTokens(out, name);
+    addTokens(out, restaurantName);
+    if (tags != null) {
+      for (String tag : tags) {
+        addTokens(out, tag);
+      }
+    }
+    return List.copyOf(out);
+  }
+
+  private static void addTokens(TreeSet<String> out, String text) {
+    String normalized = normalize(text);
+    if (!normalized.isEmpty()) {
+      out.addAll(Arrays.asList(WHITESPACE.split(normalized)));
+    }
+  }
+
+  private static String normalize(String s) {
+    return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+  }
+}
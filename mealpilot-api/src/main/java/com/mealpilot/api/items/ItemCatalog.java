@@ -0,0 +1,123 @@
+package com.mealpilot.api.items;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of a user's active items together with their {@link CatalogFingerprint}.
+ *
+ * <p>The fingerprint is computed once when the catalog is loaded and then maintained per write by
+ * {@link #with(Item)}, so readers get {@link #itemsHash()} without touching the items. The
+ * {@link ItemIndex} is built on first use and, once built, carried forward incrementally as well.
+ * Item order carries no meaning.
+ */
+public final class ItemCatalog {
+
+  private static final ItemCatalog EMPTY = new ItemCatalog(List.of(), new CatalogFingerprint(), null);
+
+  private final List<Item> items;
+  private final CatalogFingerprint fingerprint;
+  private final String itemsHash;
+  private volatile ItemIndex index;
+
+  private ItemCatalog(List<Item> items, CatalogFingerprint fingerprint, ItemIndex index) {
+    this.items = items;
+    this.fingerprint = fingerprint;
+    this.itemsHash = fingerprint.value();
+    this.index = index;
+  }
+
+  public static ItemCatalog of(List<Item> items) {
+    if (items == null || items.isEmpty()) {
+      return EMPTY;
+    }
+    CatalogFingerprint fingerprint = new CatalogFingerprint();
+    for (Item item : items) {
+      fingerprint.add(item);
+    }
+    return new ItemCatalog(List.copyOf(items), fingerprint, null);
+  }
+
+  public List<Item> items() {
+    return items;
+  }
+
+  public int size() {
+    return items.size();
+  }
+
+  public boolean isEmpty() {
+    return items.isEmpty();
+  }
+
+  /**
+   * Order-independent fingerprint of the catalog, or {@code null} when it is empty.
+   */
+  public String itemsHash() {
+    return itemsHash;
+  }
+
+  /**
+   * Inverted index over {@link #items()}, built on first call.
+   */
+  public ItemIndex index() {
+    ItemIndex current = index;
+    if (current == null) {
+      // Racing builders produce identical indexes; keeping either is fine.
+      current = ItemIndex.build(items);
+      index = current;
+    }
+    return current;
+  }
+
+  /**
+   * This catalog after a persisted write of {@code item}: replaced in place by id, appended when new,
+   * or removed when it is no longer active. Removal moves the last item into the freed slot so the
+   * index only has to touch two ordinals.
+   */
+  public ItemCatalog with(Item item) {
+    int ordinal = -1;
+    for (int i = 0; i < items.size(); i++) {
+      if (Objects.equals(items.get(i).id(), item.id())) {
+        ordinal = i;
+        break;
+      }
+    }
+    if (ordinal < 0 && !item.active()) {
+      return this;
+    }
+
+    CatalogFingerprint next = fingerprint.copy();
+    ItemIndex nextIndex = index;
+    List<Item> out = new ArrayList<>(items);
+
+    if (ordinal >= 0) {
+      Item existing = items.get(ordinal);
+      next.remove(existing);
+      if (item.active()) {
+        out.set(ordinal, item);
+        nextIndex = nextIndex == null ? null : nextIndex.update(ordinal, existing, item);
+      } else {
+        int last = out.size() - 1;
+        Item moved = out.remove(last);
+        if (ordinal != last) {
+          out.set(ordinal, moved);
+        }
+        if (nextIndex != null) {
+          nextIndex = ordinal == last
+              ? nextIndex.update(ordinal, existing, null)
+              : nextIndex.update(ordinal, existing, moved).update(last, moved, null);
+        }
+      }
+    } else {
+      out.add(item);
+      nextIndex = nextIndex == null ? null : nextIndex.update(out.size() - 1, null, item);
+    }
+
+    if (item.active()) {
+      next.add(item);
+    }
+    return new ItemCatalog(List.copyOf(out), next, nextIndex);
+  }
+}
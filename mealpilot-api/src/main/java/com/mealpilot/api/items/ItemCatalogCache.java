@@ -0,0 +1,154 @@
+package com.mealpilot.api.items;
+
+import com.mealpilot.api.common.BoundedCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Per-user cache of the active item catalog used by decide.
+ *
+ * <p>Item writes go through {@link #apply(Item)} so cached catalogs, and their fingerprints, are
+ * updated in place instead of being reloaded. The TTL bounds staleness when another API instance writes the same user's items.
+ */
+@Component
+public class ItemCatalogCache {
+
+  private final ItemRepository itemRepository;
+  private final boolean enabled;
+  private final int maxItems;
+  private final BoundedCache<String, ItemCatalog> cache;
+
+  // Loads in flight, keyed by user. A write for the user drops the token so a load that started
+  // before the write cannot publish a stale catalog.
+  private final Map<String, Object> pendingLoads = new ConcurrentHashMap<>();
+
+  public ItemCatalogCache(
+      ItemRepository itemRepository,
+      MeterRegistry meterRegistry,
+      @Value("${mealpilot.cache.catalog.enabled:true}") boolean enabled,
+      @Value("${mealpilot.cache.catalog.max-bytes:67108864}") long maxBytes,
+      @Value("${mealpilot.cache.catalog.ttl:PT10M}") Duration ttl,
+      @Value("${mealpilot.decide.catalog.max-items:0}") int maxItems
+  ) {
+    this.itemRepository = itemRepository;
+    this.enabled = enabled;
+    this.maxItems = Math.max(0, maxItems);
+    this.cache = new BoundedCache<>("item_catalog", maxBytes, ttl, ItemCatalogCache::estimateBytes, meterRegistry);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * The user's active items. A cache miss loads them from Mongo and publishes the catalog to the
+   * cache once the query completes.
+   */
+  public Mono<ItemCatalog> catalog(String userId) {
+    return catalog(userId, Set.of());
+  }
+
+  /**
+   * Like {@link #catalog(String)}, but lets Mongo drop items tagged with any of {@code excludeTags}
+   * when the catalog is not cached. Cached catalogs are shared by all requests of the user and always
+   * hold every active item, so callers must still filter them.
+   */
+  public Mono<ItemCatalog> catalog(String userId, Set<String> excludeTags) {
+    if (!enabled) {
+      return load(userId, excludeTags);
+    }
+
+    return Mono.defer(() -> {
+      ItemCatalog cached = cache.get(userId);
+      if (cached != null) {
+        return Mono.just(cached);
+      }
+
+      Object token = new Object();
+      pendingLoads.put(userId, token);
+
+      return load(userId, Set.of())
+          .doOnNext(catalog -> {
+            if (pendingLoads.remove(userId, token)) {
+              cache.put(userId, catalog);
+            }
+          })
+          .doFinally(signal -> pendingLoads.remove(userId, token));
+    });
+  }
+
+  /**
+   * Reflects a persisted item write in the cached catalog of its owner (insert, replace, or remove
+   * when the item is no longer active).
+   */
+  public void apply(Item item) {
+    if (!enabled || item == null || item.userId() == null) {
+      return;
+    }
+
+    pendingLoads.remove(item.userId());
+    cache.updateIfPresent(item.userId(), catalog -> catalog.with(item));
+  }
+
+  public void invalidate(String userId) {
+    if (userId == null) {
+      return;
+    }
+    pendingLoads.remove(userId);
+    cache.invalidate(userId);
+  }
+
+  /**
+   * Fresh read from Mongo, bypassing (and not filling) the cache, for results that outlive the TTL
+   * and must not be built from a catalog another instance has since written.
+   */
+  public Mono<ItemCatalog> load(String userId, Set<String> excludeTags) {
+    Flux<Item> items = excludeTags.isEmpty() && maxItems == 0
+        ? itemRepository.findAllByUserIdAndActiveIsTrue(userId)
+        : itemRepository.findDecideCandidates(userId, excludeTags, maxItems);
+    return items
+        .collectList()
+        .map(ItemCatalog::of);
+  }
+
+  private static long estimateBytes(ItemCatalog catalog) {
+    long total = 128;
+    for (Item item : catalog.items()) {
+      total += estimateBytes(item);
+    }
+    return total;
+  }
+
+  private static long estimateBytes(Item item) {
+    // Rough shallow+string estimate; good enough to keep the cache within its budget.
+    long size = 96;
+    size += stringBytes(item.id()) + stringBytes(item.userId()) + stringBytes(item.name())
+        + stringBytes(item.restaurantName()) + stringBytes(item.restaurantKey());
+    size += listBytes(item.tags()) + listBytes(item.platformHints());
+    size += listBytes(item.searchTags()) + listBytes(item.searchTokens());
+    return size;
+  }
+
+  private static long listBytes(List<String> values) {
+    if (values == null) {
+      return 0;
+    }
+    long size = 32;
+    for (String v : values) {
+      size += 8 + stringBytes(v);
+    }
+    return size;
+  }
+
+  private static long stringBytes(String s) {
+    return s == null ? 0 : 40 + s.length();
+  }
+}
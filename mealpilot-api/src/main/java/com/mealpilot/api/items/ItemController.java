@@ -1,5 +1,6 @@
 package com.mealpilot.api.items;
 
+import com.mealpilot.api.decide.ReadyDecisions;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -23,10 +24,19 @@ public class ItemController {
 
   private final ItemRepository repo;
   private final ItemHistoryService itemHistoryService;
-
-  public ItemController(ItemRepository repo, ItemHistoryService itemHistoryService) {
+  private final ItemCatalogCache catalogCache;
+  private final ReadyDecisions readyDecisions;
+
+  public ItemController(
+      ItemRepository repo,
+      ItemHistoryService itemHistoryService,
+      ItemCatalogCache catalogCache,
+      ReadyDecisions readyDecisions
+  ) {
     this.repo = repo;
     this.itemHistoryService = itemHistoryService;
+    this.catalogCache = catalogCache;
+    this.readyDecisions = readyDecisions;
   }
 
   @GetMapping
@@ -104,7 +114,8 @@ public class ItemController {
         now
     );
 
-    return repo.save(item);
+    return repo.save(item)
+        .flatMap(this::applied);
   }
 
   public record UpdateItemRequest(
@@ -143,7 +154,8 @@ public class ItemController {
               now
           );
 
-          return repo.save(updated);
+          return repo.save(updated)
+              .flatMap(this::applied);
         });
   }
 
@@ -173,10 +185,21 @@ public class ItemController {
               Instant.now()
           );
 
-          return repo.save(deleted).then();
+          return repo.save(deleted)
+              .flatMap(this::applied)
+              .then();
         });
   }
 
+  /**
+   * Reflects a persisted item write in the catalog cache and completes once the user's ready decision
+   * is dropped, so the response never precedes it.
+   */
+  private Mono<Item> applied(Item item) {
+    catalogCache.apply(item);
+    return readyDecisions.invalidate(item.userId()).thenReturn(item);
+  }
+
   private static int clamp(Integer value, int min, int max, int defaultValue) {
     if (value == null) {
       return defaultValue;
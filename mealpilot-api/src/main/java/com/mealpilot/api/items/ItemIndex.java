@@ -0,0 +1,133 @@
+package com.mealpilot.api.items;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Inverted index over an {@link ItemCatalog}: each item's {@link Item#searchTags()} and
+ * {@link Item#searchTokens()}, mapped to bitmaps of item ordinals (positions in
+ * {@link ItemCatalog#items()}).
+ *
+ * <p>Instances are immutable. {@link #update(int, Item, Item)} returns a copy that shares every
+ * bitmap except the ones the change touches.
+ */
+public final class ItemIndex {
+
+  private final Map<String, RoaringBitmap> tags;
+  private final Map<String, RoaringBitmap> tokens;
+
+  private ItemIndex(Map<String, RoaringBitmap> tags, Map<String, RoaringBitmap> tokens) {
+    this.tags = tags;
+    this.tokens = tokens;
+  }
+
+  static ItemIndex build(List<Item> items) {
+    Map<String, RoaringBitmap> tags = new HashMap<>();
+    Map<String, RoaringBitmap> tokens = new HashMap<>();
+    for (int ordinal = 0; ordinal < items.size(); ordinal++) {
+      Item item = items.get(ordinal);
+      for (String tag : item.searchTags()) {
+        tags.computeIfAbsent(tag, t -> new RoaringBitmap()).add(ordinal);
+      }
+      for (String token : item.searchTokens()) {
+        tokens.computeIfAbsent(token, t -> new RoaringBitmap()).add(ordinal);
+      }
+    }
+    for (RoaringBitmap bitmap : tags.values()) {
+      bitmap.runOptimize();
+    }
+    for (RoaringBitmap bitmap : tokens.values()) {
+      bitmap.runOptimize();
+    }
+    return new ItemIndex(tags, tokens);
+  }
+
+  /**
+   * This index with the item at {@code ordinal} changed from {@code before} to {@code after}; either
+   * may be {@code null} (slot was empty / becomes empty).
+   */
+  ItemIndex update(int ordinal, Item before, Item after) {
+    return new ItemIndex(
+        patch(tags, ordinal, before == null ? Set.of() : tagsOf(before), after == null ? Set.of() : tagsOf(after)),
+        patch(tokens, ordinal, before == null ? Set.of() : tokensOf(before), after == null ? Set.of() : tokensOf(after))
+    );
+  }
+
+  /** Ordinals of items carrying any of the normalized {@code tags}. */
+  public RoaringBitmap withAnyTag(Collection<String> tags) {
+    RoaringBitmap out = new RoaringBitmap();
+    for (String tag : tags) {
+      RoaringBitmap bitmap = this.tags.get(tag);
+      if (bitmap != null) {
+        out.or(bitmap);
+      }
+    }
+    return out;
+  }
+
+  /**
+   * Ordinals of items whose name, restaurant or tags contain {@code term} (lowercase, no whitespace)
+   * as a substring. Terms cannot span whitespace, so matching tokens is equivalent to matching the
+   * whole field.
+   */
+  public RoaringBitmap containing(String term) {
+    RoaringBitmap out = new RoaringBitmap();
+    for (Map.Entry<String, RoaringBitmap> entry : tokens.entrySet()) {
+      if (entry.getKey().contains(term)) {
+        out.or(entry.getValue());
+      }
+    }
+    return out;
+  }
+
+  private static Map<String, RoaringBitmap> patch(
+      Map<String, RoaringBitmap> postings,
+      int ordinal,
+      Set<String> removed,
+      Set<String> added
+  ) {
+    if (removed.isEmpty() && added.isEmpty()) {
+      return postings;
+    }
+
+    Map<String, RoaringBitmap> out = new HashMap<>(postings);
+    for (String key : removed) {
+      if (added.contains(key)) {
+        continue;
+      }
+      RoaringBitmap bitmap = out.get(key);
+      if (bitmap == null) {
+        continue;
+      }
+      RoaringBitmap copy = bitmap.clone();
+      copy.remove(ordinal);
+      if (copy.isEmpty()) {
+        out.remove(key);
+      } else {
+        out.put(key, copy);
+      }
+    }
+    for (String key : added) {
+      RoaringBitmap bitmap = out.get(key);
+      if (bitmap != null && bitmap.contains(ordinal)) {
+        continue;
+      }
+      RoaringBitmap copy = bitmap == null ? new RoaringBitmap() : bitmap.clone();
+      copy.add(ordinal);
+      out.put(key, copy);
+    }
+    return out;
+  }
+
+  private static Set<String> tagsOf(Item item) {
+    return Set.copyOf(item.searchTags());
+  }
+
+  private static Set<String> tokensOf(Item item) {
+    return Set.copyOf(item.searchTokens());
+  }
+}
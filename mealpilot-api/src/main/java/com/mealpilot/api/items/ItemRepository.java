@@ -3,6 +3,6 @@ package com.mealpilot.api.items;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 
-public interface ItemRepository extends ReactiveCrudRepository<Item, String> {
+public interface ItemRepository extends ReactiveCrudRepository<Item, String>, ItemRepositoryCustom {
   Flux<Item> findAllByUserIdAndActiveIsTrue(String userId);
 }
@@ -0,0 +1,16 @@
+package com.mealpilot.api.items;
+
+import java.util.Collection;
+import reactor.core.publisher.Flux;
+
+public interface ItemRepositoryCustom {
+
+  /**
+   * Active items for decide, served from the {@code {userId, active, tags}} index.
+   *
+   * @param excludeTags normalized tags; items carrying any of them (case-insensitively) are filtered
+   *     out by Mongo
+   * @param maxItems when positive, only the most recently updated {@code maxItems} items are returned
+   */
+  Flux<Item> findDecideCandidates(String userId, Collection<String> excludeTags, int maxItems);
+}
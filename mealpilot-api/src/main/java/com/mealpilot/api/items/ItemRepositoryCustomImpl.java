@@ -0,0 +1,51 @@
+package com.mealpilot.api.items;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+
+  // Fields decide reads (scoring, fingerprint, summaries and deep links).
+  private static final String[] DECIDE_FIELDS = {
+      "userId", "name", "restaurantName", "tags", "platformHints", "priceEstimate", "active", "createdAt", "updatedAt",
+      "searchTags", "restaurantKey", "searchTokens"
+  };
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  ItemRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Flux<Item> findDecideCandidates(String userId, Collection<String> excludeTags, int maxItems) {
+    Criteria criteria = Criteria.where("userId").is(userId).and("active").is(true);
+
+    if (excludeTags != null && !excludeTags.isEmpty()) {
+      // searchTags are normalized on write, so this is an exact, indexed match. Documents not yet
+      // backfilled have no searchTags and pass through; ranking drops them in memory.
+      List<String> normalized = excludeTags.stream()
+          .filter(Objects::nonNull)
+          .map(tag -> tag.trim().toLowerCase(Locale.ROOT))
+          .toList();
+      criteria = criteria.and("searchTags").nin(normalized);
+    }
+
+    Query query = new Query(criteria);
+    query.fields().include(DECIDE_FIELDS);
+
+    if (maxItems > 0) {
+      query.with(Sort.by(Sort.Order.desc("updatedAt"), Sort.Order.desc("_id")));
+      query.limit(maxItems);
+    }
+
+    return mongoTemplate.find(query, Item.class);
+  }
+}
@@ -1,5 +1,6 @@
 package com.mealpilot.api.ops;
 
+import com.mealpilot.api.items.Item;
 import java.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +45,31 @@ public class MongoSchemaMigrations implements ApplicationRunner {
         })
         .block(Duration.ofSeconds(30));
 
-    log.info("Mongo migrations complete: user_preferences.schemaVersion backfilled on {} docs", updated);
+    // Items written before the derived search fields existed get them derived on read (see Item);
+    // storing them lets Mongo index searchTags.
+    long items = mongo.find(new Query(Criteria.where("searchTokens").exists(false)), Item.class)
+        .flatMap(item -> mongo.updateFirst(
+            Query.query(Criteria.where("_id").is(item.id())),
+            new Update()
+                .set("searchTags", item.searchTags())
+                .set("restaurantKey", item.restaurantKey())
+                .set("searchTokens", item.searchTokens()),
+            Item.class
+        ), 16)
+        .count()
+        .onErrorResume(e -> {
+          log.warn("Item search fields backfill failed", e);
+          return reactor.core.publisher.Mono.just(0L);
+        })
+        .block(Duration.ofMinutes(5));
+
+    // Token matching happens in memory; the index once declared on them only slowed item writes.
+    boolean droppedTokenIndex = mongo.indexOps(Item.class).dropIndex("items_user_search_tokens")
+        .thenReturn(true)
+        .onErrorResume(e -> reactor.core.publisher.Mono.just(false))
+        .block(Duration.ofSeconds(30));
+
+    log.info("Mongo migrations complete: user_preferences.schemaVersion backfilled on {} docs, "
+        + "items search fields on {} docs, items_user_search_tokens dropped: {}", updated, items, droppedTokenIndex);
   }
 }
@@ -0,0 +1,89 @@
+package com.mealpilot.api.decide;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mealpilot.api.items.Item;
+import com.mealpilot.api.items.ItemCatalog;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class CandidateRankingTest {
+
+  private static final List<String> TAGS = List.of("Spicy", "veg", " peanut", "comfort food", "rice", "Sweet");
+  private static final List<String> WORDS = List.of("Paneer", "tikka", "Biryani", "dal", "Pad", "thai", "noodle", "bowl");
+
+  @Test
+  void acceptAll_indexedMatchesPlainScan() {
+    ItemCatalog catalog = ItemCatalog.of(randomItems(new Random(7), 300));
+    UserPreference preference = UserPreference.empty("u").withProfile(new UserPreference.PreferenceProfile(
+        null, 300, Set.of("rice"), Set.of(), Set.of(), Set.of(), Set.of(), Set.of("peanut"), null
+    ));
+    DecideController.DecideRequest request =
+        new DecideController.DecideRequest(null, List.of("spicy", "comfort food"), null, "biryani THAI", 10);
+
+    for (boolean strict : List.of(false, true)) {
+      assertThat(rank(catalog, request, preference, strict, true))
+          .isEqualTo(rank(catalog, request, preference, strict, false));
+    }
+  }
+
+  @Test
+  void acceptAll_indexStaysConsistentAcrossCatalogWrites() {
+    Random random = new Random(11);
+    List<Item> items = randomItems(random, 50);
+    ItemCatalog catalog = ItemCatalog.of(items);
+    catalog.index();
+
+    Instant later = Instant.parse("2026-02-01T00:00:00Z");
+    for (int i = 0; i < 40; i++) {
+      Item target = items.get(random.nextInt(items.size()));
+      boolean active = random.nextInt(3) > 0;
+      catalog = catalog.with(item("it" + random.nextInt(60), random, active, later.plusSeconds(i)));
+      catalog = catalog.with(new Item(target.id(), "u", "Dal bowl", null, List.of("veg"), List.of(), 100, active, later, later));
+    }
+
+    UserPreference preference = UserPreference.empty("u");
+    DecideController.DecideRequest request = new DecideController.DecideRequest(null, List.of("veg"), null, "bowl", 5);
+    ItemCatalog rebuilt = ItemCatalog.of(catalog.items());
+
+    assertThat(rank(catalog, request, preference, true, true))
+        .isEqualTo(rank(rebuilt, request, preference, true, false));
+  }
+
+  private static List<String> rank(
+      ItemCatalog catalog,
+      DecideController.DecideRequest request,
+      UserPreference preference,
+      boolean strict,
+      boolean useIndex
+  ) {
+    CandidateRanking ranking = new CandidateRanking(ScoringPlan.compile(request, preference), 10, strict, strict);
+    ranking.acceptAll(catalog, useIndex);
+    return ranking.top().stream()
+        .map(s -> s.item().id() + "=" + s.score() + s.reasons())
+        .toList();
+  }
+
+  private static List<Item> randomItems(Random random, int n) {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    List<Item> items = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      items.add(item("it" + i, random, true, now.plusSeconds(random.nextInt(1000))));
+    }
+    return items;
+  }
+
+  private static Item item(String id, Random random, boolean active, Instant updatedAt) {
+    String name = WORDS.get(random.nextInt(WORDS.size())) + " " + WORDS.get(random.nextInt(WORDS.size()));
+    List<String> tags = new ArrayList<>();
+    for (int t = 0; t < random.nextInt(4); t++) {
+      tags.add(TAGS.get(random.nextInt(TAGS.size())));
+    }
+    String restaurant = random.nextBoolean() ? "Thai Garden" : null;
+    return new Item(id, "u", name, restaurant, tags, List.of(), 100 + random.nextInt(400), active, updatedAt, updatedAt);
+  }
+}
@@ -0,0 +1,71 @@
+package com.mealpilot.api.decide;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mealpilot.api.items.Item;
+import com.mealpilot.api.items.ItemCatalog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+class ColdStartPoolTest {
+
+  private final PopularItemStore store = mock(PopularItemStore.class);
+
+  @Test
+  void blend_topsUpSmallCatalogs_withoutDuplicatingOwnItems() {
+    when(store.mostAccepted(any(Instant.class), anyInt(), anyInt())).thenReturn(Flux.just(
+        popular("Chicken Biryani", "Biryani House"),
+        popular("Paneer Tikka", "Punjabi Dhaba")
+    ));
+    ColdStartPool pool = pool();
+    pool.refresh().block();
+
+    ItemCatalog empty = ItemCatalog.of(List.of());
+    assertThat(pool.blend(empty).items()).extracting(Item::name).containsExactly("Chicken Biryani", "Paneer Tikka");
+    // The more accepted item looks newer, so it wins score ties.
+    assertThat(pool.blend(empty).items().get(0).updatedAt()).isAfter(pool.blend(empty).items().get(1).updatedAt());
+
+    ItemCatalog small = ItemCatalog.of(List.of(item("own", "chicken biryani ", "Biryani House")));
+    List<Item> blended = pool.blend(small).items();
+    assertThat(blended).extracting(Item::name).containsExactly("chicken biryani ", "Paneer Tikka");
+    assertThat(blended.get(1).id()).startsWith(ColdStartPool.ID_PREFIX);
+
+    ItemCatalog large = ItemCatalog.of(List.of(item("a", "A", "R"), item("b", "B", "R"), item("c", "C", "R")));
+    assertThat(pool.blend(large)).isSameAs(large);
+  }
+
+  @Test
+  void refresh_keepsPreviousPool_whenTheStoreFails() {
+    when(store.mostAccepted(any(Instant.class), anyInt(), anyInt()))
+        .thenReturn(Flux.just(popular("Chicken Biryani", "Biryani House")))
+        .thenReturn(Flux.error(new IllegalStateException("mongo down")));
+    ColdStartPool pool = pool();
+
+    pool.refresh().block();
+    pool.refresh().block();
+
+    assertThat(pool.blend(ItemCatalog.of(List.of())).items()).extracting(Item::name).containsExactly("Chicken Biryani");
+  }
+
+  private ColdStartPool pool() {
+    return new ColdStartPool(store, new SimpleMeterRegistry(), true, 3, 200, 3, Duration.ofDays(30), Duration.ZERO);
+  }
+
+  private static PopularItemStore.PopularItem popular(String name, String restaurantName) {
+    return new PopularItemStore.PopularItem(
+        new Decision.ItemSnapshot(null, name, restaurantName, List.of(), 200), 5, 9);
+  }
+
+  private static Item item(String id, String name, String restaurantName) {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    return new Item(id, "anurag", name, restaurantName, List.of(), List.of(), 200, true, now, now);
+  }
+}
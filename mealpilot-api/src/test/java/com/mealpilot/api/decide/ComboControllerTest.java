@@ -0,0 +1,96 @@
+package com.mealpilot.api.decide;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockJwt;
+
+import com.mealpilot.api.config.SecurityConfig;
+import com.mealpilot.api.items.Item;
+import com.mealpilot.api.items.ItemCatalogCache;
+import com.mealpilot.api.items.ItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(controllers = ComboController.class)
+@Import({
+    SecurityConfig.class,
+    ItemCatalogCache.class,
+    UserPreferenceCache.class,
+    DecideSources.class,
+    DecideLoader.class,
+    ColdStartPool.class,
+    ItemSimilarity.class,
+    RankingExecutor.class,
+    SimpleMeterRegistry.class
+})
+class ComboControllerTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @MockBean
+  private ItemRepository itemRepository;
+
+  @MockBean
+  private DecisionRepository decisionRepository;
+
+  @MockBean
+  private UserPreferenceRepository userPreferenceRepository;
+
+  @MockBean
+  private PopularItemStore popularItemStore;
+
+  @MockBean
+  private ItemSimilarityStore itemSimilarityStore;
+
+  @Test
+  void combos_pickOneRestaurantWithinBudget_coveringTheRequestedTags() {
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag"))
+        .thenReturn(Flux.just(
+            new Item("id1", "anurag", "Paneer Tikka", "Spice Hub", List.of("veg"), List.of(), 250, true, NOW, NOW),
+            new Item("id2", "anurag", "Chicken 65", "Spice Hub", List.of("spicy"), List.of(), 300, true, NOW, NOW),
+            new Item("id3", "anurag", "Mutton Thali", "Spice Hub", List.of("spicy"), List.of(), 900, true, NOW, NOW),
+            new Item("id4", "anurag", "Salad", "Green Bowl", List.of("veg"), List.of(), 200, true, NOW, NOW)
+        ));
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide/combos")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"budget\":600,\"people\":3,\"coverTags\":[\"Veg\",\"spicy\"],\"limit\":2}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.combos.length()").isEqualTo(2)
+        .jsonPath("$.combos[0].restaurantName").isEqualTo("Spice Hub")
+        .jsonPath("$.combos[0].totalPrice").isEqualTo(550)
+        .jsonPath("$.combos[0].items.length()").isEqualTo(2)
+        .jsonPath("$.combos[0].coveredTags.length()").isEqualTo(2)
+        .jsonPath("$.combos[0].breakdown.coverageBonus").isEqualTo(3.0)
+        .jsonPath("$.combos[1].restaurantName").isEqualTo("Green Bowl")
+        .jsonPath("$.combos[1].missingTags[0]").isEqualTo("spicy");
+  }
+
+  @Test
+  void combos_requireABudget() {
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide/combos")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"people\":2}")
+        .exchange()
+        .expectStatus().isBadRequest();
+  }
+}
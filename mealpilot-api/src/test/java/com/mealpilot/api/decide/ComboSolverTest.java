@@ -0,0 +1,115 @@
+package com.mealpilot.api.decide;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mealpilot.api.items.Item;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+
+class ComboSolverTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+  @Test
+  void combo_matchesExhaustiveSearch_perRestaurant() {
+    Random random = new Random(7);
+    List<String> coverTags = List.of("veg", "spicy", "kids");
+    for (int round = 0; round < 50; round++) {
+      List<ScoringPlan.Scored> scored = new ArrayList<>();
+      for (int i = 0; i < 7; i++) {
+        String tag = i % 4 == 3 ? "other" : coverTags.get(random.nextInt(coverTags.size()));
+        scored.add(scored("r" + round + "i" + i, "Hub", 10 * (5 + random.nextInt(40)), random.nextInt(50) / 10.0 - 1.0, tag));
+      }
+      int budget = 200 + random.nextInt(600);
+      ComboSolver.Constraints constraints = new ComboSolver.Constraints(budget, 3, 2, coverTags, 1.5, 100, 200_000);
+
+      List<ComboSolver.Combo> combos = ComboSolver.solve(scored, constraints, 1);
+
+      double expected = bruteForce(scored, constraints);
+      if (expected <= 0) {
+        assertThat(combos).isEmpty();
+        continue;
+      }
+      assertThat(combos).hasSize(1);
+      ComboSolver.Combo combo = combos.get(0);
+      assertThat(combo.value()).isCloseTo(expected, Offset.offset(1e-9));
+      assertThat(combo.totalPrice()).isLessThanOrEqualTo(budget);
+      assertThat(combo.picks().stream().mapToInt(ComboSolver.Pick::quantity).sum()).isLessThanOrEqualTo(3);
+      assertThat(combo.picks()).allMatch(p -> p.quantity() <= 2);
+
+      // A tight state budget coarsens prices: never over budget, never better than exact.
+      ComboSolver.Constraints coarse = new ComboSolver.Constraints(budget, 3, 2, coverTags, 1.5, 100, 500);
+      for (ComboSolver.Combo c : ComboSolver.solve(scored, coarse, 1)) {
+        assertThat(c.totalPrice()).isLessThanOrEqualTo(budget);
+        assertThat(c.value()).isLessThanOrEqualTo(expected + 1e-9);
+      }
+    }
+  }
+
+  @Test
+  void combo_answersLargeBudgetsAndCatalogsQuickly_bestRestaurantsFirst() {
+    Random random = new Random(11);
+    List<ScoringPlan.Scored> scored = new ArrayList<>();
+    for (int i = 0; i < 100_000; i++) {
+      scored.add(scored("i" + i, "R" + (i % 2_000), 1 + random.nextInt(2_000), random.nextInt(60) / 10.0,
+          i % 3 == 0 ? "veg" : "spicy"));
+    }
+    ComboSolver.Constraints constraints = new ComboSolver.Constraints(
+        100_000, 6, 2, List.of("veg", "spicy"), 1.5, 24, 200_000);
+
+    long started = System.nanoTime();
+    List<ComboSolver.Combo> combos = ComboSolver.solve(scored, constraints, 5);
+    long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+    assertThat(combos).hasSize(5);
+    assertThat(combos).isSortedAccordingTo((a, b) -> Double.compare(b.value(), a.value()));
+    assertThat(combos).extracting(ComboSolver.Combo::restaurantName).doesNotHaveDuplicates();
+    assertThat(combos).allMatch(c -> c.totalPrice() <= 100_000 && c.coveredMask() == 0b11);
+    // Generous bound for shared CI machines; warm, this takes tens of milliseconds.
+    assertThat(elapsedMillis).isLessThan(5_000);
+  }
+
+  private static double bruteForce(List<ScoringPlan.Scored> scored, ComboSolver.Constraints constraints) {
+    return search(scored, constraints, 0, 0, 0, 0, 0.0);
+  }
+
+  private static double search(
+      List<ScoringPlan.Scored> scored,
+      ComboSolver.Constraints constraints,
+      int index,
+      int count,
+      int spent,
+      int mask,
+      double score
+  ) {
+    double best = count == 0 ? Double.NEGATIVE_INFINITY : score + constraints.coverageBonus() * Integer.bitCount(mask);
+    if (index == scored.size()) {
+      return best;
+    }
+    ScoringPlan.Scored s = scored.get(index);
+    int itemMask = 0;
+    for (int t = 0; t < constraints.coverTags().size(); t++) {
+      if (s.item().tags().contains(constraints.coverTags().get(t))) {
+        itemMask |= 1 << t;
+      }
+    }
+    for (int q = 0; q <= constraints.maxPerItem(); q++) {
+      int price = spent + q * s.item().priceEstimate();
+      if (count + q > constraints.maxItems() || price > constraints.budget()) {
+        break;
+      }
+      best = Math.max(best, search(scored, constraints, index + 1, count + q, price,
+          q > 0 ? mask | itemMask : mask, score + q * s.score()));
+    }
+    return best;
+  }
+
+  private static ScoringPlan.Scored scored(String id, String restaurant, int price, double score, String tag) {
+    Item item = new Item(id, "u", id, restaurant, List.of(tag), List.of(), price, true, NOW, NOW);
+    return new ScoringPlan.Scored(item, score, null, null);
+  }
+}
@@ -1,15 +1,24 @@
 package com.mealpilot.api.decide;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockJwt;
 
 import com.mealpilot.api.config.SecurityConfig;
 import com.mealpilot.api.decide.Decision.Feedback;
 import com.mealpilot.api.items.Item;
+import com.mealpilot.api.items.ItemCatalogCache;
 import com.mealpilot.api.items.ItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
@@ -21,7 +30,22 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @WebFluxTest(controllers = DecideController.class)
-@Import(SecurityConfig.class)
+@Import({
+    SecurityConfig.class,
+    ItemCatalogCache.class,
+    UserPreferenceCache.class,
+    DecideSources.class,
+    DecideLoader.class,
+    RankingExecutor.class,
+    DecisionMemo.class,
+    DecisionPreviews.class,
+    DecideSessions.class,
+    ReadyDecisions.class,
+    ColdStartPool.class,
+    ItemSimilarity.class,
+    DecisionWriteBehind.class,
+    SimpleMeterRegistry.class
+})
 class DecideControllerTest {
 
   @Autowired
@@ -30,12 +54,52 @@ class DecideControllerTest {
   @MockBean
   private ItemRepository itemRepository;
 
+  @MockBean
+  private ReadyDecisionStore readyDecisionStore;
+
+  @MockBean
+  private PopularItemStore popularItemStore;
+
+  @MockBean
+  private ItemSimilarityStore itemSimilarityStore;
+
     @MockBean
     private DecisionRepository decisionRepository;
 
     @MockBean
     private UserPreferenceRepository userPreferenceRepository;
 
+  @Autowired
+  private ItemCatalogCache catalogCache;
+
+  @Autowired
+  private UserPreferenceCache preferenceCache;
+
+  @Autowired
+  private DecisionMemo decisionMemo;
+
+  @Autowired
+  private DecideSessions sessions;
+
+  @Autowired
+  private ColdStartPool coldStartPool;
+
+  @Autowired
+  private ItemSimilarity itemSimilarity;
+
+  @Autowired
+  private ReadyDecisions readyDecisions;
+
+  @BeforeEach
+  void resetCaches() {
+    catalogCache.invalidate("anurag");
+    preferenceCache.invalidate("anurag");
+    decisionMemo.clear();
+    sessions.clear();
+    coldStartPool.clear();
+    when(readyDecisionStore.find(org.mockito.ArgumentMatchers.anyString())).thenReturn(Mono.empty());
+  }
+
   @Test
   void decide_returnsTopCandidates_withConfidenceAndWhy() {
     Instant now = Instant.parse("2026-01-01T00:00:00Z");
@@ -230,4 +294,767 @@ class DecideControllerTest {
         .jsonPath("$.candidates[0].item.id").isEqualTo("id2")
         .jsonPath("$.candidates[0].why").isArray();
   }
+
+  @Test
+  void decide_reusesCachedCatalogAcrossRequests() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag"))
+        .thenReturn(Flux.just(
+            new Item("id1", "anurag", "A", null, List.of(), List.of(), 100, true, now, now)
+        ));
+
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+
+    when(decisionRepository.save(org.mockito.ArgumentMatchers.any(Decision.class)))
+        .thenAnswer(inv -> {
+          Decision d = inv.getArgument(0);
+          return Mono.just(new Decision("dec1", d.userId(), d.createdAt(), d.input(), d.candidates(), (Feedback) null));
+        });
+
+    for (int i = 0; i < 2; i++) {
+      webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+          .post()
+          .uri("/api/decide")
+          .contentType(MediaType.APPLICATION_JSON)
+          .bodyValue("{}")
+          .exchange()
+          .expectStatus().isOk()
+          .expectBody()
+          .jsonPath("$.candidates[0].item.id").isEqualTo("id1");
+    }
+
+    // An item write updates the cached catalog in place; decide sees it without reloading.
+    catalogCache.apply(new Item("id2", "anurag", "B", null, List.of(), List.of(), 100, true, now, now.plusSeconds(60)));
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.candidates.length()").isEqualTo(2)
+        .jsonPath("$.candidates[0].item.id").isEqualTo("id2");
+
+    verify(itemRepository, times(1)).findAllByUserIdAndActiveIsTrue("anurag");
+    verify(userPreferenceRepository, times(1)).findById("anurag");
+  }
+
+  @Test
+  void decide_repeatedRequestReturnsMemoizedDecision_untilTheCatalogChanges() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag"))
+        .thenReturn(Flux.just(new Item("id1", "anurag", "A", null, List.of(), List.of(), 100, true, now, now)));
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+
+    List<String> savedIds = new ArrayList<>();
+    when(decisionRepository.save(org.mockito.ArgumentMatchers.any(Decision.class)))
+        .thenAnswer(inv -> {
+          Decision d = inv.getArgument(0);
+          String id = "dec" + (savedIds.size() + 1);
+          savedIds.add(id);
+          return Mono.just(new Decision(id, d.userId(), d.createdAt(), d.input(), d.candidates(), (Feedback) null));
+        });
+
+    for (int i = 0; i < 2; i++) {
+      webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+          .post()
+          .uri("/api/decide")
+          .contentType(MediaType.APPLICATION_JSON)
+          .bodyValue("{\"query\":\"a\"}")
+          .exchange()
+          .expectStatus().isOk()
+          .expectBody()
+          .jsonPath("$.decisionId").isEqualTo("dec1");
+    }
+
+    catalogCache.apply(new Item("id2", "anurag", "B", null, List.of(), List.of(), 100, true, now, now));
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"query\":\"a\"}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.decisionId").isEqualTo("dec2");
+
+    assertThat(savedIds).containsExactly("dec1", "dec2");
+  }
+
+  @Test
+  void decideBatch_sharesOneSnapshotAndPersistsWithOneInsert() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag")).thenReturn(Flux.just(
+        new Item("id1", "anurag", "Thali", null, List.of("lunch"), List.of(), 150, true, now, now),
+        new Item("id2", "anurag", "Steak", null, List.of("dinner"), List.of(), 900, true, now, now)
+    ));
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+
+    List<Decision> inserted = new ArrayList<>();
+    when(decisionRepository.insert(org.mockito.ArgumentMatchers.<Iterable<Decision>>any()))
+        .thenAnswer(inv -> {
+          Iterable<Decision> batch = inv.getArgument(0);
+          batch.forEach(inserted::add);
+          return Flux.fromIterable(batch);
+        });
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"requests\":[{\"mustHaveTags\":[\"lunch\"],\"limit\":1},{\"mustHaveTags\":[\"dinner\"],\"limit\":1}]}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.results.length()").isEqualTo(2)
+        .jsonPath("$.results[0].candidates[0].item.id").isEqualTo("id1")
+        .jsonPath("$.results[1].candidates[0].item.id").isEqualTo("id2")
+        .jsonPath("$.results[0].decisionId").value(id -> assertThat(id).isEqualTo(inserted.get(0).id()))
+        .jsonPath("$.results[1].decisionId").value(id -> assertThat(id).isEqualTo(inserted.get(1).id()));
+
+    assertThat(inserted).hasSize(2);
+    verify(itemRepository, times(1)).findAllByUserIdAndActiveIsTrue("anurag");
+    verify(userPreferenceRepository, times(1)).findById("anurag");
+    verify(decisionRepository, times(1)).insert(org.mockito.ArgumentMatchers.<Iterable<Decision>>any());
+  }
+
+  @Test
+  void decideBatch_rejectsEmptyBatch() {
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"requests\":[]}")
+        .exchange()
+        .expectStatus().isBadRequest();
+  }
+
+  @Test
+  void decide_streamsCandidatesThenDecisionId_asNdjson() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag")).thenReturn(Flux.just(
+        new Item("id1", "anurag", "A", null, List.of("spicy"), List.of(), 100, true, now, now),
+        new Item("id2", "anurag", "B", null, List.of(), List.of(), 100, true, now, now)
+    ));
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+    when(decisionRepository.save(org.mockito.ArgumentMatchers.any(Decision.class)))
+        .thenAnswer(inv -> {
+          Decision d = inv.getArgument(0);
+          return Mono.just(new Decision("dec1", d.userId(), d.createdAt(), d.input(), d.candidates(), (Feedback) null));
+        });
+
+    List<Map> events = webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide")
+        .accept(MediaType.APPLICATION_NDJSON)
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"mustHaveTags\":[\"spicy\"]}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        .returnResult(Map.class)
+        .getResponseBody()
+        .collectList()
+        .block();
+
+    assertThat(events).extracting(e -> e.get("type")).containsExactly("candidate", "candidate", "decision");
+    assertThat(events.get(0)).containsEntry("rank", 1);
+    assertThat(((Map<?, ?>) ((Map<?, ?>) events.get(0).get("candidate")).get("item")).get("id")).isEqualTo("id1");
+    assertThat(events.get(2)).containsEntry("decisionId", "dec1");
+  }
+
+  @Test
+  void decide_defaultsToJson_whenAcceptIsWildcard() {
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag")).thenReturn(Flux.empty());
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide")
+        .accept(MediaType.ALL)
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+        .expectBody()
+        .jsonPath("$.candidates.length()").isEqualTo(0);
+  }
+
+  @Test
+  void decide_compactFieldsOmitExplanations_butPersistThem() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag"))
+        .thenReturn(Flux.just(new Item("id1", "anurag", "A", null, List.of("spicy"), List.of(), 100, true, now, now)));
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+
+    List<Decision> saved = new ArrayList<>();
+    when(decisionRepository.save(org.mockito.ArgumentMatchers.any(Decision.class)))
+        .thenAnswer(inv -> {
+          Decision d = inv.getArgument(0);
+          saved.add(d);
+          return Mono.just(new Decision("dec1", d.userId(), d.createdAt(), d.input(), d.candidates(), (Feedback) null));
+        });
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide?fields=compact")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"mustHaveTags\":[\"spicy\"]}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.candidates[0].item.id").isEqualTo("id1")
+        .jsonPath("$.candidates[0].confidence").exists()
+        .jsonPath("$.candidates[0].why").doesNotExist()
+        .jsonPath("$.candidates[0].breakdown").doesNotExist()
+        .jsonPath("$.candidates[0].deepLinks").doesNotExist();
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide?fields=why")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"mustHaveTags\":[\"spicy\"]}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.candidates[0].why[0]").isEqualTo("Matches tag: spicy")
+        .jsonPath("$.candidates[0].breakdown").doesNotExist();
+
+    assertThat(saved).hasSize(1);
+    Decision.CandidateSnapshot stored = saved.get(0).candidates().get(0);
+    assertThat(stored.why()).isNull();
+    assertThat(stored.reasons()).contains(new Decision.Reason(ReasonCode.MUST_TAG, "spicy"));
+    assertThat(stored.breakdown()).isNotNull();
+    assertThat(stored.deepLinks()).isNotEmpty();
+  }
+
+  @Test
+  void decide_rejectsUnknownFields() {
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide?fields=why,everything")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{}")
+        .exchange()
+        .expectStatus().isBadRequest();
+  }
+
+  @Test
+  void decide_previewPersistsNothing_untilPromoted() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag"))
+        .thenReturn(Flux.just(new Item("id1", "anurag", "A", null, List.of(), List.of(), 100, true, now, now)));
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+    when(decisionRepository.save(org.mockito.ArgumentMatchers.any(Decision.class)))
+        .thenAnswer(inv -> {
+          Decision d = inv.getArgument(0);
+          return Mono.just(new Decision("dec1", d.userId(), d.createdAt(), d.input(), d.candidates(), (Feedback) null));
+        });
+
+    String fingerprint = webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide?preview=true")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"budget\":150}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(DecideController.DecideResponse.class)
+        .returnResult()
+        .getResponseBody()
+        .previewFingerprint();
+
+    assertThat(fingerprint).isNotBlank();
+    verify(decisionRepository, times(0)).save(org.mockito.ArgumentMatchers.any(Decision.class));
+
+    for (int i = 0; i < 2; i++) {
+      webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+          .post()
+          .uri("/api/decide/previews/" + fingerprint)
+          .exchange()
+          .expectStatus().isOk()
+          .expectBody()
+          .jsonPath("$.decisionId").isEqualTo("dec1")
+          .jsonPath("$.previewFingerprint").doesNotExist()
+          .jsonPath("$.candidates[0].item.id").isEqualTo("id1");
+    }
+    verify(decisionRepository, times(1)).save(org.mockito.ArgumentMatchers.any(Decision.class));
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("someone-else")))
+        .post()
+        .uri("/api/decide/previews/" + fingerprint)
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  void next_servesFollowingCandidates_withoutReloadingItems() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag"))
+        .thenReturn(Flux.just(
+            new Item("id1", "anurag", "A", null, List.of(), List.of(), 100, true, now, now),
+            new Item("id2", "anurag", "B", null, List.of(), List.of(), 120, true, now, now),
+            new Item("id3", "anurag", "C", null, List.of(), List.of(), 300, true, now, now)
+        ));
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+    java.util.concurrent.atomic.AtomicInteger ids = new java.util.concurrent.atomic.AtomicInteger();
+    when(decisionRepository.save(org.mockito.ArgumentMatchers.any(Decision.class)))
+        .thenAnswer(inv -> {
+          Decision d = inv.getArgument(0);
+          return Mono.just(new Decision("dec" + ids.incrementAndGet(), d.userId(), d.createdAt(), d.input(), d.candidates(), (Feedback) null));
+        });
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"budget\":150,\"limit\":2}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.decisionId").isEqualTo("dec1")
+        .jsonPath("$.candidates.length()").isEqualTo(2)
+        .jsonPath("$.candidates[0].item.id").isEqualTo("id1")
+        .jsonPath("$.candidates[1].item.id").isEqualTo("id2");
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide/sessions/dec1/next")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.decisionId").isEqualTo("dec2")
+        .jsonPath("$.candidates.length()").isEqualTo(1)
+        .jsonPath("$.candidates[0].item.id").isEqualTo("id3")
+        .jsonPath("$.candidates[0].why").isNotEmpty();
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide/sessions/dec2/next")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.decisionId").doesNotExist()
+        .jsonPath("$.candidates.length()").isEqualTo(0);
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("someone-else")))
+        .post()
+        .uri("/api/decide/sessions/dec1/next")
+        .exchange()
+        .expectStatus().isNotFound();
+
+    verify(itemRepository, times(1)).findAllByUserIdAndActiveIsTrue("anurag");
+    verify(decisionRepository, times(2)).save(org.mockito.ArgumentMatchers.any(Decision.class));
+  }
+
+  @Test
+  void next_followsARequestWithoutLimit_pastTheMaximumPage() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    List<Item> items = new ArrayList<>();
+    for (int i = 0; i < 55; i++) {
+      items.add(new Item("id" + i, "anurag", "Dish " + i, null, List.of(), List.of(), 100 + i, true, now, now));
+    }
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag")).thenReturn(Flux.fromIterable(items));
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+    java.util.concurrent.atomic.AtomicInteger ids = new java.util.concurrent.atomic.AtomicInteger();
+    when(decisionRepository.save(org.mockito.ArgumentMatchers.any(Decision.class)))
+        .thenAnswer(inv -> {
+          Decision d = inv.getArgument(0);
+          return Mono.just(new Decision("dec" + ids.incrementAndGet(), d.userId(), d.createdAt(), d.input(), d.candidates(), (Feedback) null));
+        });
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"budget\":1000}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.decisionId").isEqualTo("dec1")
+        .jsonPath("$.limit").isEqualTo(50)
+        .jsonPath("$.candidates.length()").isEqualTo(50);
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide/sessions/dec1/next")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.decisionId").isEqualTo("dec2")
+        .jsonPath("$.candidates.length()").isEqualTo(5);
+
+    verify(itemRepository, times(1)).findAllByUserIdAndActiveIsTrue("anurag");
+  }
+
+  @Test
+  void decide_servesReadyDecision_withoutLoadingItems() {
+    Decision.CandidateSnapshot candidate = new Decision.CandidateSnapshot(
+        new Decision.ItemSnapshot("id1", "Dal Khichdi", "Home", List.of("comfort"), 120),
+        2.5,
+        1.0,
+        null,
+        List.of(),
+        null,
+        List.of(new Decision.Reason(ReasonCode.SAFE_DEFAULT, null))
+    );
+    Decision ready = new Decision(
+        null,
+        "anurag",
+        Instant.parse("2026-01-01T11:30:00Z"),
+        new Decision.DecideInput(null, null, null, null, 50),
+        List.of(candidate),
+        null,
+        new Decision.DecisionMeta(4, "heuristic-score", "2", "in", "items", "pref", null, null)
+    );
+    String inputHash = DecideController.hashInput(new DecideController.DecideRequest(null, null, null, null, null), 50);
+    when(readyDecisionStore.find("anurag")).thenReturn(Mono.just(new ReadyDecision(
+        "anurag", inputHash, "items", "pref", null, ready, null, Instant.parse("2026-01-01T11:30:00Z"), null
+    )));
+    when(decisionRepository.save(org.mockito.ArgumentMatchers.any(Decision.class)))
+        .thenAnswer(inv -> {
+          Decision d = inv.getArgument(0);
+          return Mono.just(new Decision("dec1", d.userId(), d.createdAt(), d.input(), d.candidates(), null, d.meta()));
+        });
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.decisionId").isEqualTo("dec1")
+        .jsonPath("$.candidates[0].item.id").isEqualTo("id1")
+        .jsonPath("$.candidates[0].why[0]").isEqualTo("A safe default based on your saved items");
+
+    verify(itemRepository, times(0)).findAllByUserIdAndActiveIsTrue("anurag");
+    verify(userPreferenceRepository, times(0)).findById("anurag");
+
+    // Any non-default input ranks on demand.
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag")).thenReturn(Flux.empty());
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"budget\":150}")
+        .exchange()
+        .expectStatus().isOk();
+    verify(itemRepository, times(1)).findAllByUserIdAndActiveIsTrue("anurag");
+  }
+
+  @Test
+  void decide_ranksOnDemand_whenReadyDecisionPredatesTheScorer() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    Decision stale = new Decision(
+        null,
+        "anurag",
+        now,
+        new Decision.DecideInput(null, null, null, null, 50),
+        List.of(new Decision.CandidateSnapshot(
+            new Decision.ItemSnapshot("gone", "Old Pick", "Home", List.of(), 120),
+            2.5, 1.0, null, List.of(), null, List.of(new Decision.Reason(ReasonCode.SAFE_DEFAULT, null)))),
+        null,
+        new Decision.DecisionMeta(4, "heuristic-score", "1", "in", "items", "pref", null, null)
+    );
+    String inputHash = DecideController.hashInput(new DecideController.DecideRequest(null, null, null, null, null), 50);
+    when(readyDecisionStore.find("anurag")).thenReturn(Mono.just(new ReadyDecision(
+        "anurag", inputHash, "items", "pref", null, stale, null, now, null
+    )));
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag")).thenReturn(Flux.just(
+        new Item("id1", "anurag", "Dal Khichdi", "Home", List.of(), List.of(), 120, true, now, now)
+    ));
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+    List<Decision> persisted = new ArrayList<>();
+    when(decisionRepository.save(org.mockito.ArgumentMatchers.any(Decision.class)))
+        .thenAnswer(inv -> {
+          persisted.add(inv.getArgument(0));
+          return Mono.just(inv.<Decision>getArgument(0));
+        });
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.candidates[0].item.id").isEqualTo("id1");
+
+    assertThat(persisted).hasSize(1);
+    assertThat(persisted.get(0).meta().algorithmVersion()).isEqualTo("2");
+  }
+
+  @Test
+  void decide_ranksOnDemand_whenReadyDecisionPredatesTheSimilarityTable() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    Decision stale = new Decision(
+        null,
+        "anurag",
+        now,
+        new Decision.DecideInput(null, null, null, null, 50),
+        List.of(new Decision.CandidateSnapshot(
+            new Decision.ItemSnapshot("gone", "Old Pick", "Home", List.of(), 120),
+            2.5, 1.0, null, List.of(), null, List.of(new Decision.Reason(ReasonCode.SAFE_DEFAULT, null)))),
+        null,
+        new Decision.DecisionMeta(4, "heuristic-score", "2", "in", "items", "pref", null, null)
+    );
+    String inputHash = DecideController.hashInput(new DecideController.DecideRequest(null, null, null, null, null), 50);
+    when(readyDecisionStore.find("anurag")).thenReturn(Mono.just(new ReadyDecision(
+        "anurag", inputHash, "items", "pref", "an-older-table", stale, null, now, null
+    )));
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag")).thenReturn(Flux.just(
+        new Item("id1", "anurag", "Dal Khichdi", "Home", List.of(), List.of(), 120, true, now, now)
+    ));
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+    when(decisionRepository.save(org.mockito.ArgumentMatchers.any(Decision.class)))
+        .thenAnswer(inv -> Mono.just(inv.<Decision>getArgument(0)));
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.candidates[0].item.id").isEqualTo("id1");
+
+    verify(itemRepository, times(1)).findAllByUserIdAndActiveIsTrue("anurag");
+  }
+
+  @Test
+  void next_continuesServedReadyDecision_withoutLoadingItems() {
+    Instant now = Instant.parse("2026-01-01T11:30:00Z");
+    List<Item> items = new ArrayList<>();
+    for (int i = 0; i < 52; i++) {
+      items.add(new Item("id" + i, "anurag", "Dish " + i, "Home", List.of("comfort"), List.of(), 100 + i, true, now, now));
+    }
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag")).thenReturn(Flux.fromIterable(items));
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+    org.mockito.ArgumentCaptor<ReadyDecision> stored = org.mockito.ArgumentCaptor.forClass(ReadyDecision.class);
+    when(readyDecisionStore.save(stored.capture())).thenReturn(Mono.just(true));
+
+    readyDecisions.refresh("anurag").block();
+    ReadyDecision ready = stored.getValue();
+    assertThat(ready.decision().candidates()).hasSize(50);
+    assertThat(ready.ranked()).hasSize(52);
+
+    catalogCache.invalidate("anurag");
+    preferenceCache.invalidate("anurag");
+    when(readyDecisionStore.find("anurag")).thenReturn(Mono.just(ready));
+    java.util.concurrent.atomic.AtomicInteger ids = new java.util.concurrent.atomic.AtomicInteger();
+    when(decisionRepository.save(org.mockito.ArgumentMatchers.any(Decision.class)))
+        .thenAnswer(inv -> {
+          Decision d = inv.getArgument(0);
+          return Mono.just(new Decision("dec" + ids.incrementAndGet(), d.userId(), d.createdAt(), d.input(), d.candidates(), null, d.meta()));
+        });
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.decisionId").isEqualTo("dec1")
+        .jsonPath("$.candidates.length()").isEqualTo(50);
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide/sessions/dec1/next")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.decisionId").isEqualTo("dec2")
+        .jsonPath("$.candidates.length()").isEqualTo(2)
+        .jsonPath("$.candidates[0].why").isNotEmpty();
+
+    // Only the precompute loaded anything.
+    verify(itemRepository, times(1)).findAllByUserIdAndActiveIsTrue("anurag");
+    verify(userPreferenceRepository, times(1)).findById("anurag");
+  }
+
+  @Test
+  void readyDecision_isRankedFromMongo_notThisInstancesCachedCatalog() {
+    Instant now = Instant.parse("2026-01-01T11:30:00Z");
+    Item dal = new Item("id1", "anurag", "Dal Khichdi", "Home", List.of(), List.of(), 120, true, now, now);
+    Item rajma = new Item("id2", "anurag", "Rajma Chawal", "Home", List.of(), List.of(), 140, true, now, now);
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag")).thenReturn(Flux.just(dal));
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+    catalogCache.catalog("anurag").block();
+
+    // Another instance replaced the item; this instance's cached catalog still holds the old one.
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag")).thenReturn(Flux.just(rajma));
+    org.mockito.ArgumentCaptor<ReadyDecision> stored = org.mockito.ArgumentCaptor.forClass(ReadyDecision.class);
+    when(readyDecisionStore.save(stored.capture())).thenReturn(Mono.just(true));
+
+    readyDecisions.refresh("anurag").block();
+
+    assertThat(stored.getValue().decision().candidates())
+        .extracting(c -> c.item().id())
+        .containsExactly("id2");
+    assertThat(catalogCache.catalog("anurag").block().items()).containsExactly(dal);
+  }
+
+  @Test
+  void decide_breakdownCombinesRequestSignals() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag"))
+        .thenReturn(Flux.just(
+            new Item("id1", "anurag", "Chicken Biryani", "Spice Hub", List.of("Spicy", "peanut", "spicy"), List.of(), 200, true, now, now)
+        ));
+
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+
+    when(decisionRepository.save(org.mockito.ArgumentMatchers.any(Decision.class)))
+        .thenAnswer(inv -> {
+          Decision d = inv.getArgument(0);
+          return Mono.just(new Decision("dec1", d.userId(), d.createdAt(), d.input(), d.candidates(), (Feedback) null));
+        });
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"budget\":250,\"mustHaveTags\":[\"SPICY\"],\"avoidTags\":[\"peanut\"],\"query\":\"hub biryani\"}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.candidates[0].breakdown.budgetFit").value(closeTo(1.2, 1e-9))
+        .jsonPath("$.candidates[0].breakdown.mustTagMatch").value(closeTo(0.7, 1e-9))
+        .jsonPath("$.candidates[0].breakdown.avoidTagPenalty").value(closeTo(-1.5, 1e-9))
+        .jsonPath("$.candidates[0].breakdown.queryMatch").value(closeTo(1.0, 1e-9))
+        .jsonPath("$.candidates[0].breakdown.total").value(closeTo(2.4, 1e-9))
+        .jsonPath("$.candidates[0].why[0]").isEqualTo("Within budget (≤ 250)")
+        .jsonPath("$.candidates[0].why[1]").isEqualTo("Matches tag: spicy")
+        .jsonPath("$.candidates[0].why[2]").isEqualTo("Avoid tag present: peanut")
+        .jsonPath("$.candidates[0].why[3]").isEqualTo("Matches your query");
+  }
+
+  @Test
+  void decide_keepsBestCandidatesInTieBreakOrder_withOrderIndependentItemsHash() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    Item a = new Item("id1", "anurag", "A", null, List.of(), List.of(), 100, true, now, now);
+    Item b = new Item("id2", "anurag", "B", null, List.of(), List.of(), 100, true, now, now.plusSeconds(20));
+    Item c = new Item("id3", "anurag", "C", null, List.of(), List.of(), 100, true, now, now.plusSeconds(10));
+    Item d = new Item("id4", "anurag", "D", null, List.of(), List.of(), 100, true, now, now.plusSeconds(10));
+
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+
+    List<String> itemsHashes = new ArrayList<>();
+    when(decisionRepository.save(org.mockito.ArgumentMatchers.any(Decision.class)))
+        .thenAnswer(inv -> {
+          Decision saved = inv.getArgument(0);
+          itemsHashes.add(saved.meta().itemsHash());
+          return Mono.just(new Decision("dec1", saved.userId(), saved.createdAt(), saved.input(), saved.candidates(), (Feedback) null));
+        });
+
+    for (List<Item> order : List.of(List.of(a, b, c, d), List.of(d, c, b, a))) {
+      catalogCache.invalidate("anurag");
+      decisionMemo.clear();
+      when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag")).thenReturn(Flux.fromIterable(order));
+
+      webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+          .post()
+          .uri("/api/decide")
+          .contentType(MediaType.APPLICATION_JSON)
+          .bodyValue("{\"limit\":3}")
+          .exchange()
+          .expectStatus().isOk()
+          .expectBody()
+          .jsonPath("$.candidates.length()").isEqualTo(3)
+          .jsonPath("$.candidates[0].item.id").isEqualTo("id2")
+          .jsonPath("$.candidates[1].item.id").isEqualTo("id3")
+          .jsonPath("$.candidates[2].item.id").isEqualTo("id4");
+    }
+
+    assertThat(itemsHashes).hasSize(2);
+    assertThat(itemsHashes.get(0)).isNotNull().isEqualTo(itemsHashes.get(1));
+  }
+
+  @Test
+  void decide_ranksColdStartPool_forUserWithoutItems() {
+    when(popularItemStore.mostAccepted(
+        org.mockito.ArgumentMatchers.any(Instant.class),
+        org.mockito.ArgumentMatchers.anyInt(),
+        org.mockito.ArgumentMatchers.anyInt()))
+        .thenReturn(Flux.just(
+            new PopularItemStore.PopularItem(
+                new Decision.ItemSnapshot(null, "Chicken Biryani", "Biryani House", List.of("comfort"), 199), 12, 40),
+            new PopularItemStore.PopularItem(
+                new Decision.ItemSnapshot(null, "Paneer Tikka", "Punjabi Dhaba", List.of("veg"), 220), 8, 15)
+        ));
+    coldStartPool.refresh().block();
+
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("newcomer")).thenReturn(Flux.empty());
+    when(userPreferenceRepository.findById("newcomer")).thenReturn(Mono.empty());
+    when(decisionRepository.save(org.mockito.ArgumentMatchers.any(Decision.class)))
+        .thenAnswer(inv -> Mono.just(inv.<Decision>getArgument(0)));
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("newcomer")))
+        .post()
+        .uri("/api/decide")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"mustHaveTags\":[\"veg\"],\"limit\":2}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.candidates.length()").isEqualTo(2)
+        .jsonPath("$.candidates[0].item.name").isEqualTo("Paneer Tikka")
+        .jsonPath("$.candidates[0].item.id").value(id -> assertThat((String) id).startsWith(ColdStartPool.ID_PREFIX))
+        .jsonPath("$.candidates[1].item.name").isEqualTo("Chicken Biryani");
+  }
+
+  @Test
+  void decide_boostsItemsCoAcceptedWithRecentAccepts() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    when(itemSimilarityStore.lease(
+        org.mockito.ArgumentMatchers.anyString(),
+        org.mockito.ArgumentMatchers.any(Instant.class),
+        org.mockito.ArgumentMatchers.any(Duration.class)))
+        .thenReturn(Mono.empty());
+    when(itemSimilarityStore.allNeighbors()).thenReturn(Flux.just(new ItemNeighbors(
+        ItemSimilarity.key("Biryani House", "Chicken Biryani"),
+        "biryani house",
+        "chicken biryani",
+        10,
+        null,
+        List.of(new ItemNeighbors.Neighbor(
+            ItemSimilarity.key("Pista House", "Haleem"), "pista house", "haleem", 0.6)),
+        now,
+        now
+    )));
+    itemSimilarity.update().block();
+
+    Item roll = new Item("roll", "regular", "Paneer Roll", "Roll Point", List.of(), List.of(), 150, true, now, now);
+    Item haleem = new Item("haleem", "regular", "Haleem", "Pista House", List.of(), List.of(), 150, true, now, now);
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("regular")).thenReturn(Flux.just(roll, haleem));
+    when(userPreferenceRepository.findById("regular")).thenReturn(Mono.just(new UserPreference(
+        "regular", Map.of(), Map.of(), 0, now, 2, null,
+        List.of(ItemSimilarity.key("Biryani House", "Chicken Biryani"))
+    )));
+    when(decisionRepository.save(org.mockito.ArgumentMatchers.any(Decision.class)))
+        .thenAnswer(inv -> Mono.just(inv.<Decision>getArgument(0)));
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("regular")))
+        .post()
+        .uri("/api/decide")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"limit\":2}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.candidates[0].item.id").isEqualTo("haleem")
+        .jsonPath("$.candidates[0].breakdown.coAcceptAffinity").isEqualTo(0.6)
+        .jsonPath("$.candidates[0].why[?(@ == 'People who liked chicken biryani also liked this')]").exists()
+        .jsonPath("$.candidates[1].breakdown.coAcceptAffinity").isEqualTo(0.0);
+  }
 }
@@ -0,0 +1,187 @@
+package com.mealpilot.api.decide;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockJwt;
+
+import com.mealpilot.api.config.SecurityConfig;
+import com.mealpilot.api.items.Item;
+import com.mealpilot.api.items.ItemCatalogCache;
+import com.mealpilot.api.items.ItemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(
+    controllers = DecideController.class,
+    properties = {
+        "mealpilot.decide.load.preference-timeout=PT0.1S",
+        "mealpilot.decide.load.catalog-timeout=PT0.1S"
+    }
+)
+@Import({
+    SecurityConfig.class,
+    ItemCatalogCache.class,
+    UserPreferenceCache.class,
+    DecideSources.class,
+    DecideLoader.class,
+    RankingExecutor.class,
+    DecisionMemo.class,
+    DecisionPreviews.class,
+    DecideSessions.class,
+    ReadyDecisions.class,
+    ColdStartPool.class,
+    ItemSimilarity.class,
+    DecisionWriteBehind.class,
+    SimpleMeterRegistry.class
+})
+class DecideFallbackTest {
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @MockBean
+  private ItemRepository itemRepository;
+
+  @MockBean
+  private ReadyDecisionStore readyDecisionStore;
+
+  @MockBean
+  private PopularItemStore popularItemStore;
+
+  @MockBean
+  private ItemSimilarityStore itemSimilarityStore;
+
+  @MockBean
+  private DecisionRepository decisionRepository;
+
+  @MockBean
+  private UserPreferenceRepository userPreferenceRepository;
+
+  @BeforeEach
+  void noReadyDecisions() {
+    when(readyDecisionStore.find(any(String.class))).thenReturn(Mono.empty());
+  }
+
+  @Test
+  void decide_reservesLatestDecision_whenPreferencesAreSlow() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("slow-prefs")).thenReturn(Flux.just(
+        new Item("id1", "slow-prefs", "Peanut Noodles", null, List.of("peanut"), List.of(), 100, true, now, now)
+    ));
+    when(userPreferenceRepository.findById("slow-prefs")).thenReturn(Mono.never());
+    Decision latest = new Decision(
+        "dec-latest",
+        "slow-prefs",
+        Instant.parse("2026-01-01T12:00:00Z"),
+        new Decision.DecideInput(null, List.of(), List.of(), "", 3),
+        List.of(new Decision.CandidateSnapshot(
+            new Decision.ItemSnapshot("id2", "Dal", null, List.of("veg"), 100),
+            2.0,
+            1.0,
+            null,
+            List.of(),
+            null,
+            List.of(new Decision.Reason(ReasonCode.SAFE_DEFAULT, null))
+        )),
+        null
+    );
+    when(decisionRepository.findFirstByUserIdOrderByCreatedAtDesc("slow-prefs")).thenReturn(Mono.just(latest));
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("slow-prefs")))
+        .post()
+        .uri("/api/decide")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.degraded").isEqualTo(true)
+        .jsonPath("$.message").isEqualTo("Your preferences are taking too long to load; showing your most recent decision.")
+        .jsonPath("$.decisionId").isEqualTo("dec-latest")
+        .jsonPath("$.candidates[0].item.id").isEqualTo("id2");
+
+    // Nothing is ranked, let alone persisted, without the user's allergens.
+    verify(decisionRepository, never()).save(any(Decision.class));
+    verify(decisionRepository, never()).insert(any(Decision.class));
+    assertThat(meterRegistry.counter("mealpilot.decide.fallback", "source", "preference", "result", "served").count())
+        .isEqualTo(1.0);
+  }
+
+  @Test
+  void decide_reservesLatestDecision_whenCatalogIsSlow() {
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("slow-items")).thenReturn(Flux.never());
+    when(userPreferenceRepository.findById("slow-items")).thenReturn(Mono.empty());
+
+    Decision latest = new Decision(
+        "dec-latest",
+        "slow-items",
+        Instant.parse("2026-01-01T12:00:00Z"),
+        new Decision.DecideInput(null, List.of(), List.of(), "", 3),
+        List.of(new Decision.CandidateSnapshot(
+            new Decision.ItemSnapshot("id1", "Dal", null, List.of("veg"), 100),
+            2.0,
+            1.0,
+            null,
+            List.of(),
+            null,
+            List.of(new Decision.Reason(ReasonCode.SAFE_DEFAULT, null))
+        )),
+        null
+    );
+    when(decisionRepository.findFirstByUserIdOrderByCreatedAtDesc("slow-items")).thenReturn(Mono.just(latest));
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("slow-items")))
+        .post()
+        .uri("/api/decide")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.degraded").isEqualTo(true)
+        .jsonPath("$.message").isEqualTo("Your items are taking too long to load; showing your most recent decision.")
+        .jsonPath("$.decisionId").isEqualTo("dec-latest")
+        .jsonPath("$.candidates[0].item.id").isEqualTo("id1")
+        .jsonPath("$.candidates[0].why[0]").isEqualTo("A safe default based on your saved items");
+
+    assertThat(meterRegistry.counter("mealpilot.decide.fallback", "source", "catalog", "result", "served").count())
+        .isEqualTo(1.0);
+  }
+
+  @Test
+  void decide_returns503_whenCatalogIsSlowAndThereIsNoDecisionYet() {
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("new-user")).thenReturn(Flux.never());
+    when(userPreferenceRepository.findById("new-user")).thenReturn(Mono.empty());
+    when(decisionRepository.findFirstByUserIdOrderByCreatedAtDesc("new-user")).thenReturn(Mono.empty());
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("new-user")))
+        .post()
+        .uri("/api/decide")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{}")
+        .exchange()
+        .expectStatus().isEqualTo(503);
+
+    assertThat(meterRegistry.counter("mealpilot.decide.fallback", "source", "catalog", "result", "unavailable").count())
+        .isEqualTo(1.0);
+  }
+}
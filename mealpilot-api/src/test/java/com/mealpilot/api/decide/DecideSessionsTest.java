@@ -0,0 +1,37 @@
+package com.mealpilot.api.decide;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mealpilot.api.items.Item;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class DecideSessionsTest {
+
+  @Test
+  void link_reachesTheSameSession_withoutWeighingItsRankingAgain() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    DecideSessions sessions = new DecideSessions(registry, true, 30, 300000, Duration.ofMinutes(10));
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    List<ScoringPlan.Scored> ranked = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      Item item = new Item("id" + i, "anurag", "Dish " + i, null, List.of(), List.of(), 100, true, now, now);
+      ranked.add(new ScoringPlan.Scored(item, 1.0, List.of(), null));
+    }
+
+    sessions.open("dec1", "anurag", null, 2, null, null, ranked, 2);
+    DecideSessions.Session session = sessions.get("dec1", "anurag");
+    for (int page = 2; page <= 5; page++) {
+      session.next();
+      sessions.link("dec" + page, session);
+    }
+
+    assertThat(sessions.get("dec5", "anurag")).isSameAs(session);
+    assertThat(sessions.get("dec5", "someone-else")).isNull();
+    assertThat(registry.get("mealpilot.cache.weight").tag("cache", "decide_sessions").gauge().value()).isEqualTo(10.0);
+  }
+}
@@ -0,0 +1,129 @@
+package com.mealpilot.api.decide;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockJwt;
+
+import com.mealpilot.api.config.SecurityConfig;
+import com.mealpilot.api.items.Item;
+import com.mealpilot.api.items.ItemCatalogCache;
+import com.mealpilot.api.items.ItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(controllers = DecideController.class, properties = "mealpilot.decide.strict-hard-avoid=true")
+@Import({
+    SecurityConfig.class,
+    ItemCatalogCache.class,
+    UserPreferenceCache.class,
+    DecideSources.class,
+    DecideLoader.class,
+    RankingExecutor.class,
+    DecisionMemo.class,
+    DecisionPreviews.class,
+    DecideSessions.class,
+    ReadyDecisions.class,
+    ColdStartPool.class,
+    ItemSimilarity.class,
+    DecisionWriteBehind.class,
+    SimpleMeterRegistry.class
+})
+class DecideStrictModeTest {
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @MockBean
+  private ItemRepository itemRepository;
+
+  @MockBean
+  private ReadyDecisionStore readyDecisionStore;
+
+  @MockBean
+  private PopularItemStore popularItemStore;
+
+  @MockBean
+  private ItemSimilarityStore itemSimilarityStore;
+
+  @MockBean
+  private DecisionRepository decisionRepository;
+
+  @MockBean
+  private UserPreferenceRepository userPreferenceRepository;
+
+  @BeforeEach
+  void noReadyDecisions() {
+    when(readyDecisionStore.find(any(String.class))).thenReturn(Mono.empty());
+  }
+
+  @Test
+  void decide_dropsHardAvoidItems_inStrictMode() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("strict-user")).thenReturn(Flux.just(
+        new Item("id1", "strict-user", "Satay", null, List.of(" Peanut "), List.of(), 100, true, now, now),
+        new Item("id2", "strict-user", "Dal", null, List.of("veg"), List.of(), 100, true, now, now)
+    ));
+
+    UserPreference.PreferenceProfile profile = new UserPreference.PreferenceProfile(
+        null, null, Set.of(), Set.of(), Set.of(), Set.of(), Set.of(), Set.of("peanut"), null
+    );
+    when(userPreferenceRepository.findById("strict-user"))
+        .thenReturn(Mono.just(UserPreference.empty("strict-user").withProfile(profile)));
+
+    when(decisionRepository.save(any(Decision.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("strict-user")))
+        .post()
+        .uri("/api/decide")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.candidates.length()").isEqualTo(1)
+        .jsonPath("$.candidates[0].item.id").isEqualTo("id2");
+  }
+
+  @Test
+  void decide_persistsNothing_whenEveryItemIsHardAvoided() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("strict-user-2")).thenReturn(Flux.just(
+        new Item("id1", "strict-user-2", "Satay", null, List.of("peanut"), List.of(), 100, true, now, now)
+    ));
+
+    UserPreference.PreferenceProfile profile = new UserPreference.PreferenceProfile(
+        null, null, Set.of(), Set.of(), Set.of(), Set.of(), Set.of(), Set.of("peanut"), null
+    );
+    when(userPreferenceRepository.findById("strict-user-2"))
+        .thenReturn(Mono.just(UserPreference.empty("strict-user-2").withProfile(profile)));
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("strict-user-2")))
+        .post()
+        .uri("/api/decide")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.decisionId").doesNotExist()
+        .jsonPath("$.candidates.length()").isEqualTo(0);
+
+    verify(decisionRepository, never()).save(any(Decision.class));
+  }
+}
@@ -1,10 +1,13 @@
 package com.mealpilot.api.decide;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockJwt;
 
 import com.mealpilot.api.config.SecurityConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Instant;
 import java.util.List;
 import org.junit.jupiter.api.Test;
@@ -17,7 +20,7 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
 
 @WebFluxTest(controllers = DecisionController.class)
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, UserPreferenceCache.class, DecisionWriteBehind.class, ReadyDecisions.class, SimpleMeterRegistry.class})
 class DecisionControllerTest {
 
   @Autowired
@@ -35,6 +38,9 @@ class DecisionControllerTest {
   @MockBean
   private DecisionEventRepository decisionEventRepository;
 
+  @MockBean
+  private ReadyDecisionStore readyDecisionStore;
+
   @Test
   void feedback_requiresStatus() {
     webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
@@ -100,6 +106,41 @@ class DecisionControllerTest {
       .expectStatus().isForbidden();
     }
 
+  @Test
+  void getById_rendersWhyFromReasonCodes() {
+    Decision decision = new Decision(
+      "dec1",
+      "anurag",
+      Instant.parse("2026-01-01T00:00:00Z"),
+      new Decision.DecideInput(250, List.of("spicy"), List.of(), "", 3),
+      List.of(new Decision.CandidateSnapshot(
+          new Decision.ItemSnapshot("it1", "A", null, List.of("spicy"), 200),
+          3.0,
+          1.0,
+          null,
+          List.of(),
+          null,
+          List.of(
+              new Decision.Reason(ReasonCode.BUDGET_WITHIN, "250"),
+              new Decision.Reason(ReasonCode.MUST_TAG, "spicy")
+          )
+      )),
+      null
+    );
+
+    when(decisionRepository.findById("dec1")).thenReturn(Mono.just(decision));
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+      .get()
+      .uri("/api/decisions/dec1")
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$.candidates[0].why[0]").isEqualTo("Within budget (≤ 250)")
+      .jsonPath("$.candidates[0].why[1]").isEqualTo("Matches tag: spicy")
+      .jsonPath("$.candidates[0].reasons[1].code").isEqualTo("MUST_TAG");
+  }
+
   @Test
   void feedback_rejectsWrongUser() {
     Decision decision = new Decision(
@@ -144,6 +185,7 @@ class DecisionControllerTest {
 
     when(decisionEventRepository.save(any(DecisionEvent.class)))
       .thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+    when(readyDecisionStore.invalidate(eq("anurag"), any(Instant.class))).thenReturn(Mono.empty());
 
     webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
       .post()
@@ -157,6 +199,8 @@ class DecisionControllerTest {
         .jsonPath("$.feedback.status").isEqualTo("ACCEPT")
         .jsonPath("$.feedback.comment").isEqualTo("Looks good")
         .jsonPath("$.feedback.createdAt").exists();
+    // Learned weights changed: the ready decision is dropped before the feedback response.
+    verify(readyDecisionStore).invalidate(eq("anurag"), any(Instant.class));
   }
 
   @Test
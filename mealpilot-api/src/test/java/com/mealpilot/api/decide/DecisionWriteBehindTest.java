@@ -0,0 +1,101 @@
+package com.mealpilot.api.decide;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class DecisionWriteBehindTest {
+
+  private final DecisionRepository repo = mock(DecisionRepository.class);
+
+  @Test
+  void writeBehind_assignsIdsAndFlushesBatches() {
+    when(repo.insert(anyIterable())).thenAnswer(inv -> Flux.fromIterable(inv.<Iterable<Decision>>getArgument(0)));
+    DecisionWriteBehind writer = writer(10, 2, "SYNC");
+
+    Decision first = writer.persist(decision()).block();
+    assertThat(first.id()).isNotBlank();
+    assertThat(writer.pending(first.id())).isEqualTo(first);
+
+    Decision second = writer.persist(decision()).block();
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Iterable<Decision>> batch = ArgumentCaptor.forClass(Iterable.class);
+    verify(repo, timeout(1000)).insert(batch.capture());
+    assertThat(batch.getValue()).extracting(Decision::id).containsExactly(first.id(), second.id());
+    verify(repo, never()).save(any(Decision.class));
+    writer.destroy();
+  }
+
+  @Test
+  void writeBehind_spillsToSynchronousSaveWhenQueueIsFull() {
+    when(repo.save(any(Decision.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+    DecisionWriteBehind writer = writer(1, 10, "SYNC");
+
+    writer.persist(decision()).block();
+    Decision spilled = writer.persist(decision()).block();
+
+    verify(repo).save(spilled);
+    assertThat(writer.pending(spilled.id())).isNull();
+  }
+
+  @Test
+  void writeBehind_dropsWithoutAnId_whenQueueIsFull() {
+    DecisionWriteBehind writer = writer(1, 10, "DROP");
+
+    writer.persist(decision()).block();
+    Decision dropped = writer.persist(decision()).block();
+
+    // Nothing may memoize, link or hand out an id that was never stored.
+    assertThat(dropped.id()).isNull();
+    verify(repo, never()).save(any(Decision.class));
+  }
+
+  @Test
+  void destroy_waitsForTheBatchBeingWritten() {
+    AtomicBoolean written = new AtomicBoolean();
+    when(repo.insert(anyIterable())).thenAnswer(inv -> Mono.delay(Duration.ofMillis(200))
+        .thenMany(Flux.fromIterable(inv.<Iterable<Decision>>getArgument(0)))
+        .doOnComplete(() -> written.set(true)));
+    DecisionWriteBehind writer = writer(10, 1, "SYNC");
+
+    writer.persist(decision()).block();
+    verify(repo, timeout(1000)).insert(anyIterable());
+    writer.destroy();
+
+    assertThat(written).isTrue();
+  }
+
+  private DecisionWriteBehind writer(int capacity, int batchSize, String overflow) {
+    return new DecisionWriteBehind(
+        repo,
+        new SimpleMeterRegistry(),
+        true,
+        capacity,
+        batchSize,
+        Duration.ofHours(1),
+        0,
+        overflow,
+        Duration.ofMillis(10)
+    );
+  }
+
+  private static Decision decision() {
+    return new Decision(null, "anurag", Instant.parse("2026-01-01T00:00:00Z"), null, List.of(), null);
+  }
+}
@@ -0,0 +1,119 @@
+package com.mealpilot.api.decide;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockJwt;
+
+import com.mealpilot.api.config.SecurityConfig;
+import com.mealpilot.api.items.Item;
+import com.mealpilot.api.items.ItemCatalogCache;
+import com.mealpilot.api.items.ItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(controllers = GroupDecideController.class)
+@Import({
+    SecurityConfig.class,
+    ItemCatalogCache.class,
+    UserPreferenceCache.class,
+    DecideSources.class,
+    DecideLoader.class,
+    ColdStartPool.class,
+    ItemSimilarity.class,
+    RankingExecutor.class,
+    SimpleMeterRegistry.class
+})
+class GroupDecideControllerTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @MockBean
+  private ItemRepository itemRepository;
+
+  @MockBean
+  private DecisionRepository decisionRepository;
+
+  @MockBean
+  private UserPreferenceRepository userPreferenceRepository;
+
+  @MockBean
+  private PopularItemStore popularItemStore;
+
+  @MockBean
+  private ItemSimilarityStore itemSimilarityStore;
+
+  @Test
+  void group_poolsCatalogs_dropsAnyMembersAllergens_andScoresPerMember() {
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag"))
+        .thenReturn(Flux.just(
+            new Item("id1", "anurag", "Peanut Noodles", "Wok", List.of("peanut"), List.of(), 200, true, NOW, NOW),
+            new Item("id2", "anurag", "Paneer Wrap", "Green Bowl", List.of("veg"), List.of(), 150, true, NOW, NOW)
+        ));
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("priya"))
+        .thenReturn(Flux.just(
+            new Item("id3", "priya", "Veg Thali", "Home", List.of("veg"), List.of(), 120, true, NOW, NOW)
+        ));
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+    when(userPreferenceRepository.findById("priya")).thenReturn(Mono.just(UserPreference.empty("priya")
+        .withProfile(profile(Set.of("veg"), Set.of("peanut"), Set.of("anurag")))));
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide/group")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"members\":[\"priya\"],\"strategy\":\"least_misery\",\"limit\":5}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.members[0]").isEqualTo("anurag")
+        .jsonPath("$.members[1]").isEqualTo("priya")
+        .jsonPath("$.strategy").isEqualTo("least_misery")
+        .jsonPath("$.candidates.length()").isEqualTo(2)
+        .jsonPath("$.candidates[?(@.item.id == 'id1')]").doesNotExist()
+        .jsonPath("$.candidates[0].memberScores.anurag").isEqualTo(1.0)
+        .jsonPath("$.candidates[0].memberScores.priya").isNumber();
+  }
+
+  @Test
+  void group_isForbidden_unlessEveryMemberSharedWithTheCaller() {
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("meera")).thenReturn(Flux.empty());
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("rahul")).thenReturn(Flux.empty());
+    when(userPreferenceRepository.findById("meera")).thenReturn(Mono.empty());
+    when(userPreferenceRepository.findById("rahul")).thenReturn(Mono.just(UserPreference.empty("rahul")
+        .withProfile(profile(Set.of(), Set.of(), Set.of("someone_else")))));
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("meera")))
+        .post()
+        .uri("/api/decide/group")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"members\":[\"rahul\"]}")
+        .exchange()
+        .expectStatus().isForbidden();
+    // Rahul's items are never read on Meera's behalf.
+    verify(itemRepository, never()).findAllByUserIdAndActiveIsTrue("rahul");
+  }
+
+  private static UserPreference.PreferenceProfile profile(
+      Set<String> preferTags,
+      Set<String> allergens,
+      Set<String> sharedWith
+  ) {
+    return new UserPreference.PreferenceProfile(
+        null, null, preferTags, Set.of(), Set.of(), Set.of(), Set.of(), allergens, null, sharedWith);
+  }
+}
@@ -0,0 +1,65 @@
+package com.mealpilot.api.decide;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mealpilot.api.items.Item;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class GroupDeciderTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+  private static final DecideController.DecideRequest REQUEST = new DecideController.DecideRequest(null, null, null, null, null);
+
+  @Test
+  void strategies_trade_offTheFavoriteAgainstTheLeastHappyMember() {
+    // Two members love spicy food, one avoids it; the wrap is fine for everyone.
+    List<ScoringPlan> lanes = List.of(
+        lane(Set.of("spicy", "rich", "smoky"), Set.of()),
+        lane(Set.of("spicy", "rich", "smoky"), Set.of()),
+        lane(Set.of(), Set.of("spicy"))
+    );
+    List<Item> pool = List.of(
+        item("curry", "spicy", "rich", "smoky"),
+        item("wrap", "veg"),
+        item("curry", "spicy", "rich", "smoky")
+    );
+
+    List<GroupDecider.Ranked> mean = GroupDecider.rank(lanes, pool, GroupDecider.Strategy.MEAN, 5);
+    List<GroupDecider.Ranked> misery = GroupDecider.rank(lanes, pool, GroupDecider.Strategy.LEAST_MISERY, 5);
+    List<GroupDecider.Ranked> approval = GroupDecider.rank(lanes, pool, GroupDecider.Strategy.APPROVAL, 5);
+
+    assertThat(mean).extracting(r -> r.item().id()).containsExactly("curry", "wrap");
+    assertThat(misery).extracting(r -> r.item().id()).containsExactly("wrap", "curry");
+    assertThat(approval).extracting(r -> r.item().id()).containsExactly("wrap", "curry");
+    assertThat(approval.get(0).score()).isEqualTo(3.0);
+    assertThat(mean.get(0).memberScores()).hasSize(3);
+  }
+
+  @Test
+  void anyMembersHardAvoidTag_dropsTheItem() {
+    UserPreference allergic = UserPreference.empty("b").withProfile(new UserPreference.PreferenceProfile(
+        null, null, Set.of(), Set.of(), Set.of(), Set.of(), Set.of(), Set.of("peanut"), null));
+    List<ScoringPlan> lanes = List.of(
+        ScoringPlan.compile(REQUEST, UserPreference.empty("a")),
+        ScoringPlan.compile(REQUEST, allergic)
+    );
+
+    List<GroupDecider.Ranked> ranked = GroupDecider.rank(
+        lanes, List.of(item("satay", "peanut"), item("rice", "plain")), GroupDecider.Strategy.MEAN, 5);
+
+    assertThat(ranked).extracting(r -> r.item().id()).containsExactly("rice");
+  }
+
+  private static ScoringPlan lane(Set<String> preferTags, Set<String> avoidTags) {
+    UserPreference preference = UserPreference.empty("u").withProfile(new UserPreference.PreferenceProfile(
+        null, null, preferTags, avoidTags, Set.of(), Set.of(), Set.of(), Set.of(), null));
+    return ScoringPlan.compile(REQUEST, preference);
+  }
+
+  private static Item item(String id, String... tags) {
+    return new Item(id, "u", id, "Somewhere", List.of(tags), List.of(), 100, true, NOW, NOW);
+  }
+}
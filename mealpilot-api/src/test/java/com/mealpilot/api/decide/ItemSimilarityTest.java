@@ -0,0 +1,222 @@
+package com.mealpilot.api.decide;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class ItemSimilarityTest {
+
+  private static final String BIRYANI = ItemSimilarity.key("Biryani House", "Chicken Biryani");
+  private static final String HALEEM = ItemSimilarity.key("Pista House", "Haleem");
+  private static final String ROLL = ItemSimilarity.key("Roll Point", "Paneer Roll");
+
+  private final ItemSimilarityStore store = mock(ItemSimilarityStore.class);
+  private final Map<String, ItemNeighbors> table = new HashMap<>();
+
+  @Test
+  void count_addsEachWindowToTheStoredCounts_oncePerUserAndPair() {
+    Instant first = Instant.parse("2026-01-01T00:00:00Z");
+    Instant second = Instant.parse("2026-01-02T00:00:00Z");
+    storeInMemory();
+
+    leaseWindow(Instant.EPOCH, first.plusSeconds(1));
+    when(store.acceptsBetween(eq(Instant.EPOCH), any(Instant.class))).thenReturn(Flux.just(
+        accept("u1", "Biryani House", "Chicken Biryani", first),
+        accept("u1", "Pista House", "Haleem", first),
+        accept("u2", "Biryani House", "Chicken Biryani", first),
+        accept("u2", " pista house", "HALEEM ", first),
+        accept("u2", "Roll Point", "Paneer Roll", first)
+    ));
+    ItemSimilarity similarity = similarity();
+    assertThat(similarity.count().block()).isEqualTo(3);
+    // Nothing was counted before the first window.
+    verify(store, never()).acceptsOf(anyString(), any(Instant.class), anyInt());
+
+    assertThat(table.get(BIRYANI).users()).isEqualTo(2);
+    assertThat(table.get(BIRYANI).neighbors())
+        .containsExactly(new ItemNeighbors.Neighbor(HALEEM, "pista house", "haleem", 1.0));
+    assertThat(table.get(ROLL).neighbors()).isEmpty();
+
+    // u1 accepts the biryani again (already counted) and then the roll; u3 is new.
+    leaseWindow(second, second.plusSeconds(1));
+    when(store.acceptsBetween(eq(second), any(Instant.class))).thenReturn(Flux.just(
+        accept("u1", "Biryani House", "Chicken Biryani", second),
+        accept("u1", "Roll Point", "Paneer Roll", second),
+        accept("u3", "Roll Point", "Paneer Roll", second)
+    ));
+    when(store.acceptsOf("u1", second, 50)).thenReturn(Flux.just(
+        accept("u1", "Pista House", "Haleem", first),
+        accept("u1", "Biryani House", "Chicken Biryani", first)
+    ));
+    when(store.acceptsOf("u3", second, 50)).thenReturn(Flux.empty());
+    similarity.count().block();
+
+    assertThat(table.get(BIRYANI).users()).isEqualTo(2);
+    assertThat(table.get(ROLL).users()).isEqualTo(3);
+    assertThat(table.get(ROLL).coAccepts()).extracting(ItemNeighbors.CoAccept::users).containsExactly(2, 2);
+    assertThat(table.get(ROLL).neighbors()).extracting(ItemNeighbors.Neighbor::key).containsExactly(BIRYANI, HALEEM);
+    assertThat(table.get(ROLL).neighbors().get(0).similarity()).isEqualTo(2.0 / 3);
+    assertThat(table.get(BIRYANI).neighbors()).extracting(ItemNeighbors.Neighbor::similarity).containsExactly(1.0, 1.0);
+    verify(store, times(2)).complete(anyString(), any(ItemSimilarityStore.Window.class));
+  }
+
+  @Test
+  void count_retriesAFailedWindow_withoutAddingTheItemsItWroteTwice() {
+    Instant at = Instant.parse("2026-01-01T00:00:00Z");
+    storeInMemory();
+    leaseWindow(Instant.EPOCH, at.plusSeconds(1));
+    when(store.acceptsBetween(eq(Instant.EPOCH), any(Instant.class))).thenAnswer(inv -> Flux.just(
+        accept("u1", "Biryani House", "Chicken Biryani", at),
+        accept("u1", "Pista House", "Haleem", at),
+        accept("u2", "Biryani House", "Chicken Biryani", at),
+        accept("u2", "Pista House", "Haleem", at)
+    ));
+    // The first run writes one item, then fails.
+    doAnswer(inv -> {
+      Collection<ItemNeighbors> items = inv.getArgument(0);
+      ItemNeighbors first = items.iterator().next();
+      table.put(first.key(), first);
+      return Mono.error(new IllegalStateException("write failed"));
+    }).when(store).saveAll(any());
+    ItemSimilarity similarity = similarity();
+
+    assertThatThrownBy(() -> similarity.count().block()).hasMessageContaining("write failed");
+    verify(store, never()).complete(anyString(), any(ItemSimilarityStore.Window.class));
+    verify(store).release(anyString());
+    assertThat(table).hasSize(1);
+
+    storeInMemory();
+    assertThat(similarity.count().block()).isEqualTo(1);
+    verify(store).complete(anyString(), eq(new ItemSimilarityStore.Window(Instant.EPOCH, at.plusSeconds(1))));
+    assertThat(table.get(BIRYANI).users()).isEqualTo(2);
+    assertThat(table.get(HALEEM).users()).isEqualTo(2);
+    assertThat(table.get(BIRYANI).coAccepts()).extracting(ItemNeighbors.CoAccept::users).containsExactly(2);
+  }
+
+  @Test
+  void count_leavesTheWindow_whenAnotherInstanceHoldsTheLease() {
+    when(store.lease(anyString(), any(Instant.class), any(Duration.class))).thenReturn(Mono.empty());
+
+    assertThat(similarity().count().block()).isEqualTo(0);
+    verify(store, never()).acceptsBetween(any(Instant.class), any(Instant.class));
+  }
+
+  @Test
+  void affinityFor_matchesNeighboursOfTheUsersRecentAccepts() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    when(store.lease(anyString(), any(Instant.class), any(Duration.class))).thenReturn(Mono.empty());
+    when(store.allNeighbors()).thenReturn(Flux.just(new ItemNeighbors(
+        BIRYANI, "biryani house", "chicken biryani", 4, null,
+        List.of(new ItemNeighbors.Neighbor(HALEEM, "pista house", "haleem", 0.75)),
+        now,
+        now
+    )));
+    ItemSimilarity similarity = similarity();
+    similarity.update().block();
+
+    Decision accepted = new Decision(
+        "dec1",
+        "u1",
+        now,
+        null,
+        List.of(new Decision.CandidateSnapshot(
+            new Decision.ItemSnapshot("i1", "Chicken Biryani", "Biryani House", List.of(), 200), 1.0, 0.5, List.of())),
+        (Decision.Feedback) null
+    );
+    UserPreference preference = UserPreference.empty("u1")
+        .applyDecisionFeedback(accepted, feedback(Decision.FeedbackStatus.ACCEPT));
+    assertThat(preference.recentAccepts()).containsExactly(BIRYANI);
+
+    ItemSimilarity.Affinity affinity = similarity.affinityFor(preference);
+    assertThat(affinity.atRestaurant("pista house"))
+        .containsEntry("haleem", new ItemSimilarity.Match(0.75, "chicken biryani"));
+    assertThat(affinity.atRestaurant("roll point")).isNull();
+    assertThat(similarity.affinityFor(UserPreference.empty("u2"))).isSameAs(ItemSimilarity.Affinity.NONE);
+  }
+
+  @Test
+  void reload_movesTheVersionOnlyWhenTheTableChanged() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    ItemNeighbors biryani = new ItemNeighbors(
+        BIRYANI, "biryani house", "chicken biryani", 4, null,
+        List.of(new ItemNeighbors.Neighbor(HALEEM, "pista house", "haleem", 0.75)),
+        now,
+        now
+    );
+    when(store.lease(anyString(), any(Instant.class), any(Duration.class))).thenReturn(Mono.empty());
+    when(store.allNeighbors()).thenReturn(Flux.just(biryani));
+    ItemSimilarity similarity = similarity();
+    similarity.update().block();
+
+    UserPreference preference = new UserPreference("u1", null, null, 0, null, null, null, List.of(ROLL));
+    ItemSimilarity.Affinity affinity = similarity.affinityFor(preference);
+    // No neighbours for the roll yet, but a reload may add some.
+    assertThat(affinity.atRestaurant("pista house")).isNull();
+    assertThat(affinity.version()).isEqualTo(similarity.version());
+
+    similarity.update().block();
+    assertThat(similarity.isCurrent(affinity.version())).isTrue();
+
+    when(store.allNeighbors()).thenReturn(Flux.just(biryani, new ItemNeighbors(
+        ROLL, "roll point", "paneer roll", 3, null,
+        List.of(new ItemNeighbors.Neighbor(HALEEM, "pista house", "haleem", 0.5)),
+        now.plusSeconds(3600),
+        now.plusSeconds(3600)
+    )));
+    similarity.update().block();
+    assertThat(similarity.isCurrent(affinity.version())).isFalse();
+    assertThat(similarity.isCurrent(ItemSimilarity.Affinity.NONE.version())).isTrue();
+    assertThat(similarity.affinityFor(preference).atRestaurant("pista house")).containsKey("haleem");
+  }
+
+  private void leaseWindow(Instant from, Instant until) {
+    when(store.lease(anyString(), any(Instant.class), any(Duration.class)))
+        .thenReturn(Mono.just(new ItemSimilarityStore.Window(from, until)));
+    when(store.complete(anyString(), any(ItemSimilarityStore.Window.class))).thenReturn(Mono.just(true));
+    when(store.release(anyString())).thenReturn(Mono.empty());
+  }
+
+  private void storeInMemory() {
+    doAnswer(inv -> {
+      Collection<String> keys = inv.getArgument(0);
+      return Flux.fromIterable(keys).mapNotNull(table::get);
+    }).when(store).find(any());
+    doAnswer(inv -> {
+      Collection<ItemNeighbors> items = inv.getArgument(0);
+      items.forEach(item -> table.put(item.key(), item));
+      return Mono.empty();
+    }).when(store).saveAll(any());
+  }
+
+  private ItemSimilarity similarity() {
+    return new ItemSimilarity(store, new SimpleMeterRegistry(), true, Duration.ZERO, Duration.ofMinutes(15), 50, 100, 2, 20);
+  }
+
+  private static ItemSimilarityStore.Accept accept(String userId, String restaurantName, String name, Instant at) {
+    return new ItemSimilarityStore.Accept(userId, restaurantName, name, at);
+  }
+
+  private static Decision.Feedback feedback(Decision.FeedbackStatus status) {
+    return new Decision.Feedback(status, null, null, Instant.parse("2026-01-01T00:00:00Z"));
+  }
+}
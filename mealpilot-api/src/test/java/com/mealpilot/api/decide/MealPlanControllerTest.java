@@ -0,0 +1,146 @@
+package com.mealpilot.api.decide;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockJwt;
+
+import com.mealpilot.api.config.SecurityConfig;
+import com.mealpilot.api.items.Item;
+import com.mealpilot.api.items.ItemCatalogCache;
+import com.mealpilot.api.items.ItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(controllers = MealPlanController.class)
+@Import({
+    SecurityConfig.class,
+    ItemCatalogCache.class,
+    UserPreferenceCache.class,
+    DecideSources.class,
+    DecideLoader.class,
+    ColdStartPool.class,
+    ItemSimilarity.class,
+    RankingExecutor.class,
+    SimpleMeterRegistry.class
+})
+class MealPlanControllerTest {
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @MockBean
+  private ItemRepository itemRepository;
+
+  @MockBean
+  private DecisionRepository decisionRepository;
+
+  @MockBean
+  private UserPreferenceRepository userPreferenceRepository;
+
+  @MockBean
+  private PopularItemStore popularItemStore;
+
+  @MockBean
+  private ItemSimilarityStore itemSimilarityStore;
+
+  @MockBean
+  private MealPlanRepository mealPlanRepository;
+
+  @Autowired
+  private ColdStartPool coldStartPool;
+
+  @Test
+  void plan_fillsEverySlotFromOneCatalogLoad_andStoresOneDocument() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("anurag"))
+        .thenReturn(Flux.just(
+            new Item("id1", "anurag", "Chicken Biryani", "Spice Hub", List.of("spicy"), List.of(), 300, true, now, now),
+            new Item("id2", "anurag", "Paneer Wrap", "Green Bowl", List.of("veg"), List.of(), 150, true, now, now),
+            new Item("id3", "anurag", "Dal Khichdi", "Home", List.of("comfort"), List.of(), 100, true, now, now)
+        ));
+    when(userPreferenceRepository.findById("anurag")).thenReturn(Mono.empty());
+    when(mealPlanRepository.save(any(MealPlan.class)))
+        .thenAnswer(inv -> Mono.just(inv.<MealPlan>getArgument(0).withId("plan1")));
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide/plan")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"days\":3,\"mealsPerDay\":2,\"repeatWindowDays\":1,\"weeklyBudget\":1200}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.id").isEqualTo("plan1")
+        .jsonPath("$.complete").isEqualTo(true)
+        .jsonPath("$.meals.length()").isEqualTo(6)
+        .jsonPath("$.meals[0].day").isEqualTo(0)
+        .jsonPath("$.meals[5].day").isEqualTo(2)
+        .jsonPath("$.meals[5].slot").isEqualTo(1)
+        .jsonPath("$.meals[0].why").isNotEmpty();
+
+    verify(itemRepository, times(1)).findAllByUserIdAndActiveIsTrue("anurag");
+    ArgumentCaptor<MealPlan> saved = ArgumentCaptor.forClass(MealPlan.class);
+    verify(mealPlanRepository, times(1)).save(saved.capture());
+    MealPlan plan = saved.getValue();
+    assertThat(plan.totalPrice()).isLessThanOrEqualTo(1200);
+    assertThat(plan.meals()).allMatch(m -> m.why() == null && m.reasons() != null);
+    for (int i = 1; i < plan.meals().size(); i++) {
+      assertThat(plan.meals().get(i).item().id()).isNotEqualTo(plan.meals().get(i - 1).item().id());
+    }
+  }
+
+  @Test
+  void plan_rejectsMoreThanAWeek() {
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .post()
+        .uri("/api/decide/plan")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"days\":8}")
+        .exchange()
+        .expectStatus().isBadRequest();
+  }
+
+  @Test
+  void plan_usesColdStartPool_likeDecide() {
+    when(popularItemStore.mostAccepted(any(Instant.class), org.mockito.ArgumentMatchers.anyInt(), org.mockito.ArgumentMatchers.anyInt()))
+        .thenReturn(Flux.just(
+            new PopularItemStore.PopularItem(
+                new Decision.ItemSnapshot(null, "Chicken Biryani", "Biryani House", List.of("comfort"), 199), 12, 40),
+            new PopularItemStore.PopularItem(
+                new Decision.ItemSnapshot(null, "Paneer Tikka", "Punjabi Dhaba", List.of("veg"), 220), 8, 15)
+        ));
+    coldStartPool.refresh().block();
+
+    when(itemRepository.findAllByUserIdAndActiveIsTrue("newcomer")).thenReturn(Flux.empty());
+    when(userPreferenceRepository.findById("newcomer")).thenReturn(Mono.empty());
+    when(mealPlanRepository.save(any(MealPlan.class)))
+        .thenAnswer(inv -> Mono.just(inv.<MealPlan>getArgument(0).withId("plan2")));
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("newcomer")))
+        .post()
+        .uri("/api/decide/plan")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"days\":1,\"mealsPerDay\":2,\"repeatWindowDays\":1}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.id").isEqualTo("plan2")
+        .jsonPath("$.meals.length()").isEqualTo(2)
+        .jsonPath("$.meals[0].item.id").value(id -> assertThat((String) id).startsWith(ColdStartPool.ID_PREFIX));
+  }
+}
@@ -0,0 +1,75 @@
+package com.mealpilot.api.decide;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mealpilot.api.items.Item;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class MealPlannerTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+  @Test
+  void plan_respectsRepeatWindowBudgetAndVarietyCaps() {
+    List<ScoringPlan.Scored> candidates = List.of(
+        scored("a", "Spice Hub", 300, 9.0, "spicy"),
+        scored("b", "Spice Hub", 250, 8.0, "spicy"),
+        scored("c", "Green Bowl", 120, 6.0, "veg"),
+        scored("d", "Green Bowl", 100, 5.0, "veg"),
+        scored("e", "Home", 80, 4.0, "comfort"),
+        scored("f", "Home", 60, 3.0, "comfort")
+    );
+    // 7 days x 2 meals, nothing twice within 2 days, <= 6 meals per restaurant and per tag.
+    MealPlanner.Constraints constraints = new MealPlanner.Constraints(7, 2, 2100, 4, 6, 6);
+
+    MealPlanner.Result result = MealPlanner.solve(candidates, constraints, 64, Duration.ofSeconds(1));
+
+    assertThat(result.complete()).isTrue();
+    assertThat(result.timedOut()).isFalse();
+    assertThat(result.slots()).hasSize(14);
+    assertThat(result.totalPrice()).isLessThanOrEqualTo(2100);
+
+    List<String> ids = result.slots().stream().map(s -> s.item().id()).toList();
+    for (int i = 0; i < ids.size(); i++) {
+      for (int j = Math.max(0, i - 3); j < i; j++) {
+        assertThat(ids.get(j)).isNotEqualTo(ids.get(i));
+      }
+    }
+
+    Map<String, Integer> perRestaurant = new HashMap<>();
+    for (ScoringPlan.Scored s : result.slots()) {
+      perRestaurant.merge(s.item().restaurantName(), 1, Integer::sum);
+    }
+    assertThat(perRestaurant.values()).allMatch(n -> n <= 6);
+    // The best item is used as often as the window allows.
+    assertThat(ids.stream().filter("a"::equals).count()).isGreaterThanOrEqualTo(2);
+  }
+
+  @Test
+  void plan_leavesSlotsEmpty_whenNothingFits() {
+    List<ScoringPlan.Scored> candidates = new ArrayList<>(List.of(
+        scored("a", "Spice Hub", 100, 9.0, "spicy"),
+        scored("b", "Green Bowl", 100, 8.0, "veg")
+    ));
+    // Two items, no repeats within 7 days: only two of the seven slots can be filled.
+    MealPlanner.Constraints constraints = new MealPlanner.Constraints(7, 1, null, 7, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    MealPlanner.Result result = MealPlanner.solve(candidates, constraints, 8, Duration.ofSeconds(1));
+
+    assertThat(result.complete()).isFalse();
+    assertThat(result.slots().stream().filter(s -> s != null).map(s -> s.item().id()))
+        .containsExactlyInAnyOrder("a", "b");
+    assertThat(result.totalScore()).isEqualTo(17.0);
+  }
+
+  private static ScoringPlan.Scored scored(String id, String restaurant, int price, double score, String tag) {
+    Item item = new Item(id, "anurag", id, restaurant, List.of(tag), List.of(), price, true, NOW, NOW);
+    return new ScoringPlan.Scored(item, score, List.of(), null);
+  }
+}
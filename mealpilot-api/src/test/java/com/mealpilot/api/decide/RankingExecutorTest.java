@@ -0,0 +1,95 @@
+package com.mealpilot.api.decide;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mealpilot.api.items.Item;
+import com.mealpilot.api.items.ItemCatalog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+class RankingExecutorTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void rank_parallelChunksMatchSequentialRanking() {
+    ItemCatalog catalog = ItemCatalog.of(items(1000));
+    ScoringPlan plan = ScoringPlan.compile(
+        new DecideController.DecideRequest(300, List.of("spicy"), null, "bowl", 5),
+        UserPreference.empty("u")
+    );
+
+    RankingExecutor inline = new RankingExecutor(meterRegistry, 100_000, 100_000, 4, 16, 0);
+    RankingExecutor parallel = new RankingExecutor(meterRegistry, 10, 100, 4, 16, 0);
+    try {
+      List<String> expected = ids(inline.rank(plan, catalog, 5, false, false).block());
+      assertThat(ids(parallel.rank(plan, catalog, 5, false, false).block())).isEqualTo(expected);
+      assertThat(meterRegistry.counter("mealpilot.decide.scoring.offloaded").count()).isEqualTo(1.0);
+    } finally {
+      inline.destroy();
+      parallel.destroy();
+    }
+  }
+
+  @Test
+  void rank_failsFastWith503_whenThePoolIsSaturated() throws Exception {
+    RankingExecutor executor = new RankingExecutor(meterRegistry, 1, 100_000, 1, 1, 10_000);
+    ItemCatalog catalog = ItemCatalog.of(items(10));
+    ScoringPlan plan = ScoringPlan.compile(new DecideController.DecideRequest(null, null, null, null, 3), null);
+
+    // Occupy the only thread, then the only queue slot.
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    try {
+      executorBusy(executor, started, release);
+      assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+      executor.rank(plan, catalog, 3, false, false).subscribe();
+
+      assertThatThrownBy(() -> executor.rank(plan, catalog, 3, false, false).block())
+          .isInstanceOf(ResponseStatusException.class)
+          .hasMessageContaining("503");
+      assertThat(meterRegistry.counter("mealpilot.decide.scoring.rejected").count()).isEqualTo(1.0);
+    } finally {
+      release.countDown();
+      executor.destroy();
+    }
+  }
+
+  private static void executorBusy(RankingExecutor executor, CountDownLatch started, CountDownLatch release) {
+    ScoringPlan plan = ScoringPlan.compile(new DecideController.DecideRequest(null, null, null, null, 1), null);
+    // Downstream of subscribeOn, so this runs on (and holds) the pool thread.
+    executor.rank(plan, ItemCatalog.of(items(1)), 1, false, false)
+        .doOnNext(r -> {
+          started.countDown();
+          try {
+            release.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        })
+        .subscribe();
+  }
+
+  private static List<String> ids(CandidateRanking ranking) {
+    return ranking.top().stream().map(s -> s.item().id() + "=" + s.score()).toList();
+  }
+
+  private static List<Item> items(int n) {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    List<Item> items = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      List<String> tags = i % 3 == 0 ? List.of("spicy") : List.of("mild");
+      String name = i % 5 == 0 ? "Noodle bowl " + i : "Dish " + i;
+      // Many equal scores, so the tie-break order decides the merge.
+      items.add(new Item("it" + i, "u", name, null, tags, List.of(), 100 + (i % 7) * 50, true, now, now.plusSeconds(i % 11)));
+    }
+    return items;
+  }
+}
@@ -0,0 +1,92 @@
+package com.mealpilot.api.decide;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class ReadyDecisionsTest {
+
+  private final ReadyDecisionStore store = mock(ReadyDecisionStore.class);
+
+  @Test
+  void burstOfWrites_invalidatesEachTime_andRecomputesOnce() {
+    when(store.invalidate(eq("anurag"), any(Instant.class))).thenReturn(Mono.empty());
+    when(store.save(any(ReadyDecision.class))).thenReturn(Mono.just(true));
+    AtomicInteger computations = new AtomicInteger();
+    ReadyDecisions ready = readyDecisions(Duration.ofMillis(50));
+    ready.computeWith((userId, computedAt) -> {
+      computations.incrementAndGet();
+      return Mono.just(new ReadyDecision(userId, "in", "items", "pref", null, decision(), List.of(), computedAt, null));
+    }, r -> true);
+
+    ready.invalidate("anurag").block();
+    ready.invalidate("anurag").block();
+    ready.invalidate("anurag").block();
+
+    verify(store, times(3)).invalidate(eq("anurag"), any(Instant.class));
+    verify(store, timeout(1000)).save(any(ReadyDecision.class));
+    verify(store, after(200).times(1)).save(any(ReadyDecision.class));
+    assertThat(computations).hasValue(1);
+  }
+
+  @Test
+  void prewarm_computesUsualDecidersWithoutAReadyDecision_oncePerHour() {
+    Instant now = Instant.parse("2026-01-01T11:35:00Z");
+    when(store.usersDecidingAt(eq(12), any(Instant.class), eq(3), eq(1000)))
+        .thenReturn(Flux.just("fresh", "stale"));
+    when(store.find("fresh")).thenReturn(Mono.just(
+        new ReadyDecision("fresh", "in", "items", "pref", null, decision(), List.of(), now, null)));
+    when(store.find("stale")).thenReturn(Mono.just(
+        new ReadyDecision("stale", null, null, null, null, null, null, null, now)));
+    when(store.save(any(ReadyDecision.class))).thenReturn(Mono.just(true));
+    List<String> computed = new java.util.concurrent.CopyOnWriteArrayList<>();
+    ReadyDecisions ready = readyDecisions(Duration.ofSeconds(2));
+    ready.computeWith((userId, computedAt) -> {
+      computed.add(userId);
+      return Mono.just(new ReadyDecision(userId, "in", "items", "pref", null, decision(), List.of(), computedAt, null));
+    }, r -> true);
+
+    ready.prewarm(now);
+    ready.prewarm(now.plusSeconds(600));
+
+    verify(store, timeout(1000)).save(any(ReadyDecision.class));
+    verify(store, times(1)).usersDecidingAt(eq(12), any(Instant.class), eq(3), eq(1000));
+    verify(store, never()).invalidate(any(String.class), any(Instant.class));
+    assertThat(computed).containsExactly("stale");
+  }
+
+  private ReadyDecisions readyDecisions(Duration refreshDelay) {
+    return new ReadyDecisions(
+        store,
+        new SimpleMeterRegistry(),
+        true,
+        Duration.ofMillis(200),
+        refreshDelay,
+        Duration.ZERO,
+        Duration.ofMinutes(30),
+        Duration.ofDays(28),
+        3,
+        1000
+    );
+  }
+
+  private static Decision decision() {
+    return new Decision(null, "anurag", Instant.now(), null, List.of(), null);
+  }
+}
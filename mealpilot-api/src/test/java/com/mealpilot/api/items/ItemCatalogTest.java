@@ -0,0 +1,41 @@
+package com.mealpilot.api.items;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ItemCatalogTest {
+
+  private final Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+  @Test
+  void with_maintainsTheSameFingerprintAsAFreshLoad() {
+    Item a = item("a", true, now);
+    Item b = item("b", true, now);
+    Item c = item("c", true, now);
+
+    ItemCatalog catalog = ItemCatalog.of(List.of(a, b));
+
+    Item bUpdated = item("b", true, now.plusSeconds(60));
+    ItemCatalog updated = catalog.with(bUpdated).with(c).with(item("a", false, now.plusSeconds(120)));
+
+    ItemCatalog fresh = ItemCatalog.of(List.of(c, bUpdated));
+    assertThat(updated.items()).containsExactlyInAnyOrder(bUpdated, c);
+    assertThat(updated.itemsHash()).isEqualTo(fresh.itemsHash());
+    assertThat(updated.itemsHash()).isNotEqualTo(catalog.itemsHash());
+  }
+
+  @Test
+  void itemsHash_isNullForAnEmptyCatalog() {
+    ItemCatalog catalog = ItemCatalog.of(List.of(item("a", true, now)));
+
+    assertThat(catalog.with(item("a", false, now)).itemsHash()).isNull();
+    assertThat(ItemCatalog.of(List.of()).itemsHash()).isNull();
+  }
+
+  private static Item item(String id, boolean active, Instant updatedAt) {
+    return new Item(id, "anurag", id.toUpperCase(), null, List.of(), List.of(), 100, active, updatedAt, updatedAt);
+  }
+}
@@ -1,13 +1,23 @@
 package com.mealpilot.api.items;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockJwt;
 
 import com.mealpilot.api.config.SecurityConfig;
+import com.mealpilot.api.decide.ReadyDecisionStore;
+import com.mealpilot.api.decide.ReadyDecisions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -17,7 +27,7 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
 
 @WebFluxTest(controllers = ItemController.class)
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, ItemCatalogCache.class, ReadyDecisions.class, SimpleMeterRegistry.class})
 class ItemControllerTest {
 
   @Autowired
@@ -29,6 +39,14 @@ class ItemControllerTest {
   @MockBean
   private ItemHistoryService itemHistoryService;
 
+  @MockBean
+  private ReadyDecisionStore readyDecisionStore;
+
+  @BeforeEach
+  void readyDecisionStore() {
+    when(readyDecisionStore.invalidate(any(String.class), any(Instant.class))).thenReturn(Mono.empty());
+  }
+
   @Test
   void list_returnsUserItems() {
     Instant now = Instant.parse("2026-01-01T00:00:00Z");
@@ -109,4 +127,46 @@ class ItemControllerTest {
         .jsonPath("$.restaurantName").isEqualTo("Hyderabadi Biryani House")
         .jsonPath("$.platformHints[0]").isEqualTo("swiggy");
   }
+
+  @Test
+  void create_storesDerivedSearchFields() {
+    when(repo.save(any(Item.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+      .post()
+        .uri("/api/items")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"name\":\"Chicken  Biryani\",\"restaurantName\":\" Biryani House \",\"tags\":[\" Comfort Food\",\"comfort food\",\"Spicy\"]}")
+        .exchange()
+        .expectStatus().isCreated()
+        .expectBody()
+        .jsonPath("$.searchTokens").doesNotExist()
+        .jsonPath("$.searchTags").doesNotExist();
+
+    ArgumentCaptor<Item> captor = ArgumentCaptor.forClass(Item.class);
+    verify(repo).save(captor.capture());
+    Item stored = captor.getValue();
+    assertThat(stored.searchTags()).containsExactly("comfort food", "spicy");
+    assertThat(stored.restaurantKey()).isEqualTo("biryani house");
+    assertThat(stored.searchTokens()).containsExactly("biryani", "chicken", "comfort", "food", "house", "spicy");
+  }
+
+  @Test
+  void delete_respondsOnlyOnceTheReadyDecisionIsDropped() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    Item existing = new Item("id1", "anurag", "Dal", null, List.of(), List.of(), 100, true, now, now);
+    when(repo.findById("id1")).thenReturn(Mono.just(existing));
+    when(repo.save(any(Item.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+    AtomicBoolean dropped = new AtomicBoolean();
+    when(readyDecisionStore.invalidate(eq("anurag"), any(Instant.class)))
+        .thenReturn(Mono.delay(Duration.ofMillis(100)).then(Mono.fromRunnable(() -> dropped.set(true))));
+
+    webTestClient.mutateWith(mockJwt().jwt(jwt -> jwt.subject("anurag")))
+        .delete()
+        .uri("/api/items/id1")
+        .exchange()
+        .expectStatus().isNoContent();
+
+    assertThat(dropped).isTrue();
+  }
 }